@@ -36,7 +36,10 @@ public class Admin implements User {
         System.out.println("5. View Semester-wise Trends");
         System.out.println("6. Export Reports");
         System.out.println("7. Filter Feedback");
-        System.out.println("8. Logout");
+        System.out.println("8. Search Comments");
+        System.out.println("9. Leaderboards");
+        System.out.println("10. Performance Metrics");
+        System.out.println("11. Logout");
         System.out.println("===========================");
     }
 
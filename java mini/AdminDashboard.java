@@ -1,3 +1,5 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -47,6 +49,15 @@ public class AdminDashboard {
                         filterFeedback();
                         break;
                     case 8:
+                        searchComments();
+                        break;
+                    case 9:
+                        showLeaderboards();
+                        break;
+                    case 10:
+                        showPerformanceMetrics();
+                        break;
+                    case 11:
                         System.out.println("\nLogging out from Admin Dashboard...");
                         return;
                     default:
@@ -179,6 +190,7 @@ public class AdminDashboard {
         System.out.println("3. Semester-wise Trend Analysis");
         System.out.println("4. All Console Graphs");
         System.out.println("5. Generate HTML Dashboard Report");
+        System.out.println("6. Generate Offline HTML Dashboard (charts as images)");
         System.out.println("0. Back");
         
         System.out.print("\nEnter choice: ");
@@ -191,7 +203,7 @@ public class AdminDashboard {
                                                                 repository.getUniqueSubjects());
                     break;
                 case 2:
-                    Map<Integer, Integer> overallDist = calculateOverallDistribution(repository);
+                    RatingHistogram overallDist = calculateOverallDistribution(repository);
                     GraphGenerator.generateRatingDistributionPieChart(overallDist, 
                                                                       "OVERALL RATING DISTRIBUTION");
                     break;
@@ -201,12 +213,13 @@ public class AdminDashboard {
                 case 4:
                     GraphGenerator.generateSubjectRatingBarChart(repository, 
                                                                 repository.getUniqueSubjects());
-                    Map<Integer, Integer> dist = calculateOverallDistribution(repository);
+                    RatingHistogram dist = calculateOverallDistribution(repository);
                     GraphGenerator.generateRatingDistributionPieChart(dist, 
                                                                       "OVERALL RATING DISTRIBUTION");
                     GraphGenerator.generateSemesterTrendChart(repository);
                     break;
                 case 5:
+                case 6:
                     System.out.print("\nEnter filename (e.g., feedback_report.html): ");
                     String filename = scanner.nextLine().trim();
                     if (filename.isEmpty()) {
@@ -215,8 +228,13 @@ public class AdminDashboard {
                     if (!filename.endsWith(".html")) {
                         filename += ".html";
                     }
-                    GraphGenerator.generateHTMLReport(repository, filename);
-                    System.out.println("\n✓ HTML report saved! Open '" + filename + "' in a browser to view interactive charts.");
+                    if (choice == 6) {
+                        GraphGenerator.generateHTMLReport(repository, filename, true);
+                        System.out.println("\n✓ HTML report saved! Open '" + filename + "' in a browser; it needs no internet connection.");
+                    } else {
+                        GraphGenerator.generateHTMLReport(repository, filename);
+                        System.out.println("\n✓ HTML report saved! Open '" + filename + "' in a browser to view interactive charts.");
+                    }
                     break;
                 case 0:
                     return;
@@ -238,16 +256,32 @@ public class AdminDashboard {
         // Additional detailed semester analysis
         System.out.println("\n--- Detailed Semester Analysis ---");
         for (int sem = 1; sem <= 8; sem++) {
-            List<Feedback> semFeedback = repository.getFeedbackBySemester(sem);
-            if (!semFeedback.isEmpty()) {
-                double avgRating = semFeedback.stream()
-                    .mapToInt(Feedback::getRating)
-                    .average()
-                    .orElse(0.0);
-                System.out.printf("Semester %d: %d entries, Avg Rating: %.2f/5.0\n", 
-                                 sem, semFeedback.size(), avgRating);
+            RatingHistogram semester = repository.getRatingDistribution(new FeedbackQuery().semester(sem));
+            if (!semester.isEmpty()) {
+                System.out.printf("Semester %d: %d entries, Avg Rating: %.2f/5.0 (spread ±%.2f)\n", 
+                                 sem, semester.getCount(), semester.getMean(), semester.getStandardDeviation());
             }
         }
+        
+        System.out.print("\nShow submission trend by hour, day, week or term (blank to skip): ");
+        String granularity = scanner.nextLine().trim();
+        if (granularity.isEmpty()) {
+            return;
+        }
+        TimeBucket bucket = TimeBucket.fromString(granularity);
+        long today = LocalDate.now().toEpochDay();
+        LocalDate termStart = LocalDate.ofEpochDay(TimeBucket.TERM.firstDay(TimeBucket.TERM.of(today, 0)));
+        try {
+            System.out.print("From date (yyyy-MM-dd, blank for start of this term " + termStart + "): ");
+            String fromText = scanner.nextLine().trim();
+            System.out.print("To date (yyyy-MM-dd, blank for today): ");
+            String toText = scanner.nextLine().trim();
+            LocalDate from = fromText.isEmpty() ? termStart : LocalDate.parse(fromText);
+            LocalDate to = toText.isEmpty() ? LocalDate.now() : LocalDate.parse(toText);
+            GraphGenerator.generateSubmissionTrendChart(repository, bucket, from, to);
+        } catch (DateTimeParseException e) {
+            System.out.println("\n❌ Invalid date! Use the format yyyy-MM-dd.");
+        }
     }
     
     /**
@@ -287,6 +321,7 @@ public class AdminDashboard {
         System.out.println("3. By Subject");
         System.out.println("4. By Faculty");
         System.out.println("5. By USN");
+        System.out.println("6. By Semester, Year and Rating Ranges");
         System.out.println("0. Back");
         
         System.out.print("\nEnter choice: ");
@@ -320,6 +355,9 @@ public class AdminDashboard {
                     String usn = scanner.nextLine().trim();
                     filtered = repository.getFeedbackByUSN(usn);
                     break;
+                case 6:
+                    filterByRanges(repository);
+                    return;
                 case 0:
                     return;
                 default:
@@ -343,19 +381,165 @@ public class AdminDashboard {
     }
     
     /**
-     * Calculate overall rating distribution
+     * Summarise feedback in semester, year and rating ranges, e.g. ratings 1-2
+     * in semesters 3-5; counts come from a column scan, rows only on request
+     */
+    private void filterByRanges(FeedbackRepository repository) {
+        int[] semesters = readRange("Semesters (e.g. 3-5, blank for all): ", 1, 8);
+        int[] years = readRange("Years (e.g. 2-3, blank for all): ", 1, 4);
+        int[] ratings = readRange("Ratings (e.g. 1-2, blank for all): ", 1, 5);
+        RangeFilter filter = new RangeFilter()
+            .semesters(semesters[0], semesters[1])
+            .years(years[0], years[1])
+            .ratings(ratings[0], ratings[1]);
+        
+        RatingHistogram distribution = repository.getRatingDistribution(filter);
+        if (distribution.isEmpty()) {
+            System.out.println("\n📭 No feedback found matching the criteria.");
+            return;
+        }
+        System.out.printf("\nMatching entries: %d, Avg Rating: %.2f/5.0\n", 
+                         distribution.getCount(), distribution.getMean());
+        GraphGenerator.generateRatingDistributionPieChart(distribution, "MATCHING RATINGS");
+        
+        System.out.print("\nShow the matching entries? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            for (Feedback fb : repository.getFeedback(filter)) {
+                fb.displayDetails();
+            }
+        }
+    }
+    
+    /**
+     * Read "from-to" or a single value; blank gives the full range
+     */
+    private int[] readRange(String prompt, int min, int max) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return new int[] {min, max};
+        }
+        String[] parts = input.split("-", 2);
+        int from = Integer.parseInt(parts[0].trim());
+        int to = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : from;
+        return new int[] {from, to};
+    }
+    
+    /**
+     * Show top and bottom faculty and subjects by average rating
+     */
+    private void showLeaderboards() {
+        FeedbackRepository repository = feedbackService.getRepository();
+        
+        System.out.println("\n========== LEADERBOARDS ==========");
+        System.out.println("(Minimum " + repository.getLeaderboardMinRatings() + " ratings to be ranked)");
+        
+        printStandings("Lowest-rated Faculty", repository.getBottomFaculty(5));
+        printStandings("Top-rated Faculty", repository.getTopFaculty(5));
+        printStandings("Lowest-rated Subjects", repository.getBottomSubjects(5));
+        printStandings("Top-rated Subjects", repository.getTopSubjects(5));
+    }
+    
+    /**
+     * Print one leaderboard section
+     */
+    private void printStandings(String title, List<Leaderboard.Standing> standings) {
+        System.out.println("\n--- " + title + " ---");
+        if (standings.isEmpty()) {
+            System.out.println("  Not enough ratings yet.");
+            return;
+        }
+        for (int i = 0; i < standings.size(); i++) {
+            Leaderboard.Standing s = standings.get(i);
+            System.out.printf("  %d. %-40s : %.2f / 5.0 (%d ratings)\n", 
+                i + 1, s.getLabel(), s.getAverage(), s.getCount());
+        }
+    }
+    
+    /**
+     * Show latency and throughput metrics, optionally exporting them
      */
-    private Map<Integer, Integer> calculateOverallDistribution(FeedbackRepository repository) {
-        Map<Integer, Integer> distribution = new HashMap<>();
-        for (int i = 1; i <= 5; i++) {
-            distribution.put(i, 0);
+    private void showPerformanceMetrics() {
+        MetricsRegistry.displayMetrics();
+        System.out.println(feedbackService.getRepository().getQueryCache());
+        long offHeapBytes = feedbackService.getRepository().getOffHeapBytes();
+        if (offHeapBytes > 0) {
+            System.out.printf("Off-heap feedback rows: %.1f MB%n", offHeapBytes / (1024.0 * 1024.0));
+        }
+        
+        System.out.println("\n1. Export metrics to metrics.json");
+        System.out.println("2. Dump flight recording to feedback_incident.jfr" 
+            + (FlightRecorderSupport.isRecording() ? "" : " (start with --jfr)"));
+        System.out.println("0. Back");
+        System.out.print("\nEnter choice: ");
+        try {
+            int choice = Integer.parseInt(scanner.nextLine().trim());
+            if (choice == 1) {
+                MetricsRegistry.exportToJSON("metrics.json");
+                System.out.println("\n✓ Metrics exported to metrics.json");
+            } else if (choice == 2) {
+                FlightRecorderSupport.dump("feedback_incident.jfr");
+                System.out.println("\n✓ Flight recording written to feedback_incident.jfr");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("\n❌ Invalid input!");
+        } catch (DataStorageException e) {
+            System.out.println("\n❌ Storage Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Search feedback comments, optionally narrowed by semester and rating
+     */
+    private void searchComments() {
+        FeedbackRepository repository = feedbackService.getRepository();
+        
+        System.out.println("\n========== SEARCH COMMENTS ==========");
+        System.out.println("Words are combined with AND; use \"quotes\" for an exact phrase.");
+        System.out.print("Search for: ");
+        String text = scanner.nextLine().trim();
+        if (text.isEmpty()) {
+            System.out.println("\n❌ Search text cannot be empty!");
+            return;
         }
         
-        for (Feedback fb : repository.getAllFeedback()) {
-            int rating = fb.getRating();
-            distribution.put(rating, distribution.get(rating) + 1);
+        FeedbackQuery query = new FeedbackQuery();
+        try {
+            System.out.print("Semester (1-8, Enter for all): ");
+            String sem = scanner.nextLine().trim();
+            if (!sem.isEmpty()) {
+                query.semester(Integer.parseInt(sem));
+            }
+            
+            System.out.print("Maximum rating (1-5, Enter for all): ");
+            String maxRating = scanner.nextLine().trim();
+            if (!maxRating.isEmpty()) {
+                query.maxRating(Integer.parseInt(maxRating));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("\n❌ Invalid input!");
+            return;
         }
         
-        return distribution;
+        long start = System.nanoTime();
+        List<Feedback> results = repository.searchComments(text, query);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        
+        if (results.isEmpty()) {
+            System.out.println("\n📭 No comments matched.");
+            return;
+        }
+        
+        System.out.printf("\nFound %d entries in %.2f ms:\n", results.size(), millis);
+        for (Feedback fb : results) {
+            fb.displayDetails();
+        }
+    }
+    
+    /**
+     * Calculate overall rating distribution
+     */
+    private RatingHistogram calculateOverallDistribution(FeedbackRepository repository) {
+        return repository.getRatingDistribution(new FeedbackQuery());
     }
 }
@@ -0,0 +1,178 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * BitmapIndex Class - Bitmap indexes over low-cardinality feedback fields
+ * Keeps one RowBitmap per semester (1-8), year (1-4) and rating (1-5), plus one
+ * per subject and per faculty, all keyed by row position in the repository.
+ * Filters become bitmap AND/OR and counts become popcounts, so counts and
+ * rating distributions never touch Feedback objects.
+ * Demonstrates OOP concepts: Composition, Encapsulation
+ */
+public class BitmapIndex {
+    private final RowBitmap[] bySemester = newBitmaps(9);
+    private final RowBitmap[] byYear = newBitmaps(5);
+    private final RowBitmap[] byRating = newBitmaps(6);
+    private final Map<String, RowBitmap> bySubject = new HashMap<>();
+    private final Map<String, RowBitmap> byFaculty = new HashMap<>();
+    private RowBitmap allRows = new RowBitmap();
+    
+    private static RowBitmap[] newBitmaps(int count) {
+        RowBitmap[] bitmaps = new RowBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RowBitmap();
+        }
+        return bitmaps;
+    }
+    
+    /**
+     * Index a feedback entry stored at the given row
+     */
+    public void add(int row, Feedback fb) {
+        allRows.add(row);
+        bitmapFor(bySemester, fb.getSemester()).add(row);
+        bitmapFor(byYear, fb.getYear()).add(row);
+        bitmapFor(byRating, fb.getRating()).add(row);
+        bySubject.computeIfAbsent(subjectKey(fb.getSubjectName()), k -> new RowBitmap()).add(row);
+        byFaculty.computeIfAbsent(facultyKey(fb.getFacultyId()), k -> new RowBitmap()).add(row);
+    }
+    
+    /**
+     * Remove a feedback entry previously indexed at the given row
+     */
+    public void remove(int row, Feedback fb) {
+        allRows.remove(row);
+        bitmapFor(bySemester, fb.getSemester()).remove(row);
+        bitmapFor(byYear, fb.getYear()).remove(row);
+        bitmapFor(byRating, fb.getRating()).remove(row);
+        removeFrom(bySubject, subjectKey(fb.getSubjectName()), row);
+        removeFrom(byFaculty, facultyKey(fb.getFacultyId()), row);
+    }
+    
+    /**
+     * Rows matching every field set on the query. USN is not indexed here and
+     * must be checked by the caller.
+     */
+    public RowBitmap select(FeedbackQuery query) {
+        RowBitmap result = allRows;
+        if (query == null) {
+            return result;
+        }
+        if (query.getSemester() != null) {
+            result = result.and(bitmapFor(bySemester, query.getSemester()));
+        }
+        if (query.getYear() != null) {
+            result = result.and(bitmapFor(byYear, query.getYear()));
+        }
+        if (query.getSubjectName() != null) {
+            result = result.and(bySubject.getOrDefault(subjectKey(query.getSubjectName()), new RowBitmap()));
+        }
+        if (query.getFacultyId() != null) {
+            result = result.and(byFaculty.getOrDefault(facultyKey(query.getFacultyId()), new RowBitmap()));
+        }
+        if (query.getMinRating() != null || query.getMaxRating() != null) {
+            result = result.and(ratingRange(query));
+        }
+        return result;
+    }
+    
+    /**
+     * Count rows matching the query
+     */
+    public int count(FeedbackQuery query) {
+        return select(query).cardinality();
+    }
+    
+    /**
+     * Rating histogram of rows matching the query
+     */
+    public RatingHistogram ratingHistogram(FeedbackQuery query) {
+        int[] counts = new int[5];
+        RowBitmap rows = select(query);
+        for (int rating = 1; rating <= 5; rating++) {
+            counts[rating - 1] = rows.andCardinality(byRating[rating]);
+        }
+        return RatingHistogram.of(counts);
+    }
+    
+    /**
+     * Write every bitmap, for reading back with readFrom
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        for (RowBitmap[] bitmaps : new RowBitmap[][] {bySemester, byYear, byRating}) {
+            for (RowBitmap bitmap : bitmaps) {
+                bitmap.writeTo(out);
+            }
+        }
+        writeMap(out, bySubject);
+        writeMap(out, byFaculty);
+        allRows.writeTo(out);
+    }
+    
+    /**
+     * Read an index written by writeTo
+     */
+    public static BitmapIndex readFrom(DataInput in) throws IOException {
+        BitmapIndex index = new BitmapIndex();
+        for (RowBitmap[] bitmaps : new RowBitmap[][] {index.bySemester, index.byYear, index.byRating}) {
+            for (int i = 0; i < bitmaps.length; i++) {
+                bitmaps[i] = RowBitmap.readFrom(in);
+            }
+        }
+        readMap(in, index.bySubject);
+        readMap(in, index.byFaculty);
+        index.allRows = RowBitmap.readFrom(in);
+        return index;
+    }
+    
+    private static void writeMap(DataOutput out, Map<String, RowBitmap> bitmaps) throws IOException {
+        out.writeInt(bitmaps.size());
+        for (Map.Entry<String, RowBitmap> entry : bitmaps.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+    
+    private static void readMap(DataInput in, Map<String, RowBitmap> bitmaps) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            bitmaps.put(in.readUTF(), RowBitmap.readFrom(in));
+        }
+    }
+    
+    private RowBitmap ratingRange(FeedbackQuery query) {
+        int min = query.getMinRating() == null ? 1 : Math.max(1, query.getMinRating());
+        int max = query.getMaxRating() == null ? 5 : Math.min(5, query.getMaxRating());
+        RowBitmap result = new RowBitmap();
+        for (int rating = min; rating <= max; rating++) {
+            result = result.or(byRating[rating]);
+        }
+        return result;
+    }
+    
+    // Out-of-range values map to an empty bitmap that is never stored
+    private static RowBitmap bitmapFor(RowBitmap[] bitmaps, int value) {
+        return value >= 1 && value < bitmaps.length ? bitmaps[value] : new RowBitmap();
+    }
+    
+    private static void removeFrom(Map<String, RowBitmap> bitmaps, String key, int row) {
+        RowBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(row);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+    
+    // Lookups are case-insensitive, matching the repository's equalsIgnoreCase filters
+    private static String subjectKey(String subjectName) {
+        return subjectName == null ? "" : subjectName.toLowerCase();
+    }
+    
+    private static String facultyKey(String facultyId) {
+        return facultyId == null ? "" : facultyId.toUpperCase();
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.*;
+
+/**
+ * ChangeTracker Class - Version stamps for repository contents
+ * Every row added to or removed from the indexes advances a change counter.
+ * Each subject and faculty member also remembers the counter value of its
+ * last change, so a cached rendering of one subject or faculty member stays
+ * valid until that stamp moves. The counter never goes backwards; after a
+ * reload, entities not touched since report the reload's stamp.
+ * Row counts per subject and faculty name keep the sorted name lists current,
+ * so listing them never rescans the rows.
+ * Demonstrates OOP concepts: Encapsulation, Collections
+ */
+public class ChangeTracker {
+    private long changeCount;
+    private long baseline;
+    private final Map<String, Long> bySubject = new HashMap<>();
+    private final Map<String, Long> byFaculty = new HashMap<>();
+    private final TreeMap<String, Integer> subjectRows = new TreeMap<>();
+    private final TreeMap<String, Integer> facultyRows = new TreeMap<>();
+    
+    /**
+     * Note a row added to the indexes
+     */
+    public void added(Feedback fb) {
+        stamp(fb);
+        subjectRows.merge(fb.getSubjectName(), 1, Integer::sum);
+        facultyRows.merge(facultyLabel(fb), 1, Integer::sum);
+    }
+    
+    /**
+     * Note a row removed from the indexes
+     */
+    public void removed(Feedback fb) {
+        stamp(fb);
+        decrement(subjectRows, fb.getSubjectName());
+        decrement(facultyRows, facultyLabel(fb));
+    }
+    
+    private void stamp(Feedback fb) {
+        changeCount++;
+        bySubject.put(fb.getSubjectName().toLowerCase(), changeCount);
+        byFaculty.put(fb.getFacultyId().toUpperCase(), changeCount);
+    }
+    
+    private static void decrement(Map<String, Integer> counts, String name) {
+        counts.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    private static String facultyLabel(Feedback fb) {
+        return fb.getFacultyName() + " (" + fb.getFacultyId() + ")";
+    }
+    
+    /**
+     * Forget per-entity stamps after the rows were replaced wholesale
+     * @param rows the rows now loaded
+     */
+    public void reset(Iterable<Feedback> rows) {
+        changeCount++;
+        baseline = changeCount;
+        bySubject.clear();
+        byFaculty.clear();
+        subjectRows.clear();
+        facultyRows.clear();
+        for (Feedback fb : rows) {
+            subjectRows.merge(fb.getSubjectName(), 1, Integer::sum);
+            facultyRows.merge(facultyLabel(fb), 1, Integer::sum);
+        }
+    }
+    
+    /**
+     * Note a change to feedback that is not loaded, such as an older partition another
+     * process rewrote; every subject and faculty member's stamp moves with it
+     */
+    public void changedOnDisk() {
+        changeCount++;
+        baseline = changeCount;
+        bySubject.clear();
+        byFaculty.clear();
+    }
+    
+    public long getChangeCount() {
+        return changeCount;
+    }
+    
+    public long getSubjectStamp(String subjectName) {
+        return bySubject.getOrDefault(subjectName.toLowerCase(), baseline);
+    }
+    
+    public long getFacultyStamp(String facultyId) {
+        return byFaculty.getOrDefault(facultyId.toUpperCase(), baseline);
+    }
+    
+    /**
+     * Subject names with at least one row, sorted
+     */
+    public List<String> getSubjectNames() {
+        return new ArrayList<>(subjectRows.keySet());
+    }
+    
+    /**
+     * Faculty as "Name (ID)" with at least one row, sorted
+     */
+    public List<String> getFacultyLabels() {
+        return new ArrayList<>(facultyRows.keySet());
+    }
+}
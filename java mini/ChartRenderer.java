@@ -0,0 +1,329 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * ChartRenderer Class - Dashboard charts drawn on the server with Java2D
+ * Each chart is painted into an off-screen BufferedImage and returned as PNG
+ * bytes, so a report can carry its charts without a charting script or a
+ * network connection. Only image buffers are used, never windows or the
+ * screen, so it runs on machines without a display (java.awt.headless=true).
+ * Colours and scales follow the Chart.js charts of the interactive report.
+ * Demonstrates OOP concepts: Static Utility Methods, Abstraction, Java2D Graphics
+ */
+public class ChartRenderer {
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 400;
+    
+    private static final Color BAR_FILL = new Color(102, 126, 234, 204);
+    private static final Color BAR_BORDER = new Color(102, 126, 234);
+    private static final Color WEEK_FILL = new Color(102, 126, 234, 153);
+    private static final Color LINE = new Color(118, 75, 162);
+    private static final Color LINE_FILL = new Color(118, 75, 162, 51);
+    private static final Color GRID = new Color(0, 0, 0, 26);
+    private static final Color TEXT = new Color(102, 102, 102);
+    // 5 stars down to 1 star, as in the report's doughnut chart
+    private static final Color[] STAR_COLORS = {
+        new Color(0x10b981), new Color(0x3b82f6), new Color(0xfbbf24), new Color(0xf97316), new Color(0xef4444)
+    };
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    private static final int MAX_LABEL_LENGTH = 18;
+    
+    private static final int MARGIN_LEFT = 50;
+    private static final int MARGIN_RIGHT = 20;
+    private static final int MARGIN_TOP = 40;
+    private static final int MARGIN_BOTTOM = 90;
+    
+    /**
+     * Bar chart of one value per label, on a scale from 0 to max
+     */
+    public static byte[] barChart(String series, List<String> labels, double[] values,
+                                  double max) throws IOException {
+        BufferedImage image = newImage();
+        Graphics2D g = graphics(image);
+        Rectangle plot = plotArea(MARGIN_RIGHT);
+        legend(g, new String[] {series}, new Color[] {BAR_FILL});
+        valueAxis(g, plot, max, 1, true);
+        if (labels.isEmpty()) {
+            noData(g, plot);
+        }
+        double slot = plot.width / (double) Math.max(1, labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            Rectangle2D bar = bar(plot, slot, i, values[i], max);
+            g.setColor(BAR_FILL);
+            g.fill(bar);
+            g.setColor(BAR_BORDER);
+            g.draw(bar);
+        }
+        categoryLabels(g, plot, labels);
+        return png(image, g);
+    }
+    
+    /**
+     * Line chart of one value per label with the area below it filled
+     */
+    public static byte[] lineChart(String series, List<String> labels, double[] values,
+                                   double max) throws IOException {
+        BufferedImage image = newImage();
+        Graphics2D g = graphics(image);
+        Rectangle plot = plotArea(MARGIN_RIGHT);
+        legend(g, new String[] {series}, new Color[] {LINE});
+        valueAxis(g, plot, max, 1, true);
+        if (labels.isEmpty()) {
+            noData(g, plot);
+        } else {
+            line(g, plot, values, max, true);
+        }
+        categoryLabels(g, plot, labels);
+        return png(image, g);
+    }
+    
+    /**
+     * Doughnut of the rating distribution, 5 stars first
+     */
+    public static byte[] distributionChart(RatingHistogram histogram) throws IOException {
+        BufferedImage image = newImage();
+        Graphics2D g = graphics(image);
+        String[] names = new String[STAR_COLORS.length];
+        for (int i = 0; i < names.length; i++) {
+            int rating = RatingHistogram.MAX_RATING - i;
+            names[i] = rating + (rating == 1 ? " Star" : " Stars");
+        }
+        legend(g, names, STAR_COLORS);
+        
+        int diameter = HEIGHT - MARGIN_TOP - 20;
+        double x = (WIDTH - diameter) / 2.0;
+        double y = MARGIN_TOP + 10;
+        if (histogram.isEmpty()) {
+            g.setColor(GRID);
+            g.fill(new Ellipse2D.Double(x, y, diameter, diameter));
+        }
+        // Clockwise from twelve o'clock, as Chart.js draws it
+        double angle = 90;
+        for (int i = 0; i < STAR_COLORS.length && !histogram.isEmpty(); i++) {
+            double extent = 360.0 * histogram.getCount(RatingHistogram.MAX_RATING - i) / histogram.getCount();
+            g.setColor(STAR_COLORS[i]);
+            g.fill(new Arc2D.Double(x, y, diameter, diameter, angle, -extent, Arc2D.PIE));
+            angle -= extent;
+        }
+        g.setColor(Color.WHITE);
+        g.fill(new Ellipse2D.Double(x + diameter / 4.0, y + diameter / 4.0, diameter / 2.0, diameter / 2.0));
+        if (histogram.isEmpty()) {
+            noData(g, new Rectangle(0, 0, WIDTH, HEIGHT + MARGIN_TOP));
+        }
+        return png(image, g);
+    }
+    
+    /**
+     * Bars of submissions per period on the left axis with the average rating
+     * as a line on the right axis (0 to 5)
+     */
+    public static byte[] countAndAverageChart(List<String> labels, long[] counts,
+                                              double[] averages) throws IOException {
+        BufferedImage image = newImage();
+        Graphics2D g = graphics(image);
+        Rectangle plot = plotArea(MARGIN_LEFT);
+        legend(g, new String[] {"Submissions", "Average Rating"}, new Color[] {WEEK_FILL, LINE});
+        long largest = 0;
+        for (long count : counts) {
+            largest = Math.max(largest, count);
+        }
+        double step = niceStep(largest);
+        double max = Math.max(step, Math.ceil(largest / step) * step);
+        valueAxis(g, plot, max, step, true);
+        valueAxis(g, plot, RatingHistogram.MAX_RATING, 1, false);
+        if (labels.isEmpty()) {
+            noData(g, plot);
+        }
+        double slot = plot.width / (double) Math.max(1, labels.size());
+        g.setColor(WEEK_FILL);
+        for (int i = 0; i < labels.size(); i++) {
+            g.fill(bar(plot, slot, i, counts[i], max));
+        }
+        if (!labels.isEmpty()) {
+            line(g, plot, averages, RatingHistogram.MAX_RATING, false);
+        }
+        categoryLabels(g, plot, labels);
+        return png(image, g);
+    }
+    
+    // ---- Drawing helpers ----
+    
+    private static BufferedImage newImage() {
+        return new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+    
+    private static Graphics2D graphics(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setFont(FONT);
+        return g;
+    }
+    
+    private static Rectangle plotArea(int marginRight) {
+        return new Rectangle(MARGIN_LEFT, MARGIN_TOP, WIDTH - MARGIN_LEFT - marginRight,
+                             HEIGHT - MARGIN_TOP - MARGIN_BOTTOM);
+    }
+    
+    private static byte[] png(BufferedImage image, Graphics2D g) throws IOException {
+        g.dispose();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Encoded in memory; ImageIO.write on a stream may buffer through a temporary file
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(stream);
+            writer.write(image);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Coloured boxes with series names, centred above the chart
+     */
+    private static void legend(Graphics2D g, String[] names, Color[] colors) {
+        FontMetrics metrics = g.getFontMetrics();
+        int width = 0;
+        for (String name : names) {
+            width += 46 + metrics.stringWidth(name);
+        }
+        int x = (WIDTH - width) / 2;
+        for (int i = 0; i < names.length; i++) {
+            g.setColor(colors[i]);
+            g.fillRect(x, 12, 36, 12);
+            g.setColor(TEXT);
+            g.drawString(names[i], x + 40, 12 + metrics.getAscent() - 1);
+            x += 46 + metrics.stringWidth(names[i]);
+        }
+    }
+    
+    /**
+     * Grid lines and tick labels from 0 to max; only the left axis draws grid lines
+     */
+    private static void valueAxis(Graphics2D g, Rectangle plot, double max, double step, boolean left) {
+        FontMetrics metrics = g.getFontMetrics();
+        for (double value = 0; value <= max + step / 2; value += step) {
+            int y = (int) Math.round(plot.y + plot.height - value / max * plot.height);
+            if (left) {
+                g.setColor(GRID);
+                g.drawLine(plot.x, y, plot.x + plot.width, y);
+            }
+            String label = Long.toString(Math.round(value));
+            int x = left ? plot.x - 6 - metrics.stringWidth(label) : plot.x + plot.width + 6;
+            g.setColor(TEXT);
+            g.drawString(label, x, y + metrics.getAscent() / 2 - 1);
+        }
+    }
+    
+    /**
+     * Step of about a fifth of the largest value, rounded to 1, 2 or 5 times a power of ten
+     */
+    private static double niceStep(long largest) {
+        if (largest <= 5) {
+            return 1;
+        }
+        double rough = largest / 5.0;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+        double fraction = rough / magnitude;
+        return (fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10) * magnitude;
+    }
+    
+    private static Rectangle2D bar(Rectangle plot, double slot, int index, double value, double max) {
+        double height = Math.max(0, Math.min(value, max)) / max * plot.height;
+        double width = slot * 0.72;
+        return new Rectangle2D.Double(plot.x + slot * index + (slot - width) / 2,
+                                      plot.y + plot.height - height, width, height);
+    }
+    
+    private static void line(Graphics2D g, Rectangle plot, double[] values, double max, boolean fill) {
+        double slot = plot.width / (double) values.length;
+        Path2D.Double path = new Path2D.Double();
+        for (int i = 0; i < values.length; i++) {
+            double x = plot.x + slot * (i + 0.5);
+            double y = plot.y + plot.height - Math.max(0, Math.min(values[i], max)) / max * plot.height;
+            if (i == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+        }
+        if (fill) {
+            Path2D.Double area = new Path2D.Double(path);
+            area.lineTo(plot.x + slot * (values.length - 0.5), plot.y + plot.height);
+            area.lineTo(plot.x + slot * 0.5, plot.y + plot.height);
+            area.closePath();
+            g.setColor(LINE_FILL);
+            g.fill(area);
+        }
+        g.setColor(LINE);
+        g.setStroke(new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.draw(path);
+        g.setStroke(new BasicStroke(1));
+        // Points, so a single value still shows
+        for (int i = 0; i < values.length; i++) {
+            double x = plot.x + slot * (i + 0.5);
+            double y = plot.y + plot.height - Math.max(0, Math.min(values[i], max)) / max * plot.height;
+            g.fill(new Ellipse2D.Double(x - 3, y - 3, 6, 6));
+        }
+    }
+    
+    /**
+     * Labels under the plot, turned 45 degrees and shortened to stay inside
+     * the image; with many categories only every n-th label is drawn so they
+     * do not overlap
+     */
+    private static void categoryLabels(Graphics2D g, Rectangle plot, List<String> labels) {
+        if (labels.isEmpty()) {
+            return;
+        }
+        FontMetrics metrics = g.getFontMetrics();
+        double slot = plot.width / (double) labels.size();
+        int every = (int) Math.ceil(metrics.getHeight() * 1.5 / slot);
+        AffineTransform original = g.getTransform();
+        g.setColor(TEXT);
+        for (int i = 0; i < labels.size(); i += every) {
+            double x = plot.x + slot * (i + 0.5);
+            double y = plot.y + plot.height + 8;
+            // At 45 degrees a label of width w reaches w / sqrt(2) left and down
+            double room = Math.min(x, HEIGHT - y - metrics.getAscent()) * Math.sqrt(2);
+            String label = labels.get(i);
+            if (label.length() > MAX_LABEL_LENGTH) {
+                label = label.substring(0, MAX_LABEL_LENGTH - 1) + "…";
+            }
+            while (label.length() > 1 && metrics.stringWidth(label) > room) {
+                label = label.substring(0, label.length() - 2) + "…";
+            }
+            g.rotate(-Math.PI / 4, x, y);
+            g.drawString(label, (float) (x - metrics.stringWidth(label)), (float) (y + metrics.getAscent() / 2.0));
+            g.setTransform(original);
+        }
+    }
+    
+    private static void noData(Graphics2D g, Rectangle plot) {
+        FontMetrics metrics = g.getFontMetrics();
+        String text = "No data";
+        g.setColor(TEXT);
+        g.drawString(text, plot.x + (plot.width - metrics.stringWidth(text)) / 2, plot.y + plot.height / 2);
+    }
+}
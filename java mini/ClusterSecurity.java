@@ -0,0 +1,104 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * ClusterSecurity Class - Bind addresses and shared-secret handshakes for the TCP services
+ * Servers listen on the loopback interface unless a bind address is configured,
+ * and peers prove they hold the cluster's shared secret before any data moves:
+ * the server sends a random challenge and the peer answers with its
+ * HMAC-SHA256 under the secret, so the secret itself never crosses the wire.
+ * The server then sends one byte saying whether the answer was accepted.
+ * A secret is read from a system property or, to keep it off the command line,
+ * from the environment variable of the same name in upper case with dots as
+ * underscores (feedback.replication.secret -> FEEDBACK_REPLICATION_SECRET).
+ * Demonstrates OOP concepts: Static Utility Class, Security, Networking
+ */
+public class ClusterSecurity {
+    // A peer that has not finished the handshake by then is dropped
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 10000;
+    
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int CHALLENGE_BYTES = 32;
+    private static final int RESPONSE_BYTES = 32;
+    private static final byte ACCEPTED = 1;
+    private static final byte REJECTED = 0;
+    private static final SecureRandom random = new SecureRandom();
+    
+    private ClusterSecurity() {
+    }
+    
+    /**
+     * Address to listen on: the property's host name or address, or loopback if unset
+     */
+    public static InetAddress bindAddress(String property) throws IOException {
+        String address = System.getProperty(property);
+        if (address == null || address.trim().isEmpty()) {
+            return InetAddress.getLoopbackAddress();
+        }
+        return InetAddress.getByName(address.trim());
+    }
+    
+    /**
+     * The shared secret configured under a property (or its environment variable)
+     * @return the secret's bytes, or null if none is configured
+     */
+    public static byte[] secret(String property) {
+        String secret = System.getProperty(property);
+        if (secret == null || secret.isEmpty()) {
+            secret = System.getenv(property.toUpperCase().replace('.', '_'));
+        }
+        if (secret == null || secret.isEmpty()) {
+            return null;
+        }
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Server side: challenge the peer, check its answer and tell it the outcome
+     * @return true if the peer holds the secret
+     */
+    public static boolean verify(DataInputStream in, DataOutputStream out, byte[] secret) throws IOException {
+        byte[] challenge = new byte[CHALLENGE_BYTES];
+        random.nextBytes(challenge);
+        out.write(challenge);
+        out.flush();
+        byte[] response = new byte[RESPONSE_BYTES];
+        in.readFully(response);
+        boolean accepted = MessageDigest.isEqual(response, sign(secret, challenge));
+        out.writeByte(accepted ? ACCEPTED : REJECTED);
+        out.flush();
+        return accepted;
+    }
+    
+    /**
+     * Peer side: answer the server's challenge
+     * @throws IOException if the server rejected the answer
+     */
+    public static void prove(DataInputStream in, DataOutputStream out, byte[] secret) throws IOException {
+        byte[] challenge = new byte[CHALLENGE_BYTES];
+        in.readFully(challenge);
+        out.write(sign(secret, challenge));
+        out.flush();
+        if (in.readByte() != ACCEPTED) {
+            throw new IOException("wrong shared secret");
+        }
+    }
+    
+    private static byte[] sign(byte[] secret, byte[] challenge) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, MAC_ALGORITHM));
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot compute handshake response: " + e.getMessage(), e);
+        }
+    }
+}
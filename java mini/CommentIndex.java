@@ -0,0 +1,186 @@
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * CommentIndex Class - Inverted index over feedback comments
+ * Comments are tokenized, lowercased and stripped of stop words; each remaining
+ * term maps to a compressed PostingList of repository rows.
+ * Query syntax: plain words are ANDed, "quoted words" must appear as a phrase.
+ * Demonstrates OOP concepts: Composition, Collections, Text Processing
+ */
+public class CommentIndex {
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have",
+        "he", "her", "his", "i", "if", "in", "into", "is", "it", "its", "me", "my", "of", "on",
+        "or", "our", "she", "so", "that", "the", "their", "them", "then", "there", "these",
+        "they", "this", "to", "was", "we", "were", "what", "when", "which", "who", "will",
+        "with", "you", "your"
+    ));
+    
+    private final Map<String, PostingList> postings;
+    
+    public CommentIndex() {
+        this.postings = new HashMap<>();
+    }
+    
+    /**
+     * Split text into lowercase terms, dropping punctuation and stop words
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                String term = current.toString();
+                if (!STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+                current.setLength(0);
+            }
+        }
+        return terms;
+    }
+    
+    /**
+     * Index the comment stored at a repository row
+     */
+    public void add(int row, String comment) {
+        for (String term : new LinkedHashSet<>(tokenize(comment))) {
+            postings.computeIfAbsent(term, t -> new PostingList()).add(row);
+        }
+    }
+    
+    /**
+     * Remove the comment stored at a repository row
+     */
+    public void remove(int row, String comment) {
+        for (String term : new LinkedHashSet<>(tokenize(comment))) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(row);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find rows matching a query, in ascending row order.
+     * Phrases are checked against the original text through commentOfRow.
+     */
+    public int[] search(String query, IntFunction<String> commentOfRow) {
+        List<String> terms = new ArrayList<>();
+        List<List<String>> phrases = new ArrayList<>();
+        parseQuery(query, terms, phrases);
+        
+        Set<String> required = new LinkedHashSet<>(terms);
+        for (List<String> phrase : phrases) {
+            required.addAll(phrase);
+        }
+        if (required.isEmpty()) {
+            return new int[0];
+        }
+        
+        // Intersect starting from the rarest term
+        List<int[]> lists = new ArrayList<>();
+        for (String term : required) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list.toArray());
+        }
+        lists.sort(Comparator.comparingInt(a -> a.length));
+        
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        
+        if (phrases.isEmpty()) {
+            return result;
+        }
+        
+        int kept = 0;
+        for (int row : result) {
+            List<String> docTerms = tokenize(commentOfRow.apply(row));
+            boolean all = true;
+            for (List<String> phrase : phrases) {
+                if (Collections.indexOfSubList(docTerms, phrase) < 0) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                result[kept++] = row;
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+    
+    /**
+     * Number of distinct terms
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+    
+    /**
+     * Total compressed size of all posting lists in bytes
+     */
+    public long getPostingBytes() {
+        long bytes = 0;
+        for (PostingList list : postings.values()) {
+            bytes += list.byteSize();
+        }
+        return bytes;
+    }
+    
+    /**
+     * Split a query into single terms and quoted phrases
+     */
+    private static void parseQuery(String query, List<String> terms, List<List<String>> phrases) {
+        if (query == null) {
+            return;
+        }
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = tokenize(parts[i]);
+            if (i % 2 == 1 && tokens.size() > 1) {
+                phrases.add(tokens);
+            } else {
+                terms.addAll(tokens);
+            }
+        }
+    }
+    
+    /**
+     * Intersect two ascending row arrays, binary-searching the longer one
+     */
+    private static int[] intersect(int[] small, int[] large) {
+        int[] out = new int[Math.min(small.length, large.length)];
+        int count = 0;
+        int from = 0;
+        for (int row : small) {
+            int pos = Arrays.binarySearch(large, from, large.length, row);
+            if (pos >= 0) {
+                out[count++] = row;
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+}
@@ -0,0 +1,205 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CommentStore Class - Append-only side file holding feedback comment text
+ * The JSON data file keeps only an (offset, length) reference per feedback entry,
+ * so loading and aggregating never read comment text. Detail views fetch a comment
+ * on first access through a small LRU cache.
+ * Text already in the file is never written twice while this process remembers
+ * it: a comment recently written or read (a resubmission, or a common remark
+ * such as "Good") is attached at the offset of the stored copy, and repeats
+ * within one batch are appended once.
+ * The file is never compacted: offsets live in every partition file and the
+ * checkpoint, so it only grows, by at most the text of each new submission.
+ * Demonstrates OOP concepts: Encapsulation, File I/O, Exception Handling
+ */
+public class CommentStore {
+    private static final int CACHE_SIZE = 256;
+    private static final int KNOWN_TEXT_SIZE = 1024;
+    
+    private final String filename;
+    private FileChannel readChannel;
+    private final Map<Long, String> cache;
+    // Comment text -> offset of a copy in the file, for recently written or read comments
+    private final Map<String, Long> knownText;
+    
+    public CommentStore(String filename) {
+        this.filename = filename;
+        this.cache = new LinkedHashMap<Long, String>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        this.knownText = new LinkedHashMap<String, Long>(KNOWN_TEXT_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > KNOWN_TEXT_SIZE;
+            }
+        };
+    }
+    
+    public String getFilename() {
+        return filename;
+    }
+    
+    /**
+     * Move a feedback entry's inline comment into the side file, if not already there
+     */
+    public synchronized void attach(Feedback fb) throws DataStorageException {
+        if (fb.hasCommentReference()) {
+            return;
+        }
+        String comment = fb.getComments();
+        byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+        long offset = 0;
+        if (bytes.length > 0) {
+            Long known = knownText.get(comment);
+            if (known != null) {
+                offset = known;
+            } else {
+                offset = append(bytes);
+                remember(offset, comment);
+            }
+        }
+        fb.setCommentReference(this, offset, bytes.length);
+    }
+    
+    /**
+     * Move the inline comments of several entries into the side file with one
+     * append, writing each distinct new text once
+     */
+    public synchronized void attachAll(List<Feedback> entries) throws DataStorageException {
+        // New text -> the entries carrying it, in first-seen order
+        Map<String, List<Feedback>> pending = new LinkedHashMap<>();
+        List<byte[]> encoded = new ArrayList<>();
+        int total = 0;
+        for (Feedback fb : entries) {
+            if (fb.hasCommentReference()) {
+                continue;
+            }
+            String comment = fb.getComments();
+            if (comment.isEmpty()) {
+                fb.setCommentReference(this, 0, 0);
+                continue;
+            }
+            List<Feedback> sharing = pending.get(comment);
+            if (sharing != null) {
+                sharing.add(fb);
+                continue;
+            }
+            byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+            Long known = knownText.get(comment);
+            if (known != null) {
+                fb.setCommentReference(this, known, bytes.length);
+                continue;
+            }
+            sharing = new ArrayList<>();
+            sharing.add(fb);
+            pending.put(comment, sharing);
+            encoded.add(bytes);
+            total += bytes.length;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        byte[] all = new byte[total];
+        int position = 0;
+        for (byte[] bytes : encoded) {
+            System.arraycopy(bytes, 0, all, position, bytes.length);
+            position += bytes.length;
+        }
+        long offset = append(all);
+        int i = 0;
+        for (Map.Entry<String, List<Feedback>> text : pending.entrySet()) {
+            int length = encoded.get(i++).length;
+            remember(offset, text.getKey());
+            for (Feedback fb : text.getValue()) {
+                fb.setCommentReference(this, offset, length);
+            }
+            offset += length;
+        }
+    }
+    
+    private void remember(long offset, String comment) {
+        cache.put(offset, comment);
+        knownText.put(comment, offset);
+    }
+    
+    /**
+     * Append comment bytes and return their offset in the side file.
+     * The file is locked while appending so two processes never interleave writes.
+     */
+    private long append(byte[] bytes) throws DataStorageException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), 
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            FileLock lock = channel.lock();
+            try {
+                long offset = channel.size();
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                return offset;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", filename, "Failed to append comment", e);
+        }
+    }
+    
+    /**
+     * Read a comment by offset and UTF-8 byte length
+     */
+    public synchronized String read(long offset, int length) throws DataStorageException {
+        if (length == 0) {
+            return "";
+        }
+        String cached = cache.get(offset);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            if (readChannel == null) {
+                readChannel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (readChannel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Comment reference past end of file");
+                }
+            }
+            String comment = new String(buffer.array(), StandardCharsets.UTF_8);
+            remember(offset, comment);
+            return comment;
+        } catch (IOException e) {
+            throw new DataStorageException("READ", filename, "Failed to read comment at offset " + offset, e);
+        }
+    }
+    
+    /**
+     * Release the open read handle
+     */
+    public synchronized void close() {
+        if (readChannel != null) {
+            try {
+                readChannel.close();
+            } catch (IOException e) {
+                System.err.println("Warning: " + e.getMessage());
+            }
+            readChannel = null;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * DashboardServer Class - Serves the analytics dashboard and statistics over HTTP
+ * Start with --serve (port 8080) or -Dfeedback.http.port=PORT. Paths:
+ *   /              the HTML dashboard (Chart.js)
+ *   /offline       the HTML dashboard with charts embedded as images
+ *   /stats         summary statistics as JSON
+ * The server has no login and shows every student's feedback, so it listens
+ * on loopback only unless -Dfeedback.http.bind=ADDRESS names another interface.
+ * Every response carries an ETag made of the repository's change count (plus
+ * the term start for the dashboard, whose weekly chart follows the calendar)
+ * and a token for this server run, so tags never repeat across restarts.
+ * A body is built once per version and kept together with its gzip form,
+ * compressed once on first request. A GET whose If-None-Match names the
+ * current tag gets 304 Not Modified without touching the repository again,
+ * so polling browsers cost a counter read until feedback actually changes.
+ * Demonstrates OOP concepts: Encapsulation, Inner Classes, Caching, Networking
+ */
+public class DashboardServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final String BIND_PROPERTY = "feedback.http.bind";
+    private static final int THREADS = 4;
+    // Bodies smaller than this are sent as is; gzip would barely shrink them
+    private static final int MIN_GZIP_SIZE = 1024;
+    
+    /**
+     * One version of a response body, with its gzip form made on first use
+     */
+    private static final class Representation {
+        final String version;
+        final String contentType;
+        final byte[] body;
+        private byte[] gzipped;
+        
+        Representation(String version, String contentType, byte[] body) {
+            this.version = version;
+            this.contentType = contentType;
+            this.body = body;
+        }
+        
+        synchronized byte[] gzipped() throws IOException {
+            if (gzipped == null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                    gzip.write(body);
+                }
+                gzipped = bytes.toByteArray();
+                MetricsRegistry.increment("http.compressed");
+            }
+            return gzipped;
+        }
+    }
+    
+    /**
+     * Builds the body for one resource
+     */
+    private interface Resource {
+        byte[] build() throws IOException;
+    }
+    
+    private final FeedbackRepository repository;
+    private final String runToken = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, Representation> representations = new HashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    public DashboardServer(FeedbackRepository repository) {
+        this.repository = repository;
+    }
+    
+    /**
+     * Start serving if requested by --serve or -Dfeedback.http.port=PORT
+     * @return the running server, or null if not requested or it could not start
+     */
+    public static DashboardServer startIfRequested(String[] args, FeedbackRepository repository) {
+        int port = Integer.getInteger("feedback.http.port", -1);
+        for (String arg : args) {
+            if (arg.equals("--serve") && port < 0) {
+                port = DEFAULT_PORT;
+            }
+        }
+        if (port < 0) {
+            return null;
+        }
+        DashboardServer dashboardServer = new DashboardServer(repository);
+        try {
+            InetAddress address = ClusterSecurity.bindAddress(BIND_PROPERTY);
+            dashboardServer.start(address, port);
+            System.out.println("Dashboard served at http://"
+                + (address.isLoopbackAddress() ? "localhost" : address.getHostAddress()) + ":" + dashboardServer.getPort() + "/");
+            return dashboardServer;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not start dashboard server on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Listen on a loopback port (0 picks a free one)
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+    
+    /**
+     * Listen on a port of the given interface
+     */
+    public synchronized void start(InetAddress address, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        executor = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "dashboard-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+    
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = MetricsRegistry.startTimer();
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            long changeCount = repository.getChangeCount();
+            String version;
+            switch (exchange.getRequestURI().getPath()) {
+                case "/":
+                case "/index.html":
+                    version = changeCount + "-" + HtmlDashboardReport.currentTermStart();
+                    send(exchange, representation("dashboard", version, "text/html; charset=UTF-8",
+                        () -> repository.getDashboard().render(false)));
+                    break;
+                case "/offline":
+                    version = changeCount + "-" + HtmlDashboardReport.currentTermStart();
+                    send(exchange, representation("offline", version, "text/html; charset=UTF-8",
+                        () -> repository.getDashboard().render(true)));
+                    break;
+                case "/stats":
+                    version = Long.toString(changeCount);
+                    send(exchange, representation("stats", version, "application/json; charset=UTF-8",
+                        this::statistics));
+                    break;
+                default:
+                    exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error serving " + exchange.getRequestURI() + ": " + e.getMessage());
+            if (exchange.getResponseCode() < 0) {
+                exchange.sendResponseHeaders(500, -1);
+            }
+        } finally {
+            exchange.close();
+            MetricsRegistry.stopTimer("http.request", start);
+        }
+    }
+    
+    /**
+     * The body for a resource at a version, built only if the cached one is older.
+     * The version is read before building, so a body is never labelled newer than it is.
+     */
+    private Representation representation(String name, String version, String contentType,
+                                          Resource resource) throws IOException {
+        synchronized (representations) {
+            Representation current = representations.get(name);
+            if (current != null && current.version.equals(version)) {
+                return current;
+            }
+        }
+        // Built outside the lock so one slow report does not hold up the others
+        Representation built = new Representation(version, contentType, resource.build());
+        MetricsRegistry.increment("http.rendered");
+        synchronized (representations) {
+            representations.put(name, built);
+        }
+        return built;
+    }
+    
+    private void send(HttpExchange exchange, Representation representation) throws IOException {
+        boolean gzip = representation.body.length >= MIN_GZIP_SIZE && acceptsGzip(exchange.getRequestHeaders());
+        // Strong tags must differ between encodings of the same version
+        String etag = "\"" + runToken + "-" + representation.version + (gzip ? "-gz" : "") + "\"";
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", etag);
+        headers.set("Cache-Control", "no-cache");
+        headers.set("Vary", "Accept-Encoding");
+        
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            MetricsRegistry.increment("http.notModified");
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        byte[] body = gzip ? representation.gzipped() : representation.body;
+        headers.set("Content-Type", representation.contentType);
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            headers.set("Content-Length", Integer.toString(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    /**
+     * True if the client lists gzip in Accept-Encoding without q=0
+     */
+    private static boolean acceptsGzip(Headers requestHeaders) {
+        List<String> values = requestHeaders.get("Accept-Encoding");
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * True if an If-None-Match header names the tag (weak comparison, as for GET)
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Totals, rating distribution and leaderboard as JSON
+     */
+    private byte[] statistics() {
+        RatingHistogram overall = repository.getRatingDistribution(new FeedbackQuery());
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"totalFeedback\": ").append(repository.getFeedbackCount()).append(",\n");
+        json.append("  \"subjects\": ").append(repository.getUniqueSubjects().size()).append(",\n");
+        json.append("  \"faculty\": ").append(repository.getUniqueFaculty().size()).append(",\n");
+        json.append("  \"averageRating\": ").append(String.format(Locale.ROOT, "%.2f", overall.getMean())).append(",\n");
+        json.append("  \"ratingCounts\": {");
+        for (int rating = RatingHistogram.MIN_RATING; rating <= RatingHistogram.MAX_RATING; rating++) {
+            json.append(rating > RatingHistogram.MIN_RATING ? ", " : " ")
+                .append('"').append(rating).append("\": ").append(overall.getCount(rating));
+        }
+        json.append(" },\n");
+        appendStandings(json, "topFaculty", repository.getTopFaculty(5));
+        json.append(",\n");
+        appendStandings(json, "bottomFaculty", repository.getBottomFaculty(5));
+        json.append("\n}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static void appendStandings(StringBuilder json, String name, List<Leaderboard.Standing> standings) {
+        json.append("  \"").append(name).append("\": [");
+        for (int i = 0; i < standings.size(); i++) {
+            Leaderboard.Standing s = standings.get(i);
+            json.append(i > 0 ? "," : "").append("\n    { \"label\": \"").append(JSONHandler.escapeJson(s.getLabel()))
+                .append("\", \"average\": ").append(String.format(Locale.ROOT, "%.2f", s.getAverage()))
+                .append(", \"count\": ").append(s.getCount()).append(" }");
+        }
+        json.append(standings.isEmpty() ? "]" : "\n  ]");
+    }
+}
@@ -0,0 +1,95 @@
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * DataDirectoryWatcher Class - Reloads feedback written by other processes
+ * The CLI and the GUI each keep their own repository in memory. This watcher
+ * listens for changes to the partition files and manifest and asks the
+ * repository to merge in whatever another process wrote.
+ * Demonstrates OOP concepts: Threads, File I/O, Exception Handling
+ */
+public class DataDirectoryWatcher implements Runnable {
+    // Writes touch a partition file and then the manifest; wait for both
+    private static final long SETTLE_MILLIS = 200;
+    
+    private final Path directory;
+    private final FeedbackRepository repository;
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+    
+    public DataDirectoryWatcher(String directory, FeedbackRepository repository) {
+        this.directory = Paths.get(directory);
+        this.repository = repository;
+    }
+    
+    /**
+     * Start watching on a daemon thread
+     */
+    public void start() throws DataStorageException {
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new DataStorageException("WATCH", directory.toString(),
+                "Failed to watch data directory", e);
+        }
+        running = true;
+        thread = new Thread(this, "feedback-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to close directory watcher: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                WatchKey key = watchService.take();
+                boolean relevant = isRelevant(key);
+                key.reset();
+                if (!relevant) {
+                    continue;
+                }
+                
+                // Let the writer finish, then fold any further events into this reload
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey more;
+                while ((more = watchService.poll()) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                
+                int changes = repository.refresh();
+                if (changes > 0) {
+                    System.out.println("\n[Reloaded " + changes + " feedback entries changed by another process]");
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            } catch (DataStorageException e) {
+                System.err.println("Warning: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static boolean isRelevant(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            String name = String.valueOf(event.context());
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (name.startsWith("feedback_") && name.endsWith(".json"))) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Custom Exception for Duplicate Feedback Submissions
+ * Demonstrates OOP concept: Exception Handling with exception inheritance
+ */
+public class DuplicateFeedbackException extends InvalidInputException {
+    private static final long serialVersionUID = 1L;
+
+    private String duplicateKey;
+
+    public DuplicateFeedbackException(String duplicateKey, String message) {
+        super("Feedback", duplicateKey, message);
+        this.duplicateKey = duplicateKey;
+    }
+
+    public String getDuplicateKey() {
+        return duplicateKey;
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.Arrays;
+
+/**
+ * DuplicatePolicy Enum - Decides what happens when a student submits feedback
+ * again for the same subject, faculty and semester
+ * Demonstrates OOP concept: Enumerations
+ */
+public enum DuplicatePolicy {
+    REJECT,       // Refuse the new submission
+    REPLACE,      // Overwrite the earlier entry with the new one
+    KEEP_LATEST;  // Keep whichever entry carries the newer timestamp
+    
+    /**
+     * Parse a policy name, falling back to REJECT for unknown values with a
+     * warning that lists the valid ones
+     */
+    public static DuplicatePolicy fromString(String value) {
+        if (value == null) {
+            return REJECT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: unknown duplicate policy '" + value + "', using REJECT. Valid values: "
+                + Arrays.toString(values()));
+            return REJECT;
+        }
+    }
+}
@@ -1,11 +1,20 @@
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Feedback Class - Main model for storing feedback data
  * Demonstrates OOP concepts: Encapsulation, Data Modeling
  */
 public class Feedback {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    // Last number handed out by generateFeedbackId
+    private static final AtomicLong LAST_ID = new AtomicLong();
+    // Random per process, so processes sharing a data directory never hand out the same ID
+    private static final String NODE_ID = String.format("%08x", new SecureRandom().nextInt());
+    
     private String feedbackId;
     private String usn;
     private String studentName;  // Optional for anonymity
@@ -16,8 +25,13 @@ public class Feedback {
     private String facultyId;
     private String facultyName;
     private int rating;  // 1-5 scale
-    private String comments;
+    private String comments;     // null once moved to the comment side file
     private String timestamp;
+    
+    // Location of the comment in the side file, used when comments is null
+    private CommentStore commentStore;
+    private long commentOffset = -1;
+    private int commentLength;
 
     // Constructor
     public Feedback(String usn, String studentName, int year, int semester,
@@ -34,12 +48,33 @@ public class Feedback {
         this.facultyName = facultyName;
         this.rating = rating;
         this.comments = comments;
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        this.timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+    }
+    
+    // Constructor for an entry read back from storage
+    public Feedback(String feedbackId, String usn, String studentName, int year, int semester,
+                   String subjectCode, String subjectName, String facultyId, 
+                   String facultyName, int rating, String comments, String timestamp) {
+        this.feedbackId = feedbackId;
+        this.usn = usn;
+        this.studentName = studentName;
+        this.year = year;
+        this.semester = semester;
+        this.subjectCode = subjectCode;
+        this.subjectName = subjectName;
+        this.facultyId = facultyId;
+        this.facultyName = facultyName;
+        this.rating = rating;
+        this.comments = comments;
+        this.timestamp = timestamp;
     }
 
-    // Generate unique feedback ID
+    // Generate unique feedback ID from the clock, moving past the last ID when
+    // several entries are created in the same millisecond (e.g. a batch submission),
+    // followed by this process's node ID
     private String generateFeedbackId() {
-        return "FB" + System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        return "FB" + LAST_ID.accumulateAndGet(now, (last, time) -> Math.max(last + 1, time)) + "-" + NODE_ID;
     }
 
     // Getters
@@ -84,7 +119,30 @@ public class Feedback {
     }
 
     public String getComments() {
-        return comments;
+        if (comments != null) {
+            return comments;
+        }
+        if (commentStore == null) {
+            return "";
+        }
+        try {
+            return commentStore.read(commentOffset, commentLength);
+        } catch (DataStorageException e) {
+            System.err.println("Warning: " + e.getMessage());
+            return "";
+        }
+    }
+    
+    public boolean hasCommentReference() {
+        return commentOffset >= 0;
+    }
+    
+    public long getCommentOffset() {
+        return commentOffset;
+    }
+    
+    public int getCommentLength() {
+        return commentLength;
     }
 
     public String getTimestamp() {
@@ -99,6 +157,16 @@ public class Feedback {
     public void setTimestamp(String timestamp) {
         this.timestamp = timestamp;
     }
+    
+    /**
+     * Point this entry at a comment stored in the side file and drop the inline text
+     */
+    public void setCommentReference(CommentStore commentStore, long offset, int length) {
+        this.commentStore = commentStore;
+        this.commentOffset = offset;
+        this.commentLength = length;
+        this.comments = null;
+    }
 
     @Override
     public String toString() {
@@ -116,7 +184,8 @@ public class Feedback {
         System.out.println("Subject        : " + subjectName + " (" + subjectCode + ")");
         System.out.println("Faculty        : " + facultyName + " (" + facultyId + ")");
         System.out.println("Rating         : " + rating + " / 5");
-        System.out.println("Comments       : " + (comments.isEmpty() ? "No comments" : comments));
+        String text = getComments();
+        System.out.println("Comments       : " + (text.isEmpty() ? "No comments" : text));
         System.out.println("Submitted On   : " + timestamp);
         System.out.println("======================================\n");
     }
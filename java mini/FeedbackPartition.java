@@ -0,0 +1,105 @@
+import java.util.*;
+
+/**
+ * FeedbackPartition Class - Manifest entry for one partition of stored feedback
+ * Feedback is split by academic year and semester; each partition lives in its own
+ * JSON file. The manifest keeps the record count and the set of student years found
+ * in the partition so queries can skip files without opening them.
+ * Demonstrates OOP concepts: Encapsulation, Data Modeling
+ */
+public class FeedbackPartition {
+    private final String academicYear;
+    private final int semester;
+    private int recordCount;
+    private final Set<Integer> years;
+    
+    public FeedbackPartition(String academicYear, int semester) {
+        this.academicYear = academicYear;
+        this.semester = semester;
+        this.recordCount = 0;
+        this.years = new TreeSet<>();
+    }
+    
+    /**
+     * Partition key, e.g. "2025-26_sem5"
+     */
+    public static String key(String academicYear, int semester) {
+        return academicYear + "_sem" + semester;
+    }
+    
+    public String getKey() {
+        return key(academicYear, semester);
+    }
+    
+    public String getAcademicYear() {
+        return academicYear;
+    }
+    
+    public int getSemester() {
+        return semester;
+    }
+    
+    /**
+     * Data file name, relative to the data directory
+     */
+    public String getFileName() {
+        return fileName(getKey());
+    }
+    
+    public static String fileName(String key) {
+        return "feedback_" + key + ".json";
+    }
+    
+    /**
+     * Aggregates file name (see PartitionSummary), relative to the data directory
+     */
+    public String getSummaryFileName() {
+        return "feedback_" + getKey() + "_summary.dat";
+    }
+    
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    public Set<Integer> getYears() {
+        return Collections.unmodifiableSet(years);
+    }
+    
+    /**
+     * Refresh the count and year range after the partition's rows changed
+     */
+    public void update(List<Feedback> rows) {
+        recordCount = rows.size();
+        years.clear();
+        for (Feedback fb : rows) {
+            years.add(fb.getYear());
+        }
+    }
+    
+    /**
+     * Restore manifest statistics when reading the manifest
+     */
+    public void restore(int recordCount, Collection<Integer> years) {
+        this.recordCount = recordCount;
+        this.years.clear();
+        this.years.addAll(years);
+    }
+    
+    /**
+     * Whether rows matching the query could be stored in this partition
+     */
+    public boolean mayMatch(FeedbackQuery query) {
+        if (query == null) {
+            return true;
+        }
+        if (query.getSemester() != null && query.getSemester() != semester) {
+            return false;
+        }
+        return query.getYear() == null || years.contains(query.getYear());
+    }
+    
+    @Override
+    public String toString() {
+        return getKey() + " (" + recordCount + " entries)";
+    }
+}
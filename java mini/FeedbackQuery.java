@@ -0,0 +1,182 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * FeedbackQuery Class - Structured filter over feedback fields
+ * Unset fields match everything; set fields are combined with AND.
+ * Example: new FeedbackQuery().semester(5).maxRating(2)
+ * Demonstrates OOP concepts: Encapsulation, Method Chaining
+ */
+public class FeedbackQuery {
+    private Integer semester;
+    private Integer year;
+    private Integer minRating;
+    private Integer maxRating;
+    private String subjectName;
+    private String facultyId;
+    private String usn;
+    
+    public FeedbackQuery semester(int semester) {
+        this.semester = semester;
+        return this;
+    }
+    
+    public FeedbackQuery year(int year) {
+        this.year = year;
+        return this;
+    }
+    
+    public FeedbackQuery minRating(int minRating) {
+        this.minRating = minRating;
+        return this;
+    }
+    
+    public FeedbackQuery maxRating(int maxRating) {
+        this.maxRating = maxRating;
+        return this;
+    }
+    
+    public FeedbackQuery subjectName(String subjectName) {
+        this.subjectName = subjectName;
+        return this;
+    }
+    
+    public FeedbackQuery facultyId(String facultyId) {
+        this.facultyId = facultyId;
+        return this;
+    }
+    
+    public FeedbackQuery usn(String usn) {
+        this.usn = usn;
+        return this;
+    }
+    
+    // Getters (null means "any")
+    public Integer getSemester() {
+        return semester;
+    }
+    
+    public Integer getYear() {
+        return year;
+    }
+    
+    public Integer getMinRating() {
+        return minRating;
+    }
+    
+    public Integer getMaxRating() {
+        return maxRating;
+    }
+    
+    public String getSubjectName() {
+        return subjectName;
+    }
+    
+    public String getFacultyId() {
+        return facultyId;
+    }
+    
+    public String getUsn() {
+        return usn;
+    }
+    
+    /**
+     * True when no field is set
+     */
+    public boolean isEmpty() {
+        return semester == null && year == null && minRating == null && maxRating == null
+            && subjectName == null && facultyId == null && usn == null;
+    }
+    
+    /**
+     * Check a single feedback entry against this filter
+     */
+    public boolean matches(Feedback fb) {
+        if (semester != null && fb.getSemester() != semester) {
+            return false;
+        }
+        if (year != null && fb.getYear() != year) {
+            return false;
+        }
+        if (minRating != null && fb.getRating() < minRating) {
+            return false;
+        }
+        if (maxRating != null && fb.getRating() > maxRating) {
+            return false;
+        }
+        if (subjectName != null && !fb.getSubjectName().equalsIgnoreCase(subjectName)) {
+            return false;
+        }
+        if (facultyId != null && !fb.getFacultyId().equalsIgnoreCase(facultyId)) {
+            return false;
+        }
+        if (usn != null && !fb.getUsn().equalsIgnoreCase(usn)) {
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Write the filter, for reading back with readFrom
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        writeOptional(out, semester);
+        writeOptional(out, year);
+        writeOptional(out, minRating);
+        writeOptional(out, maxRating);
+        writeOptional(out, subjectName);
+        writeOptional(out, facultyId);
+        writeOptional(out, usn);
+    }
+    
+    /**
+     * Read a filter written by writeTo
+     */
+    public static FeedbackQuery readFrom(DataInput in) throws IOException {
+        FeedbackQuery query = new FeedbackQuery();
+        query.semester = readOptionalInt(in);
+        query.year = readOptionalInt(in);
+        query.minRating = readOptionalInt(in);
+        query.maxRating = readOptionalInt(in);
+        query.subjectName = readOptionalString(in);
+        query.facultyId = readOptionalString(in);
+        query.usn = readOptionalString(in);
+        return query;
+    }
+    
+    private static void writeOptional(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+    
+    private static void writeOptional(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static Integer readOptionalInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+    
+    private static String readOptionalString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FeedbackQuery[");
+        if (semester != null) sb.append("semester=").append(semester).append(' ');
+        if (year != null) sb.append("year=").append(year).append(' ');
+        if (minRating != null) sb.append("rating>=").append(minRating).append(' ');
+        if (maxRating != null) sb.append("rating<=").append(maxRating).append(' ');
+        if (subjectName != null) sb.append("subject=").append(subjectName).append(' ');
+        if (facultyId != null) sb.append("faculty=").append(facultyId).append(' ');
+        if (usn != null) sb.append("usn=").append(usn).append(' ');
+        return sb.toString().trim() + "]";
+    }
+}
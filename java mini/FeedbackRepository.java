@@ -1,4 +1,13 @@
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -6,190 +15,1712 @@ import java.util.stream.Collectors;
  * Demonstrates OOP concepts: Data Access Pattern, Methods, Exception Handling
  */
 public class FeedbackRepository {
-    private static final String FEEDBACK_FILE = "feedback_data.json";
+    // Entities need this many ratings before they appear on a leaderboard
+    private static final int LEADERBOARD_MIN_RATINGS = 
+        Integer.getInteger("feedback.leaderboardMinRatings", 3);
+    
+    // Maximum number of cached query results
+    private static final int QUERY_CACHE_SIZE = Integer.getInteger("feedback.queryCacheSize", 512);
+    
+    // Merged partition summaries kept, one per distinct set of partitions queried
+    private static final int MERGED_SUMMARY_LIMIT = 32;
+    
+    // Key of the single entry in overallSketches
+    static final String ALL = "";
+    
+    // Keep rows in direct memory instead of as Feedback objects, e.g. -Dfeedback.offHeap=true
+    private static final boolean OFF_HEAP = Boolean.getBoolean("feedback.offHeap");
     private List<Feedback> feedbackList;
     
+    // Same list as feedbackList when rows are kept off-heap, otherwise null
+    private OffHeapFeedbackList offHeapRows;
+    
+    // Partition files per academic year and semester; comment text lives in the
+    // store's side file and is read only by detail views and search
+    private final PartitionedStore store;
+    
+    // Partitions whose rows are in feedbackList, and the rows each one owns
+    private final Set<String> loadedPartitions = ConcurrentHashMap.newKeySet();
+    private final Map<String, RowBitmap> rowsByPartition = new HashMap<>();
+    
+    // Feedback ID -> row, used to tell changed entries from new ones on reload.
+    // Like duplicateIndex it holds hashes and row numbers only (in direct memory
+    // when rows are off-heap) and reads the keys back from the rows.
+    private RowKeyTable rowById;
+    
+    // Set after a checkpoint restore: rowById and duplicateIndex are rebuilt on
+    // the first write or duplicate lookup rather than at startup
+    private volatile boolean keyIndexesStale;
+    
+    // Reloads partitions written by another process; null unless watching
+    private DataDirectoryWatcher watcher;
+    
+    // Aggregates of partitions left on disk, read by queries that need totals rather
+    // than rows, and merges of them keyed by the partitions they cover
+    private final Map<String, PartitionSummary> partitionSummaries = new ConcurrentHashMap<>();
+    private final Map<String, PartitionSummary> mergedSummaries = new ConcurrentHashMap<>();
+    
+    // Uniqueness index: (USN, subject code, faculty ID, semester) -> row in feedbackList
+    private RowKeyTable duplicateIndex;
+    
+    // Inverted index over comments; built on the first search so loading never
+    // reads comment text, then maintained on every write
+    private volatile CommentIndex commentIndex;
+    
+    // Bitmap indexes over semester, year, rating, subject and faculty
+    private BitmapIndex bitmapIndex;
+    
+    // Running averages ranked for top-K / bottom-K reads
+    private Leaderboard facultyLeaderboard;
+    private Leaderboard subjectLeaderboard;
+    
+    // Rating sketches per faculty and subject (and for all feedback), rolled up by
+    // hour, day, week and term for date-range quantiles and trend charts
+    private RatingSketchIndex facultySketches;
+    private RatingSketchIndex subjectSketches;
+    private RatingSketchIndex overallSketches;
+    
+    // Approximate distinct-student counts per subject, faculty and semester
+    private ParticipationSketches participation;
+    private RatingColumns ratingColumns;
+    
+    // Version stamps for report caches; never reset, only advanced
+    private final ChangeTracker changeTracker = new ChangeTracker();
+    
+    // Row writes in order, shipped to followers by ReplicationServer
+    private final ReplicationLog replicationLog = new ReplicationLog();
+    
+    // Results of repeated queries, invalidated per subject / faculty / semester / year
+    private final QueryCache queryCache = new QueryCache(QUERY_CACHE_SIZE);
+    
+    // HTML dashboard created on first report, so its section cache survives between reports
+    private HtmlDashboardReport dashboard;
+    
+    // Writers take the write lock so the duplicate check and the insert are atomic
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
     public FeedbackRepository() {
-        this.feedbackList = new ArrayList<>();
+        this(".");
+    }
+    
+    /**
+     * Open the repository stored in the given data directory
+     */
+    public FeedbackRepository(String dataDirectory) {
+        this.store = new PartitionedStore(dataDirectory);
+        resetState();
         loadFromFile();
     }
     
     /**
-     * Load feedback data from JSON file
+     * Read the partition manifest and load the current academic year.
+     * Older partitions stay on disk until a query needs them.
      */
     private void loadFromFile() {
         try {
-            this.feedbackList = JSONHandler.loadFeedbackFromJSON(FEEDBACK_FILE);
-            System.out.println("Loaded " + feedbackList.size() + " feedback entries from file.");
+            store.open();
+            restoreCheckpoint();
+            String activeYear = PartitionedStore.currentAcademicYear();
+            for (FeedbackPartition partition : store.getPartitions()) {
+                if (partition.getAcademicYear().equals(activeYear) 
+                        && !loadedPartitions.contains(partition.getKey())) {
+                    loadPartition(partition);
+                }
+            }
+            System.out.println("Loaded " + feedbackList.size() + " feedback entries for " + activeYear 
+                + " (" + store.countRows(loadedPartitions) + " older entries load on demand).");
         } catch (DataStorageException e) {
             System.err.println("Warning: " + e.getMessage());
-            System.err.println("Starting with empty feedback list.");
-            this.feedbackList = new ArrayList<>();
+            System.err.println("Continuing with " + feedbackList.size() + " loaded feedback entries.");
+        }
+    }
+    
+    /**
+     * Append one partition's rows and index them. Caller holds the write lock.
+     * Older files may already contain repeats; those rows are kept and the
+     * uniqueness index points at the newest one.
+     */
+    private void loadPartition(FeedbackPartition partition) throws DataStorageException {
+        int repeats = 0;
+        for (Feedback fb : store.load(partition)) {
+            if (appendRow(partition.getKey(), fb)) {
+                repeats++;
+            }
+        }
+        loadedPartitions.add(partition.getKey());
+        partitionSummaries.remove(partition.getKey());
+        mergedSummaries.clear();
+        MetricsRegistry.increment("repository.partitionsLoaded");
+        
+        if (repeats > 0) {
+            System.out.println("Note: " + repeats + " repeated feedback entries found in partition " 
+                + partition.getKey() + ".");
+        }
+    }
+    
+    /**
+     * Append a row and index it. Caller holds the write lock.
+     * @return true if the row repeats the uniqueness key of an earlier row
+     */
+    private boolean appendRow(String partitionKey, Feedback fb) {
+        int row = feedbackList.size();
+        feedbackList.add(fb);
+        rowsByPartition.computeIfAbsent(partitionKey, k -> new RowBitmap()).add(row);
+        indexRow(row, fb);
+        return indexKeys(row, fb.getFeedbackId(), duplicateKey(fb), fb.getTimestamp());
+    }
+    
+    /**
+     * Record a row's feedback ID and uniqueness key
+     * @return true if the row repeats the uniqueness key of an earlier row
+     */
+    private boolean indexKeys(int row, String feedbackId, String key, String timestamp) {
+        if (keyIndexesStale) {
+            return false;
+        }
+        rowById.put(feedbackId, row);
+        int previous = duplicateIndex.get(key);
+        if (previous < 0 || isNewer(timestampOf(previous), timestamp)) {
+            duplicateIndex.put(key, row);
+        }
+        return previous >= 0;
+    }
+    
+    /**
+     * Rebuild rowById and duplicateIndex if a checkpoint restore deferred them,
+     * reading only the key fields of each row. Caller holds the write lock.
+     */
+    private void ensureKeyIndexes() {
+        if (!keyIndexesStale) {
+            return;
+        }
+        keyIndexesStale = false;
+        rowById = newKeyTable(this::feedbackIdOf, feedbackList.size());
+        duplicateIndex = newKeyTable(this::duplicateKeyOf, feedbackList.size());
+        for (int row = 0; row < feedbackList.size(); row++) {
+            indexKeys(row, feedbackIdOf(row), duplicateKeyOf(row), timestampOf(row));
+        }
+    }
+    
+    private RowKeyTable newKeyTable(IntFunction<String> keyOfRow, int expectedSize) {
+        return new RowKeyTable(keyOfRow, offHeapRows != null, expectedSize);
+    }
+    
+    // Key fields of a row; off-heap rows are read from their slots, not turned into views
+    
+    private String feedbackIdOf(int row) {
+        return offHeapRows != null ? offHeapRows.getFeedbackId(row) : feedbackList.get(row).getFeedbackId();
+    }
+    
+    private String duplicateKeyOf(int row) {
+        if (offHeapRows != null) {
+            return duplicateKey(offHeapRows.getUsn(row), offHeapRows.getSubjectCode(row),
+                offHeapRows.getFacultyId(row), offHeapRows.getSemester(row));
+        }
+        return duplicateKey(feedbackList.get(row));
+    }
+    
+    private String timestampOf(int row) {
+        return offHeapRows != null ? offHeapRows.getTimestamp(row) : feedbackList.get(row).getTimestamp();
+    }
+    
+    /**
+     * Adopt the rows and derived state saved by checkpoint(), then replay entries
+     * appended since. Any partition rewritten since the checkpoint makes the whole
+     * checkpoint unusable, and loading falls back to parsing the partition files.
+     */
+    private void restoreCheckpoint() {
+        long start = MetricsRegistry.startTimer();
+        try {
+            RepositoryCheckpoint checkpoint = RepositoryCheckpoint.readFrom(
+                store.getCheckpointFile(), store.getCommentStore(), LEADERBOARD_MIN_RATINGS);
+            if (checkpoint == null) {
+                return;
+            }
+            Map<String, FeedbackPartition> partitions = new HashMap<>();
+            for (FeedbackPartition partition : store.getPartitions()) {
+                partitions.put(partition.getKey(), partition);
+            }
+            for (Map.Entry<String, long[]> entry : checkpoint.getFingerprints().entrySet()) {
+                RowBitmap rows = checkpoint.getRowsByPartition().get(entry.getKey());
+                boolean empty = rows == null || rows.isEmpty();
+                if ((!empty && !partitions.containsKey(entry.getKey())) 
+                        || !store.hasPrefix(entry.getKey(), entry.getValue()[0], entry.getValue()[1])) {
+                    System.out.println("Checkpoint is out of date; loading from the data files.");
+                    return;
+                }
+            }
+            
+            feedbackList = newRowList();
+            feedbackList.addAll(checkpoint.getRows());
+            bitmapIndex = checkpoint.getBitmapIndex();
+            facultyLeaderboard = checkpoint.getFacultyLeaderboard();
+            subjectLeaderboard = checkpoint.getSubjectLeaderboard();
+            facultySketches = checkpoint.getFacultySketches();
+            subjectSketches = checkpoint.getSubjectSketches();
+            overallSketches = checkpoint.getOverallSketches();
+            participation = checkpoint.getParticipation();
+            ratingColumns = new RatingColumns();
+            for (int row = 0; row < checkpoint.getRows().size(); row++) {
+                ratingColumns.set(row, checkpoint.getRows().get(row));
+            }
+            rowsByPartition.putAll(checkpoint.getRowsByPartition());
+            changeTracker.reset(checkpoint.getRows());
+            replicationLog.reset(checkpoint.getRows().size());
+            keyIndexesStale = true;
+            loadedPartitions.addAll(checkpoint.getFingerprints().keySet());
+            
+            int replayed = 0;
+            for (Map.Entry<String, long[]> entry : checkpoint.getFingerprints().entrySet()) {
+                FeedbackPartition partition = partitions.get(entry.getKey());
+                if (partition != null) {
+                    for (Feedback fb : store.loadAppended(partition, entry.getValue()[0])) {
+                        appendRow(partition.getKey(), fb);
+                        replayed++;
+                    }
+                }
+            }
+            System.out.println("Restored " + (feedbackList.size() - replayed) + " feedback entries from checkpoint"
+                + (replayed > 0 ? " and replayed " + replayed + " newer entries." : "."));
+        } catch (DataStorageException e) {
+            System.err.println("Warning: " + e.getMessage());
+            resetState();
+        } finally {
+            MetricsRegistry.stopTimer("repository.restoreCheckpoint", start);
+        }
+    }
+    
+    /**
+     * Save the loaded rows and derived state so the next start can adopt them
+     * instead of parsing and indexing. Written at shutdown.
+     */
+    public void checkpoint() throws DataStorageException {
+        long start = MetricsRegistry.startTimer();
+        lock.writeLock().lock();
+        PartitionedStore.WriteLock fileLock = null;
+        try {
+            fileLock = store.lockForWrite();
+            refreshLocked();
+            Map<String, long[]> fingerprints = new TreeMap<>();
+            for (String partitionKey : loadedPartitions) {
+                fingerprints.put(partitionKey, store.fingerprint(partitionKey));
+            }
+            new RepositoryCheckpoint(feedbackList, bitmapIndex, facultyLeaderboard, subjectLeaderboard, 
+                facultySketches, subjectSketches, overallSketches, participation, rowsByPartition, fingerprints).writeTo(store.getCheckpointFile());
+        } finally {
+            if (fileLock != null) {
+                fileLock.close();
+            }
+            lock.writeLock().unlock();
+            MetricsRegistry.stopTimer("repository.checkpoint", start);
+        }
+    }
+    
+    /**
+     * Pick up partitions another process wrote since this one last read them.
+     * Only changed partition files are parsed, and only entries that are new or
+     * differ from the loaded ones touch the indexes.
+     * @return number of entries added or replaced
+     */
+    public int refresh() throws DataStorageException {
+        lock.writeLock().lock();
+        PartitionedStore.WriteLock fileLock = null;
+        try {
+            fileLock = store.lockForWrite();
+            return refreshLocked();
+        } finally {
+            if (fileLock != null) {
+                fileLock.close();
+            }
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Refresh while holding both the write lock and the directory lock
+     */
+    private int refreshLocked() throws DataStorageException {
+        Set<String> unchecked = new HashSet<>();
+        for (FeedbackPartition partition : store.getPartitions()) {
+            unchecked.add(partition.getKey());
+        }
+        store.refresh();
+        String activeYear = PartitionedStore.currentAcademicYear();
+        int changes = 0;
+        boolean summariesChanged = false;
+        for (FeedbackPartition partition : store.getPartitions()) {
+            boolean known = unchecked.remove(partition.getKey());
+            boolean loaded = loadedPartitions.contains(partition.getKey());
+            if (loaded ? store.hasChanged(partition) : partition.getAcademicYear().equals(activeYear)) {
+                changes += applyDelta(partition);
+            } else if (!loaded) {
+                PartitionSummary summary = partitionSummaries.get(partition.getKey());
+                if (!known || (summary != null && !store.isCurrent(partition, summary))) {
+                    partitionSummaries.remove(partition.getKey());
+                    summariesChanged = true;
+                }
+            }
+        }
+        unchecked.removeAll(loadedPartitions);
+        if (summariesChanged || !unchecked.isEmpty()) {
+            // Totals include the partitions left on disk, so theirs changed too
+            mergedSummaries.clear();
+            queryCache.clear();
+            changeTracker.changedOnDisk();
+        }
+        if (changes > 0) {
+            MetricsRegistry.increment("repository.reloads");
+        }
+        return changes;
+    }
+    
+    /**
+     * Merge a partition file into the loaded rows. A known feedback ID with the same
+     * uniqueness key but different content is replaced in place; an unknown ID that
+     * supersedes a stored entry with the same uniqueness key replaces it (another
+     * process used REPLACE or KEEP_LATEST); anything else is appended. A known ID on
+     * an entry with another uniqueness key is a different entry (IDs written before
+     * they carried a node ID can repeat across processes) and never overwrites the row.
+     */
+    private int applyDelta(FeedbackPartition partition) throws DataStorageException {
+        ensureKeyIndexes();
+        int changes = 0;
+        for (Feedback fb : store.load(partition)) {
+            String key = duplicateKey(fb);
+            int row = rowById.get(fb.getFeedbackId());
+            if (row < 0 || !duplicateKeyOf(row).equals(key)) {
+                // The ID may belong to another process's entry; find this one by its key
+                int keyed = duplicateIndex.get(key);
+                row = keyed >= 0 && feedbackIdOf(keyed).equals(fb.getFeedbackId()) ? keyed : -1;
+            }
+            if (row >= 0) {
+                if (!sameContent(feedbackList.get(row), fb)) {
+                    replaceRow(row, fb);
+                    changes++;
+                }
+                continue;
+            }
+            int existingRow = duplicateIndex.get(key);
+            if (existingRow >= 0 && isNewer(timestampOf(existingRow), fb.getTimestamp())) {
+                replaceRow(existingRow, fb);
+            } else {
+                appendRow(partition.getKey(), fb);
+            }
+            changes++;
+        }
+        loadedPartitions.add(partition.getKey());
+        return changes;
+    }
+    
+    private static boolean sameContent(Feedback a, Feedback b) {
+        return a.getRating() == b.getRating()
+            && a.getTimestamp().equals(b.getTimestamp())
+            && a.getCommentOffset() == b.getCommentOffset()
+            && a.getCommentLength() == b.getCommentLength()
+            && duplicateKey(a).equals(duplicateKey(b));
+    }
+    
+    /**
+     * Watch the data directory and reload partitions other processes write
+     */
+    public synchronized void startWatching() throws DataStorageException {
+        if (watcher == null) {
+            watcher = new DataDirectoryWatcher(store.getDirectory(), this);
+            watcher.start();
+        }
+    }
+    
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+    
+    /**
+     * Load every partition that may hold rows matching the query; the
+     * manifest lets semester and year predicates skip the others
+     */
+    private void ensureLoaded(FeedbackQuery query) throws DataStorageException {
+        ensureLoaded(store.getPartitions(query));
+    }
+    
+    private void ensureLoaded(List<FeedbackPartition> needed) throws DataStorageException {
+        boolean missing = false;
+        for (FeedbackPartition partition : needed) {
+            missing |= !loadedPartitions.contains(partition.getKey());
+        }
+        if (!missing) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (FeedbackPartition partition : needed) {
+                if (!loadedPartitions.contains(partition.getKey())) {
+                    loadPartition(partition);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Load every partition, so the rows of older academic years are in memory too;
+     * a partition that fails to load is reported and skipped
+     */
+    public void loadAllPartitions() {
+        ensureLoadedForRead(store.getPartitions());
+    }
+    
+    /**
+     * Load partitions for a read; a partition that fails to load is reported and skipped
+     */
+    private void ensureLoadedForRead(FeedbackQuery query) {
+        ensureLoadedForRead(store.getPartitions(query));
+    }
+    
+    private void ensureLoadedForRead(List<FeedbackPartition> needed) {
+        try {
+            ensureLoaded(needed);
+        } catch (DataStorageException e) {
+            System.err.println("Warning: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Partitions of every academic year that overlaps a date range; a null bound is open
+     */
+    private List<FeedbackPartition> partitionsBetween(LocalDate from, LocalDate to) {
+        String first = from == null ? null : PartitionedStore.academicYearOf(from.toString());
+        String last = to == null ? null : PartitionedStore.academicYearOf(to.toString());
+        List<FeedbackPartition> partitions = new ArrayList<>();
+        for (FeedbackPartition partition : store.getPartitions()) {
+            String academicYear = partition.getAcademicYear();
+            if ((first == null || academicYear.compareTo(first) >= 0)
+                    && (last == null || academicYear.compareTo(last) <= 0)) {
+                partitions.add(partition);
+            }
+        }
+        return partitions;
+    }
+    
+    /**
+     * Partitions that may hold rows matching a query, after loading those a summary
+     * cannot answer for: summaries have no per-row detail, so they serve semester and
+     * rating predicates and one of subject or faculty, and a year only when it is the
+     * only student year in the partition
+     */
+    private List<FeedbackPartition> summarizable(FeedbackQuery query) {
+        List<FeedbackPartition> partitions = store.getPartitions(query);
+        List<FeedbackPartition> needRows = new ArrayList<>();
+        boolean rowsOnly = query != null 
+            && (query.getUsn() != null || (query.getSubjectName() != null && query.getFacultyId() != null));
+        for (FeedbackPartition partition : partitions) {
+            if (rowsOnly || (query != null && query.getYear() != null && partition.getYears().size() > 1)) {
+                needRows.add(partition);
+            }
+        }
+        ensureLoadedForRead(needRows);
+        return partitions;
+    }
+    
+    /**
+     * Partitions that may hold rows matching a range filter, after loading those
+     * whose student years are only partly inside the filter's year range
+     */
+    private List<FeedbackPartition> summarizable(RangeFilter filter) {
+        List<FeedbackPartition> partitions = new ArrayList<>();
+        List<FeedbackPartition> needRows = new ArrayList<>();
+        for (FeedbackPartition partition : store.getPartitions()) {
+            if (partition.getSemester() < filter.getMinSemester() 
+                    || partition.getSemester() > filter.getMaxSemester()) {
+                continue;
+            }
+            int inside = 0;
+            for (int year : partition.getYears()) {
+                if (year >= filter.getMinYear() && year <= filter.getMaxYear()) {
+                    inside++;
+                }
+            }
+            if (inside > 0) {
+                partitions.add(partition);
+                if (inside < partition.getYears().size()) {
+                    needRows.add(partition);
+                }
+            }
+        }
+        ensureLoadedForRead(needRows);
+        return partitions;
+    }
+    
+    /**
+     * Aggregates of the given partitions that are not loaded, from their summary
+     * files; a partition without a current summary is loaded instead
+     */
+    private PartitionSummary summarizeUnloaded(List<FeedbackPartition> partitions) {
+        List<PartitionSummary> found = new ArrayList<>();
+        List<FeedbackPartition> missing = new ArrayList<>();
+        StringBuilder key = new StringBuilder();
+        for (FeedbackPartition partition : partitions) {
+            if (loadedPartitions.contains(partition.getKey())) {
+                continue;
+            }
+            PartitionSummary summary = partitionSummaries.get(partition.getKey());
+            if (summary == null) {
+                try {
+                    summary = store.loadSummary(partition);
+                } catch (DataStorageException e) {
+                    System.err.println("Warning: " + e.getMessage());
+                }
+                if (summary != null) {
+                    partitionSummaries.put(partition.getKey(), summary);
+                }
+            }
+            if (summary == null) {
+                missing.add(partition);
+            } else {
+                found.add(summary);
+                key.append(partition.getKey()).append(' ');
+            }
+        }
+        ensureLoadedForRead(missing);
+        if (found.size() == 1) {
+            return found.get(0);
+        }
+        if (mergedSummaries.size() >= MERGED_SUMMARY_LIMIT) {
+            mergedSummaries.clear();
+        }
+        return mergedSummaries.computeIfAbsent(key.toString(), k -> {
+            PartitionSummary merged = new PartitionSummary();
+            for (PartitionSummary summary : found) {
+                merged.mergeFrom(summary);
+            }
+            return merged;
+        });
+    }
+    
+    /**
+     * Read the loaded rows' indexes together with the summary of the given partitions
+     * that are not loaded. Runs under the read lock, and starts over if one of those
+     * partitions was loaded meanwhile so no partition is counted twice.
+     */
+    private <T> T readCombined(List<FeedbackPartition> partitions, Function<PartitionSummary, T> read) {
+        while (true) {
+            PartitionSummary unloaded = summarizeUnloaded(partitions);
+            lock.readLock().lock();
+            try {
+                if (Collections.disjoint(unloaded.getPartitionKeys(), loadedPartitions)) {
+                    return read.apply(unloaded);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Empty row list for the configured storage mode
+     */
+    private List<Feedback> newRowList() {
+        if (OFF_HEAP) {
+            offHeapRows = new OffHeapFeedbackList(store.getCommentStore());
+            return offHeapRows;
+        }
+        return new ArrayList<>();
+    }
+    
+    /**
+     * Counter advanced by every change to the loaded feedback; an unchanged
+     * value means reports built from the loaded rows are still current
+     */
+    public long getChangeCount() {
+        lock.readLock().lock();
+        try {
+            return changeTracker.getChangeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Change counter value at the last change to a subject's feedback
+     */
+    public long getSubjectChangeStamp(String subjectName) {
+        lock.readLock().lock();
+        try {
+            return changeTracker.getSubjectStamp(subjectName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Change counter value at the last change to a faculty member's feedback
+     */
+    public long getFacultyChangeStamp(String facultyId) {
+        lock.readLock().lock();
+        try {
+            return changeTracker.getFacultyStamp(facultyId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Replication log entries from a sequence number, with the entries they
+     * wrote, for shipping to a follower
+     */
+    public ReplicationLog.Segment readReplicationLog(long from, int max) {
+        lock.readLock().lock();
+        try {
+            return replicationLog.read(from, max, feedbackList);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Wait until the replication log grows past a sequence number or starts a new epoch
+     * @return false on timeout
+     */
+    public boolean awaitReplicationLog(long epoch, long sequence, long timeoutMillis) throws InterruptedException {
+        return replicationLog.await(epoch, sequence, timeoutMillis);
+    }
+    
+    /**
+     * Follower side of replication: drop every row before a full resync. Files
+     * in this repository's own data directory are ignored from now on.
+     */
+    public void clearReplica() {
+        lock.writeLock().lock();
+        try {
+            resetState();
+            for (FeedbackPartition partition : store.getPartitions()) {
+                loadedPartitions.add(partition.getKey());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Follower side of replication: set rows as the primary wrote them, in log
+     * order. The rows are indexed like local writes but not saved to disk.
+     * @throws IllegalStateException if an entry skips past the next free row
+     */
+    public void applyReplicated(int[] rows, List<Feedback> entries) {
+        lock.writeLock().lock();
+        try {
+            ensureKeyIndexes();
+            for (int i = 0; i < rows.length; i++) {
+                Feedback fb = entries.get(i);
+                if (rows[i] == feedbackList.size()) {
+                    appendRow(PartitionedStore.partitionKey(fb), fb);
+                    loadedPartitions.add(PartitionedStore.partitionKey(fb));
+                } else if (rows[i] < feedbackList.size()) {
+                    replaceRow(rows[i], fb);
+                } else {
+                    throw new IllegalStateException("Replicated row " + rows[i] + " is past the last row " 
+                        + (feedbackList.size() - 1));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Direct memory used by off-heap rows and their key tables, 0 when rows are
+     * kept on the heap
+     */
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return offHeapRows == null ? 0 : offHeapRows.getOffHeapBytes() + rowById.getBytes() + duplicateIndex.getBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Drop all loaded rows and derived indexes
+     */
+    private void resetState() {
+        queryCache.clear();
+        feedbackList = newRowList();
+        rowById = newKeyTable(this::feedbackIdOf, 0);
+        duplicateIndex = newKeyTable(this::duplicateKeyOf, 0);
+        commentIndex = null;
+        bitmapIndex = new BitmapIndex();
+        facultyLeaderboard = new Leaderboard(LEADERBOARD_MIN_RATINGS);
+        subjectLeaderboard = new Leaderboard(LEADERBOARD_MIN_RATINGS);
+        facultySketches = new RatingSketchIndex();
+        subjectSketches = new RatingSketchIndex();
+        overallSketches = new RatingSketchIndex();
+        participation = new ParticipationSketches();
+        ratingColumns = new RatingColumns();
+        changeTracker.reset(Collections.emptyList());
+        replicationLog.reset(0);
+        loadedPartitions.clear();
+        rowsByPartition.clear();
+        partitionSummaries.clear();
+        mergedSummaries.clear();
+        keyIndexesStale = false;
+    }
+    
+    /**
+     * Add a row to the derived indexes
+     */
+    private void indexRow(int row, Feedback fb) {
+        if (commentIndex != null) {
+            commentIndex.add(row, fb.getComments());
+        }
+        bitmapIndex.add(row, fb);
+        ratingColumns.set(row, fb);
+        facultyLeaderboard.record(fb.getFacultyId().toUpperCase(), 
+            fb.getFacultyName() + " (" + fb.getFacultyId() + ")", fb.getRating());
+        subjectLeaderboard.record(fb.getSubjectName().toLowerCase(), fb.getSubjectName(), fb.getRating());
+        facultySketches.add(fb.getFacultyId().toUpperCase(), fb.getTimestamp(), fb.getRating());
+        subjectSketches.add(fb.getSubjectName().toLowerCase(), fb.getTimestamp(), fb.getRating());
+        overallSketches.add(ALL, fb.getTimestamp(), fb.getRating());
+        participation.add(fb);
+        changeTracker.added(fb);
+        replicationLog.record(row);
+        queryCache.invalidate(fb);
+    }
+    
+    /**
+     * Remove a row from the derived indexes before it is overwritten
+     */
+    private void unindexRow(int row, Feedback fb) {
+        if (commentIndex != null) {
+            commentIndex.remove(row, fb.getComments());
+        }
+        bitmapIndex.remove(row, fb);
+        facultyLeaderboard.unrecord(fb.getFacultyId().toUpperCase(), fb.getRating());
+        subjectLeaderboard.unrecord(fb.getSubjectName().toLowerCase(), fb.getRating());
+        facultySketches.remove(fb.getFacultyId().toUpperCase(), fb.getTimestamp(), fb.getRating());
+        subjectSketches.remove(fb.getSubjectName().toLowerCase(), fb.getTimestamp(), fb.getRating());
+        overallSketches.remove(ALL, fb.getTimestamp(), fb.getRating());
+        changeTracker.removed(fb);
+        queryCache.invalidate(fb);
+    }
+    
+    /**
+     * Overwrite a row, keeping the derived indexes and partition membership in step
+     */
+    private void replaceRow(int row, Feedback feedback) {
+        Feedback old = feedbackList.get(row);
+        String oldPartition = PartitionedStore.partitionKey(old);
+        unindexRow(row, old);
+        feedbackList.set(row, feedback);
+        indexRow(row, feedback);
+        rowById.remove(old.getFeedbackId(), row);
+        rowById.put(feedback.getFeedbackId(), row);
+        String key = duplicateKey(feedback);
+        if (!key.equals(duplicateKey(old))) {
+            duplicateIndex.remove(duplicateKey(old), row);
+            duplicateIndex.put(key, row);
+        }
+        rowsByPartition.get(oldPartition).remove(row);
+        rowsByPartition.computeIfAbsent(PartitionedStore.partitionKey(feedback), k -> new RowBitmap()).add(row);
+    }
+    
+    /**
+     * Build the uniqueness key for a feedback entry
+     */
+    public static String duplicateKey(String usn, String subjectCode, String facultyId, int semester) {
+        return (usn == null ? "" : usn.toUpperCase()) + "|"
+            + (subjectCode == null ? "" : subjectCode.toUpperCase()) + "|"
+            + (facultyId == null ? "" : facultyId.toUpperCase()) + "|"
+            + semester;
+    }
+    
+    private static String duplicateKey(Feedback fb) {
+        return duplicateKey(fb.getUsn(), fb.getSubjectCode(), fb.getFacultyId(), fb.getSemester());
+    }
+    
+    /**
+     * Timestamps are stored as yyyy-MM-dd HH:mm:ss, so string order is time order
+     */
+    private static boolean isNewer(Feedback existing, Feedback candidate) {
+        return isNewer(existing.getTimestamp(), candidate.getTimestamp());
+    }
+    
+    private static boolean isNewer(String existingTimestamp, String candidateTimestamp) {
+        return candidateTimestamp.compareTo(existingTimestamp) >= 0;
+    }
+    
+    /**
+     * Point entries that replace a stored entry without changing its comment at
+     * the text already in the side file, so resubmissions do not grow it
+     */
+    private void reuseUnchangedComments(List<Feedback> entries) {
+        for (Feedback feedback : entries) {
+            int row = duplicateIndex.get(duplicateKey(feedback));
+            if (row < 0 || feedback.hasCommentReference()) {
+                continue;
+            }
+            Feedback existing = feedbackList.get(row);
+            String comment = feedback.getComments();
+            if (existing.hasCommentReference() && existing.getCommentLength() == utf8Length(comment)
+                    && existing.getComments().equals(comment)) {
+                feedback.setCommentReference(store.getCommentStore(), existing.getCommentOffset(),
+                    existing.getCommentLength());
+            }
+        }
+    }
+    
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+    
+    /**
+     * Rows of each partition the entries change, by row number, as they will be once
+     * the entries are applied: replaced rows keep their number (moving partition if
+     * the academic year changed) and new rows are numbered after the last one.
+     * Nothing in memory changes, so the partitions can be saved before the rows are.
+     */
+    private Map<String, SortedMap<Integer, Feedback>> planPartitions(List<Feedback> entries) {
+        Map<String, SortedMap<Integer, Feedback>> planned = new LinkedHashMap<>();
+        int nextRow = feedbackList.size();
+        for (Feedback feedback : entries) {
+            int row = duplicateIndex.get(duplicateKey(feedback));
+            if (row < 0) {
+                row = nextRow++;
+            } else {
+                plannedRows(planned, PartitionedStore.partitionKey(feedbackList.get(row))).remove(row);
+            }
+            plannedRows(planned, PartitionedStore.partitionKey(feedback)).put(row, feedback);
+        }
+        return planned;
+    }
+    
+    private SortedMap<Integer, Feedback> plannedRows(Map<String, SortedMap<Integer, Feedback>> planned,
+                                                     String partitionKey) {
+        return planned.computeIfAbsent(partitionKey, key -> {
+            SortedMap<Integer, Feedback> rows = new TreeMap<>();
+            RowBitmap partitionRows = rowsByPartition.get(key);
+            if (partitionRows != null) {
+                partitionRows.forEach(row -> rows.put(row, feedbackList.get(row)));
+            }
+            return rows;
+        });
+    }
+    
+    /**
+     * Rewrite the planned partitions; untouched partitions are left as they are
+     */
+    private void savePartitions(Map<String, SortedMap<Integer, Feedback>> planned) throws DataStorageException {
+        for (Map.Entry<String, SortedMap<Integer, Feedback>> partition : planned.entrySet()) {
+            store.save(partition.getKey(), new ArrayList<>(partition.getValue().values()));
         }
     }
     
     /**
-     * Save feedback data to JSON file
+     * Add new feedback, rejecting repeats of an existing entry
      */
-    private void saveToFile() throws DataStorageException {
-        JSONHandler.saveFeedbackToJSON(feedbackList, FEEDBACK_FILE);
+    public void addFeedback(Feedback feedback) throws DataStorageException, DuplicateFeedbackException {
+        addFeedback(feedback, DuplicatePolicy.REJECT);
     }
     
     /**
-     * Add new feedback
+     * Add new feedback, resolving repeats of an existing entry with the given policy
+     * @return true if the repository changed, false if the entry was ignored
      */
-    public void addFeedback(Feedback feedback) throws DataStorageException {
-        feedbackList.add(feedback);
-        saveToFile();
-        System.out.println("Feedback saved successfully!");
+    public boolean addFeedback(Feedback feedback, DuplicatePolicy policy) 
+            throws DataStorageException, DuplicateFeedbackException {
+        SubmissionResult result = addFeedbackBatch(Collections.singletonList(feedback), policy).get(0);
+        switch (result.getStatus()) {
+            case DUPLICATE:
+                throw (DuplicateFeedbackException) result.toException();
+            case IGNORED:
+                System.out.println(result.getMessage());
+                return false;
+            default:
+                System.out.println("Feedback saved successfully!");
+                return true;
+        }
+    }
+    
+    /**
+     * Add several entries as one unit: one lock, one pass over the indexes and one
+     * write per affected partition. Under REJECT a single repeat rejects the whole
+     * batch and nothing is stored; within the batch, a later entry for the same
+     * uniqueness key supersedes an earlier one. The partitions are written before
+     * the rows change, so a failed save leaves the loaded rows matching the files.
+     * @return one result per entry, in submission order
+     */
+    public List<SubmissionResult> addFeedbackBatch(List<Feedback> batch, DuplicatePolicy policy)
+            throws DataStorageException {
+        // Repeats can only sit in partitions for the same semesters
+        Set<Integer> semesters = new TreeSet<>();
+        for (Feedback fb : batch) {
+            semesters.add(fb.getSemester());
+        }
+        for (int semester : semesters) {
+            ensureLoaded(new FeedbackQuery().semester(semester));
+        }
+        
+        SubmissionResult[] results = new SubmissionResult[batch.size()];
+        lock.writeLock().lock();
+        PartitionedStore.WriteLock fileLock = null;
+        try {
+            fileLock = store.lockForWrite();
+            // Another process may have written since we last looked
+            refreshLocked();
+            ensureKeyIndexes();
+            
+            // Plan every entry before touching anything so a rejection leaves no trace
+            Map<String, Integer> pending = new HashMap<>();
+            boolean rejected = false;
+            for (int i = 0; i < batch.size(); i++) {
+                Feedback feedback = batch.get(i);
+                String key = duplicateKey(feedback);
+                int existingRow = duplicateIndex.get(key);
+                if (existingRow >= 0) {
+                    Feedback existing = feedbackList.get(existingRow);
+                    if (policy == DuplicatePolicy.REJECT) {
+                        results[i] = SubmissionResult.duplicate(feedback,
+                            "Feedback for " + feedback.getSubjectName() + " (" + feedback.getFacultyId() 
+                            + ") in semester " + feedback.getSemester() + " was already submitted on " 
+                            + existing.getTimestamp());
+                        rejected = true;
+                        continue;
+                    }
+                    if (policy == DuplicatePolicy.KEEP_LATEST && !isNewer(existing, feedback)) {
+                        results[i] = SubmissionResult.ignored(feedback,
+                            "Newer feedback already stored; submission ignored.");
+                        continue;
+                    }
+                }
+                Integer earlier = pending.put(key, i);
+                if (earlier != null) {
+                    results[earlier] = SubmissionResult.ignored(batch.get(earlier),
+                        "Superseded by a later entry in the same batch.");
+                }
+                results[i] = SubmissionResult.saved(feedback);
+            }
+            
+            if (rejected) {
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i].getStatus() != SubmissionResult.Status.DUPLICATE) {
+                        results[i] = SubmissionResult.notSaved(batch.get(i));
+                    }
+                }
+                return Arrays.asList(results);
+            }
+            
+            // Comment text for the whole batch goes to the side file in one append
+            List<Feedback> applied = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                if (results[i].isSaved()) {
+                    applied.add(batch.get(i));
+                }
+            }
+            reuseUnchangedComments(applied);
+            store.getCommentStore().attachAll(applied);
+            Map<String, SortedMap<Integer, Feedback>> planned = planPartitions(applied);
+            savePartitions(planned);
+            
+            for (Feedback feedback : applied) {
+                String partitionKey = PartitionedStore.partitionKey(feedback);
+                int existingRow = duplicateIndex.get(duplicateKey(feedback));
+                if (existingRow < 0) {
+                    appendRow(partitionKey, feedback);
+                } else {
+                    replaceRow(existingRow, feedback);
+                }
+                loadedPartitions.add(partitionKey);
+            }
+            if (offHeapRows != null) {
+                // Saving moved inline comments to the side file on the row views
+                for (SortedMap<Integer, Feedback> rows : planned.values()) {
+                    rows.forEach(offHeapRows::syncCommentReference);
+                }
+            }
+        } finally {
+            if (fileLock != null) {
+                fileLock.close();
+            }
+            lock.writeLock().unlock();
+        }
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Find the stored entry with the same uniqueness key, or null
+     */
+    public Feedback findDuplicate(String usn, String subjectCode, String facultyId, int semester) {
+        ensureLoadedForRead(new FeedbackQuery().semester(semester));
+        if (keyIndexesStale) {
+            lock.writeLock().lock();
+            try {
+                ensureKeyIndexes();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+        try {
+            int row = duplicateIndex.get(duplicateKey(usn, subjectCode, facultyId, semester));
+            return row < 0 ? null : feedbackList.get(row);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
      * Get all feedback
      */
     public List<Feedback> getAllFeedback() {
-        return new ArrayList<>(feedbackList);
+        ensureLoadedForRead(store.getPartitions());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(feedbackList);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get feedback matching a structured query
+     */
+    public List<Feedback> getFeedback(FeedbackQuery query) {
+        ensureLoadedForRead(query);
+        long start = MetricsRegistry.startTimer();
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        List<Feedback> results = null;
+        String key = "getFeedback|" + query;
+        lock.readLock().lock();
+        try {
+            results = queryCache.get(key);
+            if (results == null) {
+                results = Collections.unmodifiableList(materialize(bitmapIndex.select(query), query));
+                queryCache.put(key, query, results);
+            }
+            return new ArrayList<>(results);
+        } finally {
+            lock.readLock().unlock();
+            MetricsRegistry.stopTimer("repository.getFeedback", start);
+            commitQueryEvent(event, "getFeedback", query, results == null ? 0 : results.size());
+        }
+    }
+    
+    /**
+     * Count feedback matching a structured query. Unless a USN is given this
+     * is answered from the bitmaps alone.
+     */
+    public int countFeedback(FeedbackQuery query) {
+        if (query != null && query.getUsn() != null) {
+            return getFeedback(query).size();
+        }
+        List<FeedbackPartition> partitions = summarizable(query);
+        long start = MetricsRegistry.startTimer();
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        int count = 0;
+        String key = "countFeedback|" + query;
+        try {
+            count = readCombined(partitions, unloaded -> {
+                Integer cached = queryCache.get(key);
+                if (cached == null) {
+                    cached = bitmapIndex.count(query) + unloadedHistogram(unloaded, query).getCount();
+                    queryCache.put(key, query, cached);
+                }
+                return cached;
+            });
+            return count;
+        } finally {
+            MetricsRegistry.stopTimer("repository.countFeedback", start);
+            commitQueryEvent(event, "countFeedback", query, count);
+        }
+    }
+    
+    /**
+     * Rating distribution (1-5) for feedback matching a structured query
+     */
+    public RatingHistogram getRatingDistribution(FeedbackQuery query) {
+        if (query != null && query.getUsn() != null) {
+            return RatingHistogram.ofFeedback(getFeedback(query));
+        }
+        List<FeedbackPartition> partitions = summarizable(query);
+        long start = MetricsRegistry.startTimer();
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        String key = "ratingCounts|" + query;
+        try {
+            return readCombined(partitions, unloaded -> {
+                // Histograms are immutable, so a cached one is handed out as is
+                RatingHistogram histogram = queryCache.get(key);
+                if (histogram == null) {
+                    histogram = bitmapIndex.ratingHistogram(query).merge(unloadedHistogram(unloaded, query));
+                    queryCache.put(key, query, histogram);
+                }
+                return histogram;
+            });
+        } finally {
+            MetricsRegistry.stopTimer("repository.ratingDistribution", start);
+            commitQueryEvent(event, "getRatingDistribution", query, 5);
+        }
+    }
+    
+    /**
+     * Ratings matching a query in partitions left on disk, from their summary;
+     * the partitions were chosen by summarizable(query)
+     */
+    private static RatingHistogram unloadedHistogram(PartitionSummary unloaded, FeedbackQuery query) {
+        if (unloaded.isEmpty()) {
+            return RatingHistogram.EMPTY;
+        }
+        if (query == null) {
+            return unloaded.getOverallSketches().get(ALL);
+        }
+        RatingHistogram histogram;
+        if (query.getSubjectName() != null) {
+            histogram = unloaded.getSubjectSketches().get(query.getSubjectName().toLowerCase());
+        } else if (query.getFacultyId() != null) {
+            histogram = unloaded.getFacultySketches().get(query.getFacultyId().toUpperCase());
+        } else {
+            histogram = unloaded.getOverallSketches().get(ALL);
+        }
+        return histogram.between(query.getMinRating() == null ? RatingHistogram.MIN_RATING : query.getMinRating(),
+            query.getMaxRating() == null ? RatingHistogram.MAX_RATING : query.getMaxRating());
+    }
+    
+    /**
+     * Average rating for feedback matching a structured query, 0.0 when none match
+     */
+    public double getAverageRating(FeedbackQuery query) {
+        return getRatingDistribution(query).getMean();
+    }
+    
+    /**
+     * Feedback matching a range filter, e.g. ratings 1-2 in semesters 3-5
+     */
+    public List<Feedback> getFeedback(RangeFilter filter) {
+        return filter(filter.toString(), filter::matches);
+    }
+    
+    /**
+     * Count feedback matching a range filter from the packed rating columns
+     */
+    public int countFeedback(RangeFilter filter) {
+        return scanColumns("countFeedback", filter, 
+            unloaded -> ratingColumns.count(filter) + unloaded.getCount(), count -> count);
+    }
+    
+    /**
+     * Rating distribution for feedback matching a range filter
+     */
+    public RatingHistogram getRatingDistribution(RangeFilter filter) {
+        return scanColumns("getRatingDistribution", filter, 
+            unloaded -> ratingColumns.histogram(filter).merge(unloaded), RatingHistogram::getCount);
+    }
+    
+    /**
+     * Average rating for feedback matching a range filter, 0.0 when none match
+     */
+    public double getAverageRating(RangeFilter filter) {
+        long[] countAndSum = scanColumns("getAverageRating", filter,
+            unloaded -> new long[] {ratingColumns.count(filter) + unloaded.getCount(), 
+                ratingColumns.sumRatings(filter) + unloaded.getSum()},
+            parts -> (int) parts[0]);
+        return countAndSum[0] == 0 ? 0.0 : (double) countAndSum[1] / countAndSum[0];
+    }
+    
+    /**
+     * Run a column scan under the read lock with the usual timing and event. The
+     * scan is given the matching ratings of partitions left on disk, taken from their
+     * summaries; resultSize tells the event how many rows the result matched.
+     */
+    private <T> T scanColumns(String method, RangeFilter filter, Function<RatingHistogram, T> scan, 
+                              ToIntFunction<T> resultSize) {
+        List<FeedbackPartition> partitions = summarizable(filter);
+        long start = MetricsRegistry.startTimer();
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        int[] scanned = new int[1];
+        T result = null;
+        try {
+            result = readCombined(partitions, unloaded -> {
+                scanned[0] = ratingColumns.size();
+                return scan.apply(unloaded.getOverallSketches().get(ALL)
+                    .between(filter.getMinRating(), filter.getMaxRating()));
+            });
+            return result;
+        } finally {
+            MetricsRegistry.stopTimer("repository.columnScan", start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.predicate = filter.toString();
+                event.resultSize = result == null ? 0 : resultSize.applyAsInt(result);
+                event.rowsScanned = scanned[0];
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Turn selected rows into Feedback objects, applying checks the bitmaps cannot answer
+     */
+    private List<Feedback> materialize(RowBitmap rows, FeedbackQuery query) {
+        List<Feedback> results = new ArrayList<>(rows.cardinality());
+        boolean checkUsn = query != null && query.getUsn() != null;
+        rows.forEach(row -> {
+            Feedback fb = feedbackList.get(row);
+            if (!checkUsn || fb.getUsn().equalsIgnoreCase(query.getUsn())) {
+                results.add(fb);
+            }
+        });
+        return results;
+    }
+    
+    /**
+     * Search comments for words and "quoted phrases", optionally narrowed by a structured query
+     */
+    public List<Feedback> searchComments(String text, FeedbackQuery query) {
+        ensureLoadedForRead(query);
+        ensureCommentIndex();
+        long start = MetricsRegistry.startTimer();
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        List<Feedback> results = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] rows = commentIndex.search(text, row -> feedbackList.get(row).getComments());
+            RowBitmap allowed = bitmapIndex.select(query);
+            for (int row : rows) {
+                Feedback fb = feedbackList.get(row);
+                if (allowed.contains(row) && (query == null || query.getUsn() == null
+                        || fb.getUsn().equalsIgnoreCase(query.getUsn()))) {
+                    results.add(fb);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+            MetricsRegistry.stopTimer("repository.searchComments", start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = "searchComments";
+                event.predicate = "text=\"" + text + "\" " + (query == null ? "" : query.toString());
+                event.resultSize = results.size();
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Build the comment index on first use, reading every comment once
+     */
+    private void ensureCommentIndex() {
+        if (commentIndex != null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (commentIndex == null) {
+                long start = MetricsRegistry.startTimer();
+                CommentIndex index = new CommentIndex();
+                for (int row = 0; row < feedbackList.size(); row++) {
+                    index.add(row, feedbackList.get(row).getComments());
+                }
+                commentIndex = index;
+                MetricsRegistry.stopTimer("repository.buildCommentIndex", start);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Search comments across all feedback
+     */
+    public List<Feedback> searchComments(String text) {
+        return searchComments(text, null);
     }
     
     /**
      * Get feedback by USN
      */
     public List<Feedback> getFeedbackByUSN(String usn) {
-        return feedbackList.stream()
-            .filter(fb -> fb.getUsn().equalsIgnoreCase(usn))
-            .collect(Collectors.toList());
+        return filter("usn=" + usn, fb -> fb.getUsn().equalsIgnoreCase(usn));
     }
     
     /**
      * Get feedback by semester
      */
     public List<Feedback> getFeedbackBySemester(int semester) {
-        return feedbackList.stream()
-            .filter(fb -> fb.getSemester() == semester)
-            .collect(Collectors.toList());
+        return getFeedback(new FeedbackQuery().semester(semester));
     }
     
     /**
      * Get feedback by subject
      */
     public List<Feedback> getFeedbackBySubject(String subjectName) {
-        return feedbackList.stream()
-            .filter(fb -> fb.getSubjectName().equalsIgnoreCase(subjectName))
-            .collect(Collectors.toList());
+        return getFeedback(new FeedbackQuery().subjectName(subjectName));
     }
     
     /**
      * Get feedback by faculty
      */
     public List<Feedback> getFeedbackByFaculty(String facultyId) {
-        return feedbackList.stream()
-            .filter(fb -> fb.getFacultyId().equalsIgnoreCase(facultyId))
-            .collect(Collectors.toList());
+        return getFeedback(new FeedbackQuery().facultyId(facultyId));
     }
     
     /**
      * Get feedback by year
      */
     public List<Feedback> getFeedbackByYear(int year) {
-        return feedbackList.stream()
-            .filter(fb -> fb.getYear() == year)
-            .collect(Collectors.toList());
+        return getFeedback(new FeedbackQuery().year(year));
     }
     
     /**
-     * Get feedback count
+     * Get feedback count, taking partitions not yet loaded from the manifest
      */
     public int getFeedbackCount() {
-        return feedbackList.size();
+        lock.readLock().lock();
+        try {
+            return feedbackList.size() + store.countRows(loadedPartitions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Collect matching feedback under the read lock
+     */
+    private List<Feedback> filter(String description, Predicate<Feedback> predicate) {
+        ensureLoadedForRead(store.getPartitions());
+        long start = MetricsRegistry.startTimer();
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        List<Feedback> results = null;
+        lock.readLock().lock();
+        try {
+            results = feedbackList.stream()
+                .filter(predicate)
+                .collect(Collectors.toList());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+            MetricsRegistry.stopTimer("repository.scan", start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = "scan";
+                event.predicate = description;
+                event.resultSize = results == null ? 0 : results.size();
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Fill in and commit a Flight Recorder query event if it is enabled
+     */
+    private static void commitQueryEvent(RepositoryQueryEvent event, String method, 
+                                         FeedbackQuery query, int resultSize) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.predicate = query == null ? "all" : query.toString();
+            event.resultSize = resultSize;
+            event.commit();
+        }
     }
     
     /**
      * Calculate average rating for a subject
      */
     public double getAverageRatingBySubject(String subjectName) {
-        List<Feedback> subjectFeedback = getFeedbackBySubject(subjectName);
-        if (subjectFeedback.isEmpty()) {
-            return 0.0;
-        }
-        
-        double sum = subjectFeedback.stream()
-            .mapToInt(Feedback::getRating)
-            .sum();
-        
-        return sum / subjectFeedback.size();
+        return readCombined(store.getPartitions(), 
+            unloaded -> average(subjectLeaderboard, unloaded.getSubjectTotals(), subjectName.toLowerCase()));
     }
     
     /**
      * Calculate average rating for a faculty
      */
     public double getAverageRatingByFaculty(String facultyId) {
-        List<Feedback> facultyFeedback = getFeedbackByFaculty(facultyId);
-        if (facultyFeedback.isEmpty()) {
-            return 0.0;
+        return readCombined(store.getPartitions(), 
+            unloaded -> average(facultyLeaderboard, unloaded.getFacultyTotals(), facultyId.toUpperCase()));
+    }
+    
+    /**
+     * Average over the loaded rows' totals and those of partitions left on disk, 0.0 if unknown
+     */
+    private static double average(Leaderboard loaded, Leaderboard unloaded, String key) {
+        int count = loaded.count(key) + unloaded.count(key);
+        return count == 0 ? 0.0 : (double) (loaded.sum(key) + unloaded.sum(key)) / count;
+    }
+    
+    /**
+     * Rating histogram (median, quartiles, distribution) for a faculty member
+     */
+    public RatingHistogram getFacultyRatingHistogram(String facultyId) {
+        return getFacultyRatingHistogram(facultyId, null, null);
+    }
+    
+    /**
+     * Rating histogram for a faculty member over submissions between two dates
+     * (inclusive); a null bound is open
+     */
+    public RatingHistogram getFacultyRatingHistogram(String facultyId, LocalDate from, LocalDate to) {
+        return readSketch(() -> facultySketches, PartitionSummary::getFacultySketches, facultyId.toUpperCase(), 
+            from, to);
+    }
+    
+    /**
+     * Rating histogram (median, quartiles, distribution) for a subject
+     */
+    public RatingHistogram getSubjectRatingHistogram(String subjectName) {
+        return getSubjectRatingHistogram(subjectName, null, null);
+    }
+    
+    /**
+     * Rating histogram for a subject over submissions between two dates (inclusive);
+     * a null bound is open
+     */
+    public RatingHistogram getSubjectRatingHistogram(String subjectName, LocalDate from, LocalDate to) {
+        return readSketch(() -> subjectSketches, PartitionSummary::getSubjectSketches, subjectName.toLowerCase(), 
+            from, to);
+    }
+    
+    /**
+     * Rating histogram for all feedback submitted between two dates (inclusive);
+     * a null bound is open
+     */
+    public RatingHistogram getRatingHistogram(LocalDate from, LocalDate to) {
+        return readSketch(() -> overallSketches, PartitionSummary::getOverallSketches, ALL, from, to);
+    }
+    
+    /**
+     * Submission volume and ratings of a faculty member per hour, day, week or term
+     * @return histogram per bucket, keyed and ordered by bucket (see TimeBucket.label)
+     */
+    public NavigableMap<Long, RatingHistogram> getFacultyTrend(String facultyId, TimeBucket bucket,
+                                                               LocalDate from, LocalDate to) {
+        return readTrend(() -> facultySketches, PartitionSummary::getFacultySketches, facultyId.toUpperCase(), 
+            bucket, from, to);
+    }
+    
+    /**
+     * Submission volume and ratings of a subject per hour, day, week or term
+     */
+    public NavigableMap<Long, RatingHistogram> getSubjectTrend(String subjectName, TimeBucket bucket,
+                                                               LocalDate from, LocalDate to) {
+        return readTrend(() -> subjectSketches, PartitionSummary::getSubjectSketches, subjectName.toLowerCase(), 
+            bucket, from, to);
+    }
+    
+    /**
+     * Submission volume and ratings of all feedback per hour, day, week or term
+     */
+    public NavigableMap<Long, RatingHistogram> getTrend(TimeBucket bucket, LocalDate from, LocalDate to) {
+        return readTrend(() -> overallSketches, PartitionSummary::getOverallSketches, ALL, bucket, from, to);
+    }
+    
+    // Indexes are read through a supplier because a checkpoint restore replaces them;
+    // partitions left on disk contribute the same index from their summary
+    private RatingHistogram readSketch(Supplier<RatingSketchIndex> index, 
+                                       Function<PartitionSummary, RatingSketchIndex> unloadedIndex,
+                                       String key, LocalDate from, LocalDate to) {
+        return readCombined(partitionsBetween(from, to), unloaded -> 
+            sketch(index.get(), key, from, to).merge(sketch(unloadedIndex.apply(unloaded), key, from, to)));
+    }
+    
+    private static RatingHistogram sketch(RatingSketchIndex index, String key, LocalDate from, LocalDate to) {
+        return from == null && to == null ? index.get(key) : index.get(key, from, to);
+    }
+    
+    private NavigableMap<Long, RatingHistogram> readTrend(Supplier<RatingSketchIndex> index,
+                                                          Function<PartitionSummary, RatingSketchIndex> unloadedIndex,
+                                                          String key, TimeBucket bucket, LocalDate from, LocalDate to) {
+        return readCombined(partitionsBetween(from, to), unloaded -> {
+            NavigableMap<Long, RatingHistogram> trend = index.get().trend(key, bucket, from, to);
+            unloadedIndex.apply(unloaded).trend(key, bucket, from, to)
+                .forEach((id, histogram) -> trend.merge(id, histogram, RatingHistogram::merge));
+            return trend;
+        });
+    }
+    
+    /**
+     * Approximate number of distinct students who rated a subject
+     */
+    public long estimateDistinctStudentsBySubject(String subjectName) {
+        return readCombined(store.getPartitions(), unloaded -> 
+            participation.estimateBySubject(subjectName, unloaded.getParticipation()));
+    }
+    
+    /**
+     * Approximate number of distinct students who rated a faculty member
+     */
+    public long estimateDistinctStudentsByFaculty(String facultyId) {
+        return readCombined(store.getPartitions(), unloaded -> 
+            participation.estimateByFaculty(facultyId, unloaded.getParticipation()));
+    }
+    
+    /**
+     * Approximate number of distinct students who submitted feedback in a semester
+     */
+    public long estimateDistinctStudentsBySemester(int semester) {
+        return readCombined(store.getPartitions(new FeedbackQuery().semester(semester)), 
+            unloaded -> participation.estimateBySemester(semester, unloaded.getParticipation()));
+    }
+    
+    /**
+     * Approximate number of distinct students who rated at least one of the subjects
+     */
+    public long estimateDistinctStudentsAcrossSubjects(Collection<String> subjectNames) {
+        return readCombined(store.getPartitions(), unloaded -> 
+            participation.estimateAcrossSubjects(subjectNames, unloaded.getParticipation()));
+    }
+    
+    /**
+     * Exact number of distinct students among entries matching a query. Reads
+     * every matching row, so it is meant for checking the estimates.
+     */
+    public int countDistinctStudents(FeedbackQuery query) {
+        ensureLoadedForRead(query);
+        lock.readLock().lock();
+        try {
+            Set<String> students = new HashSet<>();
+            for (Feedback fb : materialize(bitmapIndex.select(query), query)) {
+                students.add(fb.getUsn().toUpperCase());
+            }
+            return students.size();
+        } finally {
+            lock.readLock().unlock();
         }
-        
-        double sum = facultyFeedback.stream()
-            .mapToInt(Feedback::getRating)
-            .sum();
-        
-        return sum / facultyFeedback.size();
+    }
+    
+    /**
+     * Highest-rated faculty members, best first
+     */
+    public List<Leaderboard.Standing> getTopFaculty(int k) {
+        return readCombined(store.getPartitions(), 
+            unloaded -> combined(facultyLeaderboard, unloaded.getFacultyTotals()).top(k));
+    }
+    
+    /**
+     * Lowest-rated faculty members, worst first
+     */
+    public List<Leaderboard.Standing> getBottomFaculty(int k) {
+        return readCombined(store.getPartitions(), 
+            unloaded -> combined(facultyLeaderboard, unloaded.getFacultyTotals()).bottom(k));
+    }
+    
+    /**
+     * Highest-rated subjects, best first
+     */
+    public List<Leaderboard.Standing> getTopSubjects(int k) {
+        return readCombined(store.getPartitions(), 
+            unloaded -> combined(subjectLeaderboard, unloaded.getSubjectTotals()).top(k));
+    }
+    
+    /**
+     * Lowest-rated subjects, worst first
+     */
+    public List<Leaderboard.Standing> getBottomSubjects(int k) {
+        return readCombined(store.getPartitions(), 
+            unloaded -> combined(subjectLeaderboard, unloaded.getSubjectTotals()).bottom(k));
+    }
+    
+    /**
+     * Copy of the faculty leaderboard's running totals, for merging across shards
+     */
+    public Leaderboard getFacultyTotals() {
+        return readCombined(store.getPartitions(), unloaded -> copy(facultyLeaderboard, unloaded.getFacultyTotals()));
+    }
+    
+    /**
+     * Copy of the subject leaderboard's running totals, for merging across shards
+     */
+    public Leaderboard getSubjectTotals() {
+        return readCombined(store.getPartitions(), unloaded -> copy(subjectLeaderboard, unloaded.getSubjectTotals()));
+    }
+    
+    /**
+     * The loaded rows' leaderboard, or a copy with the totals of partitions left on
+     * disk added when there are any
+     */
+    private static Leaderboard combined(Leaderboard loaded, Leaderboard unloaded) {
+        return unloaded.isEmpty() ? loaded : copy(loaded, unloaded);
+    }
+    
+    private static Leaderboard copy(Leaderboard loaded, Leaderboard unloaded) {
+        Leaderboard totals = new Leaderboard(LEADERBOARD_MIN_RATINGS);
+        totals.mergeFrom(loaded);
+        totals.mergeFrom(unloaded);
+        return totals;
+    }
+    
+    /**
+     * Minimum number of ratings an entity needs to be ranked
+     */
+    public int getLeaderboardMinRatings() {
+        return LEADERBOARD_MIN_RATINGS;
     }
     
     /**
      * Get unique subjects
      */
     public List<String> getUniqueSubjects() {
-        return feedbackList.stream()
-            .map(Feedback::getSubjectName)
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
+        return readCombined(store.getPartitions(), 
+            unloaded -> union(changeTracker.getSubjectNames(), unloaded.getSubjectNames()));
     }
     
     /**
      * Get unique faculty members
      */
     public List<String> getUniqueFaculty() {
-        return feedbackList.stream()
-            .map(fb -> fb.getFacultyName() + " (" + fb.getFacultyId() + ")")
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
+        return readCombined(store.getPartitions(), 
+            unloaded -> union(changeTracker.getFacultyLabels(), unloaded.getFacultyLabels()));
     }
     
     /**
-     * Get rating distribution for a subject
+     * Sorted names from the loaded rows and from partitions left on disk
      */
-    public Map<Integer, Integer> getRatingDistributionBySubject(String subjectName) {
-        Map<Integer, Integer> distribution = new HashMap<>();
-        for (int i = 1; i <= 5; i++) {
-            distribution.put(i, 0);
+    private static List<String> union(List<String> loaded, Set<String> unloaded) {
+        if (unloaded.isEmpty()) {
+            return loaded;
         }
-        
-        List<Feedback> subjectFeedback = getFeedbackBySubject(subjectName);
-        for (Feedback fb : subjectFeedback) {
-            int rating = fb.getRating();
-            distribution.put(rating, distribution.get(rating) + 1);
+        TreeSet<String> names = new TreeSet<>(loaded);
+        names.addAll(unloaded);
+        return new ArrayList<>(names);
+    }
+    
+    /**
+     * Get query cache statistics
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+    
+    /**
+     * The dashboard of this repository, shared so its cached sections serve every report
+     */
+    synchronized HtmlDashboardReport getDashboard() {
+        if (dashboard == null) {
+            dashboard = new HtmlDashboardReport(this);
         }
-        
-        return distribution;
+        return dashboard;
+    }
+    
+    /**
+     * Get rating distribution for a subject
+     */
+    public RatingHistogram getRatingDistributionBySubject(String subjectName) {
+        return getRatingDistribution(new FeedbackQuery().subjectName(subjectName));
     }
     
     /**
      * Get rating distribution for a faculty
      */
-    public Map<Integer, Integer> getRatingDistributionByFaculty(String facultyId) {
-        Map<Integer, Integer> distribution = new HashMap<>();
-        for (int i = 1; i <= 5; i++) {
-            distribution.put(i, 0);
-        }
-        
-        List<Feedback> facultyFeedback = getFeedbackByFaculty(facultyId);
-        for (Feedback fb : facultyFeedback) {
-            int rating = fb.getRating();
-            distribution.put(rating, distribution.get(rating) + 1);
-        }
-        
-        return distribution;
+    public RatingHistogram getRatingDistributionByFaculty(String facultyId) {
+        return getRatingDistribution(new FeedbackQuery().facultyId(facultyId));
     }
 }
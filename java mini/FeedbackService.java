@@ -7,48 +7,153 @@ import java.util.*;
 public class FeedbackService {
     private FeedbackRepository repository;
     private SubjectManager subjectManager;
+    private DuplicatePolicy duplicatePolicy;
     
     public FeedbackService() {
         this.repository = new FeedbackRepository();
         this.subjectManager = new SubjectManager();
+        // e.g. java -Dfeedback.duplicatePolicy=REPLACE FeedbackSystemApp
+        this.duplicatePolicy = DuplicatePolicy.fromString(
+            System.getProperty("feedback.duplicatePolicy", "REJECT"));
+        // Pick up feedback saved by another running instance, e.g. the CLI and GUI side by side
+        if (Boolean.parseBoolean(System.getProperty("feedback.watch", "true"))) {
+            try {
+                repository.startWatching();
+            } catch (DataStorageException e) {
+                System.err.println("Warning: " + e.getMessage());
+            }
+        }
+        // Save the indexes at exit so the next start can skip rebuilding them
+        if (Boolean.parseBoolean(System.getProperty("feedback.checkpoint", "true"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    repository.checkpoint();
+                } catch (DataStorageException e) {
+                    System.err.println("Warning: " + e.getMessage());
+                }
+            }, "feedback-checkpoint"));
+        }
     }
     
     /**
      * Submit feedback with validation
+     * @return true if the feedback was stored, false if the duplicate policy kept a
+     *         newer entry for the same subject instead
      */
-    public void submitFeedback(String usn, String studentName, int year, int semester,
+    public boolean submitFeedback(String usn, String studentName, int year, int semester,
                               String subjectCode, String subjectName, String facultyId,
                               String facultyName, int rating, String comments) 
                               throws InvalidInputException, DataStorageException {
-        
-        // Validate inputs
-        InputValidator.validateUSN(usn);
-        InputValidator.validateYear(year);
-        InputValidator.validateSemester(semester);
-        InputValidator.validateSubjectName(subjectName);
-        InputValidator.validateFacultyId(facultyId);
-        InputValidator.validateRating(rating);
-        
-        // Sanitize inputs
-        usn = InputValidator.sanitizeString(usn).toUpperCase();
+        long start = MetricsRegistry.startTimer();
+        try {
+            // Validate inputs
+            int error = InputValidator.validateSubmission(usn, year, semester, subjectName, facultyId, rating);
+            if (error != InputValidator.OK) {
+                throw InputValidator.exceptionFor(error, usn, year, semester, subjectName, facultyId, rating);
+            }
+            
+            // Create and save feedback (the repository enforces uniqueness atomically)
+            Feedback feedback = sanitize(usn, studentName, year, semester, subjectCode,
+                                         subjectName, facultyId, facultyName, rating, comments);
+            
+            boolean stored = repository.addFeedback(feedback, duplicatePolicy);
+            if (stored) {
+                MetricsRegistry.increment("feedback.submitted");
+            }
+            return stored;
+        } catch (DuplicateFeedbackException e) {
+            MetricsRegistry.increment("feedback.duplicatesRejected");
+            throw e;
+        } catch (InvalidInputException e) {
+            MetricsRegistry.increment("feedback.validationFailures");
+            throw e;
+        } finally {
+            MetricsRegistry.stopTimer("service.submitFeedback", start);
+        }
+    }
+    
+    /**
+     * Submit feedback for several subjects at once, e.g. a whole semester's form.
+     * Every entry is validated first; if any is invalid nothing is written. Valid
+     * batches are stored together with one save per affected partition.
+     * @return one result per entry, in submission order
+     */
+    public List<SubmissionResult> submitFeedbackBatch(List<Feedback> entries) throws DataStorageException {
+        long start = MetricsRegistry.startTimer();
+        try {
+            List<Feedback> sanitized = new ArrayList<>(entries.size());
+            SubmissionResult[] invalid = new SubmissionResult[entries.size()];
+            boolean anyInvalid = false;
+            for (int i = 0; i < entries.size(); i++) {
+                Feedback fb = entries.get(i);
+                int error = InputValidator.validateSubmission(fb.getUsn(), fb.getYear(), fb.getSemester(),
+                    fb.getSubjectName(), fb.getFacultyId(), fb.getRating());
+                if (error != InputValidator.OK) {
+                    invalid[i] = SubmissionResult.invalid(fb, error);
+                    anyInvalid = true;
+                    continue;
+                }
+                sanitized.add(sanitize(fb.getUsn(), fb.getStudentName(), fb.getYear(), fb.getSemester(),
+                    fb.getSubjectCode(), fb.getSubjectName(), fb.getFacultyId(), fb.getFacultyName(),
+                    fb.getRating(), fb.getComments()));
+            }
+            
+            if (anyInvalid) {
+                List<SubmissionResult> results = new ArrayList<>(entries.size());
+                for (int i = 0; i < entries.size(); i++) {
+                    results.add(invalid[i] != null ? invalid[i] : SubmissionResult.notSaved(entries.get(i)));
+                    if (invalid[i] != null) {
+                        MetricsRegistry.increment("feedback.validationFailures");
+                    }
+                }
+                return results;
+            }
+            
+            List<SubmissionResult> results = repository.addFeedbackBatch(sanitized, duplicatePolicy);
+            for (SubmissionResult result : results) {
+                if (result.isSaved()) {
+                    MetricsRegistry.increment("feedback.submitted");
+                } else if (result.getStatus() == SubmissionResult.Status.DUPLICATE) {
+                    MetricsRegistry.increment("feedback.duplicatesRejected");
+                }
+            }
+            return results;
+        } finally {
+            MetricsRegistry.stopTimer("service.submitFeedbackBatch", start);
+        }
+    }
+    
+    /**
+     * Build a feedback entry from trimmed, normalised inputs
+     */
+    private static Feedback sanitize(String usn, String studentName, int year, int semester,
+                                     String subjectCode, String subjectName, String facultyId,
+                                     String facultyName, int rating, String comments) {
         studentName = InputValidator.sanitizeString(studentName);
-        subjectCode = InputValidator.sanitizeString(subjectCode).toUpperCase();
-        subjectName = InputValidator.sanitizeString(subjectName);
-        facultyId = InputValidator.sanitizeString(facultyId).toUpperCase();
-        facultyName = InputValidator.sanitizeString(facultyName);
-        comments = InputValidator.sanitizeString(comments);
-        
         // Set default for anonymous
         if (studentName.isEmpty()) {
             studentName = "Anonymous";
         }
-        
-        // Create and save feedback
-        Feedback feedback = new Feedback(usn, studentName, year, semester,
-                                        subjectCode, subjectName, facultyId,
-                                        facultyName, rating, comments);
-        
-        repository.addFeedback(feedback);
+        return new Feedback(InputValidator.sanitizeString(usn).toUpperCase(), studentName, year, semester,
+                            InputValidator.sanitizeString(subjectCode).toUpperCase(),
+                            InputValidator.sanitizeString(subjectName),
+                            InputValidator.sanitizeString(facultyId).toUpperCase(),
+                            InputValidator.sanitizeString(facultyName), rating,
+                            InputValidator.sanitizeString(comments));
+    }
+    
+    /**
+     * Get how repeated submissions are handled
+     */
+    public DuplicatePolicy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+    
+    /**
+     * Set how repeated submissions are handled
+     */
+    public void setDuplicatePolicy(DuplicatePolicy duplicatePolicy) {
+        this.duplicatePolicy = duplicatePolicy;
     }
     
     /**
@@ -99,6 +204,8 @@ public class FeedbackService {
         double avgRating = repository.getAverageRatingByFaculty(facultyId);
         System.out.println("Total Feedback Entries: " + feedbackList.size());
         System.out.println("Average Rating: " + String.format("%.2f", avgRating) + " / 5.0");
+        printSpread(repository.getFacultyRatingHistogram(facultyId));
+        System.out.println("Students Participating: ~" + repository.estimateDistinctStudentsByFaculty(facultyId));
         System.out.println("=".repeat(60));
         
         // Display individual feedback
@@ -121,33 +228,42 @@ public class FeedbackService {
         System.out.println("\n========== SUBJECT REPORT: " + subjectName + " ==========");
         
         double avgRating = repository.getAverageRatingBySubject(subjectName);
-        Map<Integer, Integer> distribution = repository.getRatingDistributionBySubject(subjectName);
+        RatingHistogram distribution = repository.getRatingDistributionBySubject(subjectName);
         
         System.out.println("Total Feedback Entries: " + feedbackList.size());
         System.out.println("Average Rating: " + String.format("%.2f", avgRating) + " / 5.0");
+        printSpread(distribution);
+        System.out.println("Students Participating: ~" + repository.estimateDistinctStudentsBySubject(subjectName));
         System.out.println("\nRating Distribution:");
         for (int rating = 5; rating >= 1; rating--) {
-            int count = distribution.get(rating);
-            double percentage = (count * 100.0) / feedbackList.size();
+            int count = distribution.getCount(rating);
             System.out.printf("  %d Star: %3d (%5.1f%%) %s\n", 
-                rating, count, percentage, getBar(count, feedbackList.size()));
+                rating, count, distribution.getPercentage(rating), getBar(count, distribution.getCount()));
         }
         System.out.println("=".repeat(60));
     }
     
+    /**
+     * Print median and quartiles, which show a split that the average hides
+     */
+    private static void printSpread(RatingHistogram histogram) {
+        System.out.println(String.format("Median Rating: %.1f (middle half %.1f - %.1f)",
+            histogram.getMedian(), histogram.getLowerQuartile(), histogram.getUpperQuartile()));
+    }
+    
     /**
      * Generate overall summary report
      */
     public void generateOverallReport() {
-        List<Feedback> allFeedback = repository.getAllFeedback();
+        int totalFeedback = repository.getFeedbackCount();
         
-        if (allFeedback.isEmpty()) {
+        if (totalFeedback == 0) {
             System.out.println("\nNo feedback available in the system.");
             return;
         }
         
         System.out.println("\n========== OVERALL FEEDBACK SUMMARY ==========");
-        System.out.println("Total Feedback Entries: " + allFeedback.size());
+        System.out.println("Total Feedback Entries: " + totalFeedback);
         
         List<String> subjects = repository.getUniqueSubjects();
         System.out.println("Number of Subjects: " + subjects.size());
@@ -158,10 +274,18 @@ public class FeedbackService {
         System.out.println("\n--- Subject-wise Average Ratings ---");
         for (String subject : subjects) {
             double avgRating = repository.getAverageRatingBySubject(subject);
-            int count = repository.getFeedbackBySubject(subject).size();
+            int count = repository.countFeedback(new FeedbackQuery().subjectName(subject));
             System.out.printf("%-40s : %.2f / 5.0 (%d entries)\n", subject, avgRating, count);
         }
         
+        System.out.println("\n--- Students Participating by Semester (approx.) ---");
+        for (int semester = 1; semester <= 8; semester++) {
+            long students = repository.estimateDistinctStudentsBySemester(semester);
+            if (students > 0) {
+                System.out.printf("Semester %d : ~%d students\n", semester, students);
+            }
+        }
+        
         System.out.println("=".repeat(60));
     }
     
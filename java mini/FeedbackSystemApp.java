@@ -10,7 +10,10 @@ public class FeedbackSystemApp {
     private static Scanner scanner;
     
     public static void main(String[] args) {
+        FlightRecorderSupport.startIfRequested(args);
         feedbackService = new FeedbackService();
+        DashboardServer.startIfRequested(args, feedbackService.getRepository());
+        ReplicationServer.startIfRequested(args, feedbackService.getRepository());
         scanner = new Scanner(System.in);
         
         System.out.println("╔═══════════════════════════════════════════════════════════╗");
@@ -137,6 +140,9 @@ public class FeedbackSystemApp {
                         feedbackService.viewStudentFeedback(student.getUsn());
                         break;
                     case 3:
+                        submitSemesterFeedback(student);
+                        break;
+                    case 4:
                         System.out.println("\n✓ Logging out...");
                         return;
                     default:
@@ -202,7 +208,7 @@ public class FeedbackSystemApp {
             String comments = scanner.nextLine().trim();
             
             // Submit feedback
-            feedbackService.submitFeedback(
+            boolean stored = feedbackService.submitFeedback(
                 student.getUsn(),
                 student.getUserName(),
                 student.getYear(),
@@ -215,7 +221,11 @@ public class FeedbackSystemApp {
                 comments
             );
             
-            System.out.println("\n✓ Feedback submitted successfully!");
+            if (stored) {
+                System.out.println("\n✓ Feedback submitted successfully!");
+            } else {
+                System.out.println("\n⚠ Newer feedback for this subject is already stored; submission ignored.");
+            }
             
         } catch (InvalidInputException e) {
             System.out.println("\n❌ Validation Error: " + e.getMessage());
@@ -226,6 +236,77 @@ public class FeedbackSystemApp {
         }
     }
     
+    /**
+     * Submit feedback for every subject of the student's semester in one go
+     */
+    private static void submitSemesterFeedback(Student student) {
+        try {
+            System.out.println("\n====== SUBMIT FEEDBACK FOR ALL SUBJECTS ======");
+            
+            List<Subject> subjects = feedbackService.getSubjectManager()
+                                                    .getSubjectsForSemester(student.getSemester());
+            if (subjects.isEmpty()) {
+                System.out.println("\n❌ No subjects listed for semester " + student.getSemester());
+                return;
+            }
+            
+            List<Feedback> entries = new ArrayList<>();
+            for (Subject subject : subjects) {
+                System.out.println("\n--- " + subject.getSubjectCode() + " - " + subject.getSubjectName() + " ---");
+                
+                System.out.print("Enter faculty ID (blank to skip): ");
+                String facultyId = scanner.nextLine().trim().toUpperCase();
+                if (facultyId.isEmpty()) {
+                    continue;
+                }
+                
+                System.out.print("Enter faculty name: ");
+                String facultyName = scanner.nextLine().trim();
+                
+                // Ask again on a bad rating so the subjects already entered are kept
+                int rating = 0;
+                while (InputValidator.checkRating(rating) != InputValidator.OK) {
+                    System.out.print("Enter rating (1-5): ");
+                    try {
+                        rating = Integer.parseInt(scanner.nextLine().trim());
+                    } catch (NumberFormatException e) {
+                        rating = 0;
+                    }
+                    if (InputValidator.checkRating(rating) != InputValidator.OK) {
+                        System.out.println("❌ Rating must be a number from 1 to 5.");
+                    }
+                }
+                
+                System.out.print("Enter comments (optional): ");
+                String comments = scanner.nextLine().trim();
+                
+                entries.add(new Feedback(student.getUsn(), student.getUserName(), student.getYear(),
+                                         student.getSemester(), subject.getSubjectCode(),
+                                         subject.getSubjectName(), facultyId, facultyName, rating, comments));
+            }
+            
+            if (entries.isEmpty()) {
+                System.out.println("\nNo feedback entered.");
+                return;
+            }
+            
+            // All entries are stored together, or none are if any entry is rejected
+            List<SubmissionResult> results = feedbackService.submitFeedbackBatch(entries);
+            int saved = 0;
+            System.out.println();
+            for (SubmissionResult result : results) {
+                System.out.println((result.isSaved() ? "✓ " : "❌ ") + result);
+                if (result.isSaved()) {
+                    saved++;
+                }
+            }
+            System.out.println("\n" + saved + " of " + results.size() + " feedback entries saved.");
+            
+        } catch (DataStorageException e) {
+            System.out.println("\n❌ Storage Error: " + e.getMessage());
+        }
+    }
+    
     /**
      * Faculty login and operations
      */
@@ -333,10 +414,7 @@ public class FeedbackSystemApp {
         System.out.println("Number of Faculty: " + repository.getUniqueFaculty().size());
         
         if (repository.getFeedbackCount() > 0) {
-            double avgRating = repository.getAllFeedback().stream()
-                .mapToInt(Feedback::getRating)
-                .average()
-                .orElse(0.0);
+            double avgRating = repository.getAverageRating(new FeedbackQuery());
             System.out.printf("Overall Average Rating: %.2f / 5.0\n", avgRating);
         }
         
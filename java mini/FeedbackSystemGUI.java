@@ -440,7 +440,7 @@ public class FeedbackSystemGUI extends JFrame {
         JButton submitBtn = createStyledButton("Submit", SUCCESS_COLOR);
         submitBtn.addActionListener(e -> {
             try {
-                feedbackService.submitFeedback(
+                boolean stored = feedbackService.submitFeedback(
                     student.getUsn(),
                     student.getUserName(),
                     student.getYear(),
@@ -452,8 +452,14 @@ public class FeedbackSystemGUI extends JFrame {
                     ratingSlider.getValue(),
                     commentsArea.getText()
                 );
-                JOptionPane.showMessageDialog(dialog, "Feedback submitted successfully!", 
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                if (stored) {
+                    JOptionPane.showMessageDialog(dialog, "Feedback submitted successfully!", 
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(dialog, 
+                        "Newer feedback for this subject is already stored; submission ignored.", 
+                        "Not Saved", JOptionPane.INFORMATION_MESSAGE);
+                }
                 dialog.dispose();
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(dialog, "Error: " + ex.getMessage(), 
@@ -564,12 +570,12 @@ public class FeedbackSystemGUI extends JFrame {
     
     private void showFacultyStats(Faculty faculty) {
         FeedbackRepository repo = feedbackService.getRepository();
-        Map<Integer, Integer> dist = repo.getRatingDistributionByFaculty(faculty.getUserId());
+        RatingHistogram dist = repo.getRatingDistributionByFaculty(faculty.getUserId());
         
         StringBuilder text = new StringBuilder();
         text.append("Rating Distribution\n\n");
         for (int i = 5; i >= 1; i--) {
-            text.append(i).append(" Stars: ").append(dist.get(i)).append("\n");
+            text.append(i).append(" Stars: ").append(dist.getCount(i)).append("\n");
         }
         
         JOptionPane.showMessageDialog(this, text.toString(), "Statistics", 
@@ -615,6 +621,10 @@ public class FeedbackSystemGUI extends JFrame {
         statsBtn.addActionListener(e -> showSystemStats());
         content.add(statsBtn);
         
+        JButton leaderboardBtn = createStyledButton("Leaderboards", new Color(234, 179, 8));
+        leaderboardBtn.addActionListener(e -> showLeaderboards());
+        content.add(leaderboardBtn);
+        
         panel.add(content, BorderLayout.CENTER);
         
         JButton backBtn = createStyledButton("Logout", Color.GRAY);
@@ -661,7 +671,7 @@ public class FeedbackSystemGUI extends JFrame {
         
         if (subject != null) {
             double avg = feedbackService.getRepository().getAverageRatingBySubject(subject);
-            int count = feedbackService.getRepository().getFeedbackBySubject(subject).size();
+            int count = feedbackService.getRepository().countFeedback(new FeedbackQuery().subjectName(subject));
             
             String msg = String.format("Subject: %s\n\nTotal Feedback: %d\nAverage Rating: %.2f/5.0", 
                 subject, count, avg);
@@ -684,7 +694,7 @@ public class FeedbackSystemGUI extends JFrame {
         if (fac != null) {
             String facId = fac.substring(fac.lastIndexOf("(") + 1, fac.lastIndexOf(")"));
             double avg = feedbackService.getRepository().getAverageRatingByFaculty(facId);
-            int count = feedbackService.getRepository().getFeedbackByFaculty(facId).size();
+            int count = feedbackService.getRepository().countFeedback(new FeedbackQuery().facultyId(facId));
             
             String msg = String.format("Faculty: %s\n\nTotal Feedback: %d\nAverage Rating: %.2f/5.0", 
                 fac, count, avg);
@@ -693,6 +703,36 @@ public class FeedbackSystemGUI extends JFrame {
         }
     }
     
+    private void showLeaderboards() {
+        FeedbackRepository repo = feedbackService.getRepository();
+        StringBuilder text = new StringBuilder();
+        text.append("Leaderboards (minimum ").append(repo.getLeaderboardMinRatings())
+            .append(" ratings)\n\n");
+        appendStandings(text, "Lowest-rated Faculty", repo.getBottomFaculty(5));
+        appendStandings(text, "Top-rated Faculty", repo.getTopFaculty(5));
+        appendStandings(text, "Lowest-rated Subjects", repo.getBottomSubjects(5));
+        appendStandings(text, "Top-rated Subjects", repo.getTopSubjects(5));
+        
+        JTextArea area = new JTextArea(text.toString());
+        area.setEditable(false);
+        JScrollPane scroll = new JScrollPane(area);
+        scroll.setPreferredSize(new Dimension(600, 400));
+        JOptionPane.showMessageDialog(this, scroll, "Leaderboards", JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    private void appendStandings(StringBuilder text, String title, List<Leaderboard.Standing> standings) {
+        text.append(title).append("\n");
+        if (standings.isEmpty()) {
+            text.append("  Not enough ratings yet.\n");
+        }
+        for (int i = 0; i < standings.size(); i++) {
+            Leaderboard.Standing s = standings.get(i);
+            text.append(String.format("  %d. %s - %.2f/5.0 (%d)\n", 
+                i + 1, s.getLabel(), s.getAverage(), s.getCount()));
+        }
+        text.append("\n");
+    }
+    
     private void generateHTMLReport() {
         String filename = "feedback_analytics_dashboard.html";
         GraphGenerator.generateHTMLReport(feedbackService.getRepository(), filename);
@@ -802,6 +842,7 @@ public class FeedbackSystemGUI extends JFrame {
      * Main method - Application entry point
      */
     public static void main(String[] args) {
+        FlightRecorderSupport.startIfRequested(args);
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
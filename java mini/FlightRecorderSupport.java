@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * FlightRecorderSupport Class - Continuous Java Flight Recorder recording with a rolling buffer
+ * Start the application with --jfr (or -Dfeedback.jfr=true) to keep the last
+ * 30 minutes / 100 MB of events, including the feedback.* events, ready to dump
+ * after a slow incident.
+ * Demonstrates OOP concepts: Static Utility Class, Exception Handling
+ */
+public class FlightRecorderSupport {
+    private static final Duration MAX_AGE = Duration.ofMinutes(30);
+    private static final long MAX_SIZE_BYTES = 100L * 1024 * 1024;
+    
+    private static Recording recording;
+    
+    private FlightRecorderSupport() {
+    }
+    
+    /**
+     * Start continuous recording if requested by --jfr or -Dfeedback.jfr=true
+     */
+    public static void startIfRequested(String[] args) {
+        boolean requested = Boolean.getBoolean("feedback.jfr");
+        for (String arg : args) {
+            if (arg.equals("--jfr")) {
+                requested = true;
+            }
+        }
+        if (requested) {
+            startContinuous();
+        }
+    }
+    
+    /**
+     * Start a rolling on-disk recording using the JDK's default settings
+     */
+    public static synchronized void startContinuous() {
+        if (recording != null) {
+            return;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName("feedback-continuous");
+            r.setToDisk(true);
+            r.setMaxAge(MAX_AGE);
+            r.setMaxSize(MAX_SIZE_BYTES);
+            r.enable(PersistenceEvent.class);
+            r.enable(RepositoryQueryEvent.class);
+            r.enable(ReportPhaseEvent.class);
+            r.start();
+            recording = r;
+            System.out.println("Flight recording started (rolling " + MAX_AGE.toMinutes() + " min buffer).");
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println("Warning: Could not start flight recording: " + e.getMessage());
+        }
+    }
+    
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+    
+    /**
+     * Write the current rolling buffer to a .jfr file
+     */
+    public static synchronized void dump(String filename) throws DataStorageException {
+        if (recording == null) {
+            throw new DataStorageException("WRITE", filename, 
+                "Flight recording is not running. Start the application with --jfr");
+        }
+        try {
+            recording.dump(Paths.get(filename));
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", filename, "Failed to dump flight recording", e);
+        }
+    }
+}
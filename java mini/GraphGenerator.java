@@ -1,4 +1,5 @@
 import java.io.*;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -21,6 +22,8 @@ public class GraphGenerator {
             return;
         }
         
+        ReportPhaseEvent phase = beginPhase();
+        
         // Find max subject name length for alignment
         int maxNameLength = subjects.stream()
             .mapToInt(String::length)
@@ -29,7 +32,7 @@ public class GraphGenerator {
         
         for (String subject : subjects) {
             double avgRating = repository.getAverageRatingBySubject(subject);
-            int count = repository.getFeedbackBySubject(subject).size();
+            int count = repository.countFeedback(new FeedbackQuery().subjectName(subject));
             
             String subjectDisplay = String.format("%-" + maxNameLength + "s", 
                                                  truncate(subject, maxNameLength));
@@ -42,16 +45,17 @@ public class GraphGenerator {
         System.out.println("\n" + "=".repeat(70));
         System.out.println("Note: Each block (█) represents 0.1 rating point");
         System.out.println("=".repeat(70));
+        endPhase(phase, "console", "subjectBarChart", subjects.size());
     }
     
     /**
      * Generate console-based pie chart for rating distribution
      */
-    public static void generateRatingDistributionPieChart(Map<Integer, Integer> distribution, 
+    public static void generateRatingDistributionPieChart(RatingHistogram distribution, 
                                                           String title) {
         System.out.println("\n========== " + title + " ==========");
         
-        int total = distribution.values().stream().mapToInt(Integer::intValue).sum();
+        int total = distribution.getCount();
         
         if (total == 0) {
             System.out.println("No data to display.");
@@ -60,8 +64,8 @@ public class GraphGenerator {
         
         System.out.println("\nRating Distribution:");
         for (int rating = 5; rating >= 1; rating--) {
-            int count = distribution.getOrDefault(rating, 0);
-            double percentage = (count * 100.0) / total;
+            int count = distribution.getCount(rating);
+            double percentage = distribution.getPercentage(rating);
             int pieLength = (int) (percentage / 2); // Each block represents 2%
             
             System.out.printf("%d ★ | %3d (%5.1f%%) %s\n", 
@@ -78,23 +82,11 @@ public class GraphGenerator {
      */
     public static void generateSemesterTrendChart(FeedbackRepository repository) {
         System.out.println("\n========== SEMESTER-WISE FEEDBACK TREND ==========");
+        ReportPhaseEvent phase = beginPhase();
         
-        Map<Integer, Integer> semesterCounts = new HashMap<>();
-        Map<Integer, Double> semesterRatings = new HashMap<>();
-        
+        RatingHistogram[] semesters = new RatingHistogram[9];
         for (int sem = 1; sem <= 8; sem++) {
-            List<Feedback> semFeedback = repository.getFeedbackBySemester(sem);
-            semesterCounts.put(sem, semFeedback.size());
-            
-            if (!semFeedback.isEmpty()) {
-                double avgRating = semFeedback.stream()
-                    .mapToInt(Feedback::getRating)
-                    .average()
-                    .orElse(0.0);
-                semesterRatings.put(sem, avgRating);
-            } else {
-                semesterRatings.put(sem, 0.0);
-            }
+            semesters[sem] = repository.getRatingDistribution(new FeedbackQuery().semester(sem));
         }
         
         System.out.println("\nAverage Rating by Semester:");
@@ -102,8 +94,8 @@ public class GraphGenerator {
         System.out.println("----|--------|" + "-".repeat(50));
         
         for (int sem = 1; sem <= 8; sem++) {
-            double rating = semesterRatings.get(sem);
-            int count = semesterCounts.get(sem);
+            double rating = semesters[sem].getMean();
+            int count = semesters[sem].getCount();
             int graphLength = (int) (rating * 10);
             
             System.out.printf(" %d  | %.2f   | %s (%d entries)\n", 
@@ -111,208 +103,94 @@ public class GraphGenerator {
         }
         
         System.out.println("\n" + "=".repeat(70));
+        endPhase(phase, "console", "semesterTrendChart", 8);
+    }
+    
+    /**
+     * Generate console chart of submission volume and average rating per
+     * hour, day, week or term, read from the repository's time rollups
+     */
+    public static void generateSubmissionTrendChart(FeedbackRepository repository, TimeBucket bucket,
+                                                    LocalDate from, LocalDate to) {
+        System.out.println("\n========== SUBMISSION TREND BY " + bucket + " ==========");
+        ReportPhaseEvent phase = beginPhase();
+        
+        NavigableMap<Long, RatingHistogram> trend = repository.getTrend(bucket, from, to);
+        if (trend.isEmpty()) {
+            System.out.println("No feedback submitted in this period.");
+            return;
+        }
+        
+        int maxCount = 1;
+        int labelWidth = 10;
+        for (Map.Entry<Long, RatingHistogram> entry : trend.entrySet()) {
+            maxCount = Math.max(maxCount, entry.getValue().getCount());
+            labelWidth = Math.max(labelWidth, bucket.label(entry.getKey()).length());
+        }
+        
+        System.out.printf("\n%-" + labelWidth + "s | Avg  | Submissions\n", "Period");
+        System.out.println("-".repeat(labelWidth) + "-|------|" + "-".repeat(50));
+        for (Map.Entry<Long, RatingHistogram> entry : trend.entrySet()) {
+            RatingHistogram histogram = entry.getValue();
+            int barLength = (int) Math.ceil(histogram.getCount() * 40.0 / maxCount);
+            System.out.printf("%-" + labelWidth + "s | %.2f | %s %d\n", bucket.label(entry.getKey()),
+                histogram.getMean(), getBar(barLength, '▒'), histogram.getCount());
+        }
+        
+        System.out.println("\n" + "=".repeat(70));
+        endPhase(phase, "console", "submissionTrendChart", trend.size());
     }
     
+    // -Dfeedback.charts=images makes embedded chart images the default for HTML reports
+    private static final boolean EMBED_CHARTS = "images".equalsIgnoreCase(System.getProperty("feedback.charts"));
+    
     /**
      * Generate HTML report with graphs
      */
     public static void generateHTMLReport(FeedbackRepository repository, String filename) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println("<!DOCTYPE html>");
-            writer.println("<html lang='en'>");
-            writer.println("<head>");
-            writer.println("    <meta charset='UTF-8'>");
-            writer.println("    <meta name='viewport' content='width=device-width, initial-scale=1.0'>");
-            writer.println("    <title>College Feedback System - Analytics Dashboard</title>");
-            writer.println("    <script src='https://cdn.jsdelivr.net/npm/chart.js'></script>");
-            writer.println("    <style>");
-            writer.println("        * { margin: 0; padding: 0; box-sizing: border-box; }");
-            writer.println("        body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 20px; }");
-            writer.println("        .container { max-width: 1400px; margin: 0 auto; }");
-            writer.println("        h1 { text-align: center; color: white; margin-bottom: 30px; font-size: 2.5em; text-shadow: 2px 2px 4px rgba(0,0,0,0.3); }");
-            writer.println("        .dashboard { display: grid; grid-template-columns: repeat(auto-fit, minmax(500px, 1fr)); gap: 20px; }");
-            writer.println("        .card { background: white; border-radius: 15px; padding: 20px; box-shadow: 0 10px 30px rgba(0,0,0,0.2); }");
-            writer.println("        .card h2 { color: #667eea; margin-bottom: 20px; border-bottom: 3px solid #667eea; padding-bottom: 10px; }");
-            writer.println("        .stats { display: grid; grid-template-columns: repeat(3, 1fr); gap: 15px; margin-bottom: 20px; }");
-            writer.println("        .stat-box { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 20px; border-radius: 10px; text-align: center; }");
-            writer.println("        .stat-box h3 { font-size: 2em; margin-bottom: 5px; }");
-            writer.println("        .stat-box p { font-size: 0.9em; opacity: 0.9; }");
-            writer.println("        canvas { max-height: 400px; }");
-            writer.println("        table { width: 100%; border-collapse: collapse; margin-top: 20px; }");
-            writer.println("        th, td { padding: 12px; text-align: left; border-bottom: 1px solid #ddd; }");
-            writer.println("        th { background-color: #667eea; color: white; }");
-            writer.println("        tr:hover { background-color: #f5f5f5; }");
-            writer.println("    </style>");
-            writer.println("</head>");
-            writer.println("<body>");
-            writer.println("    <div class='container'>");
-            writer.println("        <h1>📊 College Feedback Analytics Dashboard</h1>");
-            
-            // Generate statistics
-            List<Feedback> allFeedback = repository.getAllFeedback();
-            List<String> subjects = repository.getUniqueSubjects();
-            List<String> faculty = repository.getUniqueFaculty();
-            
-            writer.println("        <div class='stats'>");
-            writer.println("            <div class='stat-box'>");
-            writer.println("                <h3>" + allFeedback.size() + "</h3>");
-            writer.println("                <p>Total Feedback</p>");
-            writer.println("            </div>");
-            writer.println("            <div class='stat-box'>");
-            writer.println("                <h3>" + subjects.size() + "</h3>");
-            writer.println("                <p>Subjects Evaluated</p>");
-            writer.println("            </div>");
-            writer.println("            <div class='stat-box'>");
-            writer.println("                <h3>" + faculty.size() + "</h3>");
-            writer.println("                <p>Faculty Members</p>");
-            writer.println("            </div>");
-            writer.println("        </div>");
-            
-            writer.println("        <div class='dashboard'>");
-            
-            // Subject-wise ratings chart
-            writer.println("            <div class='card'>");
-            writer.println("                <h2>Subject-wise Average Ratings</h2>");
-            writer.println("                <canvas id='subjectChart'></canvas>");
-            writer.println("            </div>");
-            
-            // Rating distribution pie chart
-            writer.println("            <div class='card'>");
-            writer.println("                <h2>Overall Rating Distribution</h2>");
-            writer.println("                <canvas id='distributionChart'></canvas>");
-            writer.println("            </div>");
-            
-            // Semester trends
-            writer.println("            <div class='card'>");
-            writer.println("                <h2>Semester-wise Feedback Trends</h2>");
-            writer.println("                <canvas id='semesterChart'></canvas>");
-            writer.println("            </div>");
-            
-            // Faculty ratings table
-            writer.println("            <div class='card'>");
-            writer.println("                <h2>Faculty Performance Summary</h2>");
-            writer.println("                <table>");
-            writer.println("                    <tr><th>Faculty</th><th>Avg Rating</th><th>Feedback Count</th></tr>");
-            
-            for (String fac : faculty) {
-                String facId = fac.substring(fac.lastIndexOf("(") + 1, fac.lastIndexOf(")"));
-                double avgRating = repository.getAverageRatingByFaculty(facId);
-                int count = repository.getFeedbackByFaculty(facId).size();
-                writer.printf("                    <tr><td>%s</td><td>%.2f ★</td><td>%d</td></tr>\n", 
-                             fac, avgRating, count);
+        generateHTMLReport(repository, filename, EMBED_CHARTS);
+    }
+    
+    /**
+     * Generate HTML report with graphs
+     * @param embedCharts draw the charts on the server as images inside the page
+     *                    instead of loading Chart.js, for viewing without internet
+     */
+    public static void generateHTMLReport(FeedbackRepository repository, String filename, boolean embedCharts) {
+        long start = MetricsRegistry.startTimer();
+        try {
+            if (repository.getDashboard().write(filename, embedCharts)) {
+                System.out.println("\n✓ HTML Report generated successfully: " + filename);
+            } else {
+                System.out.println("\n✓ HTML Report is already up to date: " + filename);
             }
-            
-            writer.println("                </table>");
-            writer.println("            </div>");
-            
-            writer.println("        </div>");
-            
-            // Generate Chart.js scripts
-            generateChartScripts(writer, repository, subjects);
-            
-            writer.println("    </div>");
-            writer.println("</body>");
-            writer.println("</html>");
-            
-            System.out.println("\n✓ HTML Report generated successfully: " + filename);
-            
         } catch (IOException e) {
             System.err.println("Error generating HTML report: " + e.getMessage());
+        } finally {
+            MetricsRegistry.stopTimer("report.generateHTML", start);
         }
     }
     
     /**
-     * Generate Chart.js script tags
+     * Start timing a report phase for Flight Recorder
      */
-    private static void generateChartScripts(PrintWriter writer, FeedbackRepository repository, 
-                                            List<String> subjects) {
-        writer.println("    <script>");
-        
-        // Subject-wise ratings bar chart
-        writer.println("        const subjectCtx = document.getElementById('subjectChart').getContext('2d');");
-        writer.print("        const subjectLabels = [");
-        for (int i = 0; i < subjects.size(); i++) {
-            writer.print("'" + subjects.get(i).replace("'", "\\'") + "'");
-            if (i < subjects.size() - 1) writer.print(", ");
-        }
-        writer.println("];");
-        
-        writer.print("        const subjectData = [");
-        for (int i = 0; i < subjects.size(); i++) {
-            writer.print(String.format("%.2f", repository.getAverageRatingBySubject(subjects.get(i))));
-            if (i < subjects.size() - 1) writer.print(", ");
-        }
-        writer.println("];");
-        
-        writer.println("        new Chart(subjectCtx, {");
-        writer.println("            type: 'bar',");
-        writer.println("            data: {");
-        writer.println("                labels: subjectLabels,");
-        writer.println("                datasets: [{");
-        writer.println("                    label: 'Average Rating',");
-        writer.println("                    data: subjectData,");
-        writer.println("                    backgroundColor: 'rgba(102, 126, 234, 0.8)',");
-        writer.println("                    borderColor: 'rgba(102, 126, 234, 1)',");
-        writer.println("                    borderWidth: 2");
-        writer.println("                }]");
-        writer.println("            },");
-        writer.println("            options: { scales: { y: { beginAtZero: true, max: 5 } } }");
-        writer.println("        });");
-        
-        // Overall rating distribution pie chart
-        Map<Integer, Integer> overallDist = new HashMap<>();
-        for (int i = 1; i <= 5; i++) overallDist.put(i, 0);
-        
-        for (Feedback fb : repository.getAllFeedback()) {
-            int rating = fb.getRating();
-            overallDist.put(rating, overallDist.get(rating) + 1);
-        }
-        
-        writer.println("        const distributionCtx = document.getElementById('distributionChart').getContext('2d');");
-        writer.println("        new Chart(distributionCtx, {");
-        writer.println("            type: 'doughnut',");
-        writer.println("            data: {");
-        writer.println("                labels: ['5 Stars', '4 Stars', '3 Stars', '2 Stars', '1 Star'],");
-        writer.print("                datasets: [{ data: [");
-        for (int i = 5; i >= 1; i--) {
-            writer.print(overallDist.get(i));
-            if (i > 1) writer.print(", ");
-        }
-        writer.println("],");
-        writer.println("                    backgroundColor: ['#10b981', '#3b82f6', '#fbbf24', '#f97316', '#ef4444']");
-        writer.println("                }]");
-        writer.println("            }");
-        writer.println("        });");
-        
-        // Semester trends
-        writer.println("        const semesterCtx = document.getElementById('semesterChart').getContext('2d');");
-        writer.print("        const semesterData = [");
-        for (int sem = 1; sem <= 8; sem++) {
-            List<Feedback> semFeedback = repository.getFeedbackBySemester(sem);
-            double avg = semFeedback.isEmpty() ? 0 : 
-                        semFeedback.stream().mapToInt(Feedback::getRating).average().orElse(0.0);
-            writer.print(String.format("%.2f", avg));
-            if (sem < 8) writer.print(", ");
+    static ReportPhaseEvent beginPhase() {
+        ReportPhaseEvent event = new ReportPhaseEvent();
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * Finish a report phase and commit it if Flight Recorder is listening
+     */
+    static void endPhase(ReportPhaseEvent event, String report, String phase, int items) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.report = report;
+            event.phase = phase;
+            event.items = items;
+            event.commit();
         }
-        writer.println("];");
-        
-        writer.println("        new Chart(semesterCtx, {");
-        writer.println("            type: 'line',");
-        writer.println("            data: {");
-        writer.println("                labels: ['Sem 1', 'Sem 2', 'Sem 3', 'Sem 4', 'Sem 5', 'Sem 6', 'Sem 7', 'Sem 8'],");
-        writer.println("                datasets: [{");
-        writer.println("                    label: 'Average Rating',");
-        writer.println("                    data: semesterData,");
-        writer.println("                    borderColor: 'rgba(118, 75, 162, 1)',");
-        writer.println("                    backgroundColor: 'rgba(118, 75, 162, 0.2)',");
-        writer.println("                    tension: 0.4,");
-        writer.println("                    fill: true");
-        writer.println("                }]");
-        writer.println("            },");
-        writer.println("            options: { scales: { y: { beginAtZero: true, max: 5 } } }");
-        writer.println("        });");
-        
-        writer.println("    </script>");
     }
     
     /**
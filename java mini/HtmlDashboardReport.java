@@ -0,0 +1,593 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * HtmlDashboardReport Class - The HTML analytics dashboard as a precompiled template
+ * The page is fixed markup (styles, cards, chart settings) with a few data
+ * sections in between. The markup is encoded to UTF-8 once, when the class
+ * loads, and copied into the output as bytes; only the data sections are
+ * rendered per report. Output streams through a ReportWriter into a file
+ * channel, so the cost of a report follows the amount of data, not the size
+ * of the template.
+ * Rendered sections are kept with a version taken from the repository's change
+ * stamps: faculty rows and subject averages per faculty member and subject,
+ * the other sections against the overall change count. Regenerating after
+ * new feedback re-renders only the rows and sections it touched.
+ * With embedded charts the page leaves out Chart.js and shows the charts as
+ * PNG images drawn by ChartRenderer, cached like the other sections, so the
+ * file displays without scripts or network access.
+ * Demonstrates OOP concepts: Encapsulation, Static Initialisation, File I/O, Caching
+ */
+public class HtmlDashboardReport {
+    private static final byte[] HEAD = fragment(
+        "<!DOCTYPE html>",
+        "<html lang='en'>",
+        "<head>",
+        "    <meta charset='UTF-8'>",
+        "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>",
+        "    <title>College Feedback System - Analytics Dashboard</title>");
+    private static final byte[] CHART_LIBRARY = fragment(
+        "    <script src='https://cdn.jsdelivr.net/npm/chart.js'></script>");
+    private static final byte[] STYLE = fragment(
+        "    <style>",
+        "        * { margin: 0; padding: 0; box-sizing: border-box; }",
+        "        body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 20px; }",
+        "        .container { max-width: 1400px; margin: 0 auto; }",
+        "        h1 { text-align: center; color: white; margin-bottom: 30px; font-size: 2.5em; text-shadow: 2px 2px 4px rgba(0,0,0,0.3); }",
+        "        .dashboard { display: grid; grid-template-columns: repeat(auto-fit, minmax(500px, 1fr)); gap: 20px; }",
+        "        .card { background: white; border-radius: 15px; padding: 20px; box-shadow: 0 10px 30px rgba(0,0,0,0.2); }",
+        "        .card h2 { color: #667eea; margin-bottom: 20px; border-bottom: 3px solid #667eea; padding-bottom: 10px; }",
+        "        .stats { display: grid; grid-template-columns: repeat(3, 1fr); gap: 15px; margin-bottom: 20px; }",
+        "        .stat-box { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 20px; border-radius: 10px; text-align: center; }",
+        "        .stat-box h3 { font-size: 2em; margin-bottom: 5px; }",
+        "        .stat-box p { font-size: 0.9em; opacity: 0.9; }",
+        "        canvas { max-height: 400px; }",
+        "        .card img { width: 100%; height: auto; }",
+        "        table { width: 100%; border-collapse: collapse; margin-top: 20px; }",
+        "        th, td { padding: 12px; text-align: left; border-bottom: 1px solid #ddd; }",
+        "        th { background-color: #667eea; color: white; }",
+        "        tr:hover { background-color: #f5f5f5; }",
+        "    </style>",
+        "</head>",
+        "<body>",
+        "    <div class='container'>",
+        "        <h1>📊 College Feedback Analytics Dashboard</h1>",
+        "        <div class='stats'>");
+    private static final byte[] STAT_OPEN = inline(
+        "            <div class='stat-box'>\n                <h3>");
+    private static final byte[] STAT_TOTAL = fragment("</h3>", "                <p>Total Feedback</p>", "            </div>");
+    private static final byte[] STAT_SUBJECTS = fragment("</h3>", "                <p>Subjects Evaluated</p>", "            </div>");
+    private static final byte[] STAT_FACULTY = fragment("</h3>", "                <p>Faculty Members</p>", "            </div>");
+    private static final byte[] DASHBOARD_OPEN = fragment(
+        "        </div>",
+        "        <div class='dashboard'>");
+    private static final byte[] CHART_CARDS = fragment(
+        "            <div class='card'>",
+        "                <h2>Subject-wise Average Ratings</h2>",
+        "                <canvas id='subjectChart'></canvas>",
+        "            </div>",
+        "            <div class='card'>",
+        "                <h2>Overall Rating Distribution</h2>",
+        "                <canvas id='distributionChart'></canvas>",
+        "            </div>",
+        "            <div class='card'>",
+        "                <h2>Semester-wise Feedback Trends</h2>",
+        "                <canvas id='semesterChart'></canvas>",
+        "            </div>",
+        "            <div class='card'>",
+        "                <h2>Weekly Submissions This Term</h2>",
+        "                <canvas id='weeklyChart'></canvas>",
+        "            </div>");
+    private static final byte[] SUBJECT_IMAGE = imageCard("Subject-wise Average Ratings");
+    private static final byte[] DISTRIBUTION_IMAGE = imageCard("Overall Rating Distribution");
+    private static final byte[] SEMESTER_IMAGE = imageCard("Semester-wise Feedback Trends");
+    private static final byte[] WEEKLY_IMAGE = imageCard("Weekly Submissions This Term");
+    private static final byte[] IMAGE_CLOSE = fragment("'>", "            </div>");
+    private static final byte[] FACULTY_CARD = fragment(
+        "            <div class='card'>",
+        "                <h2>Faculty Performance Summary</h2>",
+        "                <table>",
+        "                    <tr><th>Faculty</th><th>Avg Rating</th><th>Median</th><th>Middle 50%</th><th>Feedback Count</th></tr>");
+    private static final byte[] ROW_OPEN = inline("                    <tr><td>");
+    private static final byte[] CELL = inline("</td><td>");
+    private static final byte[] STAR_CELL = inline(" ★</td><td>");
+    private static final byte[] DASH = inline(" - ");
+    private static final byte[] ROW_CLOSE = fragment("</td></tr>");
+    private static final byte[] TABLE_CLOSE = fragment("                </table>");
+    private static final byte[] LEADERBOARD_OPEN = fragment(
+        "                </table>",
+        "            </div>",
+        "            <div class='card'>",
+        "                <h2>Faculty Leaderboard</h2>");
+    private static final byte[] STANDINGS_OPEN = inline("                <table>\n                    <tr><th>");
+    private static final byte[] STANDINGS_HEADER = fragment("</th><th>Avg Rating</th><th>Feedback Count</th></tr>");
+    private static final byte[] NO_STANDINGS = fragment("                    <tr><td colspan='3'>Not enough ratings yet</td></tr>");
+    private static final byte[] MINIMUM_OPEN = inline("                <p>Minimum ");
+    private static final byte[] MINIMUM_CLOSE = fragment(" ratings to be ranked.</p>");
+    private static final byte[] SCRIPT_OPEN = fragment(
+        "            </div>",
+        "        </div>",
+        "    <script>",
+        "        const subjectCtx = document.getElementById('subjectChart').getContext('2d');");
+    private static final byte[] SUBJECT_LABELS = inline("        const subjectLabels = [");
+    private static final byte[] SUBJECT_DATA = inline("        const subjectData = [");
+    private static final byte[] ARRAY_CLOSE = fragment("];");
+    private static final byte[] SEPARATOR = inline(", ");
+    private static final byte[] SUBJECT_CHART = fragment(
+        "        new Chart(subjectCtx, {",
+        "            type: 'bar',",
+        "            data: {",
+        "                labels: subjectLabels,",
+        "                datasets: [{",
+        "                    label: 'Average Rating',",
+        "                    data: subjectData,",
+        "                    backgroundColor: 'rgba(102, 126, 234, 0.8)',",
+        "                    borderColor: 'rgba(102, 126, 234, 1)',",
+        "                    borderWidth: 2",
+        "                }]",
+        "            },",
+        "            options: { scales: { y: { beginAtZero: true, max: 5 } } }",
+        "        });",
+        "        const distributionCtx = document.getElementById('distributionChart').getContext('2d');",
+        "        new Chart(distributionCtx, {",
+        "            type: 'doughnut',",
+        "            data: {",
+        "                labels: ['5 Stars', '4 Stars', '3 Stars', '2 Stars', '1 Star'],");
+    private static final byte[] DISTRIBUTION_OPEN = inline("                datasets: [{ data: [");
+    private static final byte[] DISTRIBUTION_CLOSE = fragment(
+        "],",
+        "                    backgroundColor: ['#10b981', '#3b82f6', '#fbbf24', '#f97316', '#ef4444']",
+        "                }]",
+        "            }",
+        "        });",
+        "        const semesterCtx = document.getElementById('semesterChart').getContext('2d');");
+    private static final byte[] SEMESTER_DATA = inline("        const semesterData = [");
+    private static final byte[] SEMESTER_CHART = fragment(
+        "        new Chart(semesterCtx, {",
+        "            type: 'line',",
+        "            data: {",
+        "                labels: ['Sem 1', 'Sem 2', 'Sem 3', 'Sem 4', 'Sem 5', 'Sem 6', 'Sem 7', 'Sem 8'],",
+        "                datasets: [{",
+        "                    label: 'Average Rating',",
+        "                    data: semesterData,",
+        "                    borderColor: 'rgba(118, 75, 162, 1)',",
+        "                    backgroundColor: 'rgba(118, 75, 162, 0.2)',",
+        "                    tension: 0.4,",
+        "                    fill: true",
+        "                }]",
+        "            },",
+        "            options: { scales: { y: { beginAtZero: true, max: 5 } } }",
+        "        });",
+        "        const weeklyCtx = document.getElementById('weeklyChart').getContext('2d');");
+    private static final byte[] WEEK_LABELS = inline("        const weekLabels = [");
+    private static final byte[] WEEK_COUNTS = inline("        const weekCounts = [");
+    private static final byte[] WEEK_AVERAGES = inline("        const weekAverages = [");
+    private static final byte[] TAIL = fragment(
+        "        new Chart(weeklyCtx, {",
+        "            data: {",
+        "                labels: weekLabels,",
+        "                datasets: [",
+        "                    { type: 'bar', label: 'Submissions', data: weekCounts, yAxisID: 'count',",
+        "                      backgroundColor: 'rgba(102, 126, 234, 0.6)' },",
+        "                    { type: 'line', label: 'Average Rating', data: weekAverages, yAxisID: 'rating',",
+        "                      borderColor: 'rgba(118, 75, 162, 1)', tension: 0.3 }",
+        "                ]",
+        "            },",
+        "            options: { scales: { count: { beginAtZero: true, position: 'left' },",
+        "                                 rating: { beginAtZero: true, max: 5, position: 'right' } } }",
+        "        });",
+        "    </script>",
+        "    </div>",
+        "</body>",
+        "</html>");
+    private static final byte[] PAGE_CLOSE = fragment(
+        "            </div>",
+        "        </div>",
+        "    </div>",
+        "</body>",
+        "</html>");
+    
+    /**
+     * Lines of fixed markup, each ending in a newline
+     */
+    private static byte[] fragment(String... lines) {
+        return ReportWriter.encode(String.join("\n", lines) + "\n");
+    }
+    
+    /**
+     * Fixed markup followed directly by data
+     */
+    private static byte[] inline(String text) {
+        return ReportWriter.encode(text);
+    }
+    
+    /**
+     * Card markup up to the start of an embedded PNG's base64 data
+     */
+    private static byte[] imageCard(String title) {
+        return ReportWriter.encode("            <div class='card'>\n                <h2>" + title + "</h2>\n"
+            + "                <img alt='" + title + "' src='data:image/png;base64,");
+    }
+    
+    /**
+     * A rendered piece of the page and the version of the data it shows
+     */
+    private static final class Section {
+        final Object version;
+        final byte[] bytes;
+        
+        Section(Object version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+    
+    /**
+     * Renders one data section
+     */
+    private interface Renderer {
+        void render(ReportWriter out) throws IOException;
+    }
+    
+    /**
+     * Version of a written file and what it looked like on disk afterwards,
+     * so a file edited or replaced since is rewritten
+     */
+    private static final class WrittenFile {
+        final Object version;
+        final long size;
+        final long lastModified;
+        
+        WrittenFile(Object version, long size, long lastModified) {
+            this.version = version;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+    
+    private static final int FRAGMENT_BUFFER_SIZE = 8192;
+    private static final int PAGE_BUFFER_SIZE = 1 << 16;
+    
+    private final FeedbackRepository repository;
+    private final ByteArrayOutputStream fragmentBytes = new ByteArrayOutputStream();
+    private final ReportWriter fragmentWriter = new ReportWriter(Channels.newChannel(fragmentBytes), FRAGMENT_BUFFER_SIZE);
+    
+    // Whole sections by name, and single table rows / chart values by faculty and subject
+    private final Map<String, Section> sections = new HashMap<>();
+    private final Map<String, Section> facultyRows = new HashMap<>();
+    private final Map<String, Section> subjectAverages = new HashMap<>();
+    private final Map<String, WrittenFile> writtenFiles = new HashMap<>();
+    private int rendered;
+    
+    public HtmlDashboardReport(FeedbackRepository repository) {
+        this.repository = repository;
+    }
+    
+    /**
+     * Write the dashboard with Chart.js charts
+     * @return false when the file was already up to date
+     */
+    public boolean write(String filename) throws IOException {
+        return write(filename, false);
+    }
+    
+    /**
+     * Write the dashboard for the repository's current data to a file. Sections
+     * whose data has not changed since the last report are copied from cache;
+     * if nothing changed and the file is as this report left it, nothing is written.
+     * @param embedCharts draw the charts as PNG images inside the page, so it
+     *                    needs no script or network access to display
+     * @return false when the file was already up to date
+     */
+    public synchronized boolean write(String filename, boolean embedCharts) throws IOException {
+        // Listing subjects and faculty loads any partitions still on disk, so
+        // the change count is read afterwards
+        List<String> subjects = repository.getUniqueSubjects();
+        List<String> faculty = repository.getUniqueFaculty();
+        int totalFeedback = repository.getFeedbackCount();
+        long changeCount = repository.getChangeCount();
+        LocalDate termStart = currentTermStart();
+        
+        Path path = Paths.get(filename);
+        List<Object> pageVersion = Arrays.asList(changeCount, totalFeedback, termStart, embedCharts);
+        WrittenFile written = writtenFiles.get(path.toAbsolutePath().toString());
+        if (written != null && written.version.equals(pageVersion) && Files.exists(path)
+                && Files.size(path) == written.size && Files.getLastModifiedTime(path).toMillis() == written.lastModified) {
+            MetricsRegistry.increment("report.upToDate");
+            return false;
+        }
+        
+        try (ReportWriter out = new ReportWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            render(out, embedCharts, subjects, faculty, totalFeedback, changeCount, termStart);
+        }
+        writtenFiles.put(path.toAbsolutePath().toString(), new WrittenFile(pageVersion, Files.size(path),
+            Files.getLastModifiedTime(path).toMillis()));
+        return true;
+    }
+    
+    /**
+     * The dashboard for the repository's current data as bytes, e.g. for an
+     * HTTP response; unchanged sections are copied from cache as for write()
+     */
+    public synchronized byte[] render(boolean embedCharts) throws IOException {
+        List<String> subjects = repository.getUniqueSubjects();
+        List<String> faculty = repository.getUniqueFaculty();
+        int totalFeedback = repository.getFeedbackCount();
+        long changeCount = repository.getChangeCount();
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        try (ReportWriter out = new ReportWriter(Channels.newChannel(page), PAGE_BUFFER_SIZE)) {
+            render(out, embedCharts, subjects, faculty, totalFeedback, changeCount, currentTermStart());
+        }
+        return page.toByteArray();
+    }
+    
+    private void render(ReportWriter out, boolean embedCharts, List<String> subjects, List<String> faculty,
+                        int totalFeedback, long changeCount, LocalDate termStart) throws IOException {
+        out.write(HEAD);
+        if (!embedCharts) {
+            out.write(CHART_LIBRARY);
+        }
+        out.write(STYLE);
+        ReportPhaseEvent phase = GraphGenerator.beginPhase();
+        rendered = 0;
+        out.write(cached(sections, "statistics", Arrays.asList(totalFeedback, subjects.size(), faculty.size()),
+            o -> writeStatistics(o, totalFeedback, subjects.size(), faculty.size())));
+        GraphGenerator.endPhase(phase, "html", "statistics", rendered);
+        
+        out.write(DASHBOARD_OPEN);
+        if (embedCharts) {
+            phase = GraphGenerator.beginPhase();
+            rendered = 0;
+            writeChartImages(out, subjects, changeCount, termStart);
+            GraphGenerator.endPhase(phase, "html", "chartImages", rendered);
+        } else {
+            out.write(CHART_CARDS);
+        }
+        out.write(FACULTY_CARD);
+        phase = GraphGenerator.beginPhase();
+        rendered = 0;
+        for (String fac : faculty) {
+            String facId = fac.substring(fac.lastIndexOf("(") + 1, fac.lastIndexOf(")"));
+            out.write(cached(facultyRows, fac, repository.getFacultyChangeStamp(facId),
+                o -> writeFacultyRow(o, fac, facId)));
+        }
+        facultyRows.keySet().retainAll(faculty);
+        GraphGenerator.endPhase(phase, "html", "facultyTable", rendered);
+        
+        out.write(LEADERBOARD_OPEN);
+        phase = GraphGenerator.beginPhase();
+        rendered = 0;
+        out.write(cached(sections, "leaderboard", changeCount, this::writeLeaderboard));
+        GraphGenerator.endPhase(phase, "html", "leaderboard", rendered);
+        
+        if (embedCharts) {
+            out.write(PAGE_CLOSE);
+        } else {
+            phase = GraphGenerator.beginPhase();
+            rendered = 0;
+            writeChartScripts(out, subjects, changeCount, termStart);
+            GraphGenerator.endPhase(phase, "html", "chartScripts", rendered);
+        }
+    }
+    
+    /**
+     * Cached bytes of a section if its version still matches, otherwise render it again
+     */
+    private byte[] cached(Map<String, Section> cache, String key, Object version, 
+                          Renderer renderer) throws IOException {
+        Section section = cache.get(key);
+        if (section != null && section.version.equals(version)) {
+            MetricsRegistry.increment("report.sectionsReused");
+            return section.bytes;
+        }
+        fragmentBytes.reset();
+        renderer.render(fragmentWriter);
+        fragmentWriter.flush();
+        section = new Section(version, fragmentBytes.toByteArray());
+        cache.put(key, section);
+        rendered++;
+        MetricsRegistry.increment("report.sectionsRendered");
+        return section.bytes;
+    }
+    
+    /**
+     * Chart data as JavaScript arrays for the Chart.js charts
+     */
+    private void writeChartScripts(ReportWriter out, List<String> subjects, long changeCount,
+                                   LocalDate termStart) throws IOException {
+        out.write(SCRIPT_OPEN);
+        out.write(SUBJECT_LABELS);
+        out.write(cached(sections, "subjectLabels", subjects, o -> writeSubjectLabels(o, subjects)));
+        out.write(ARRAY_CLOSE).write(SUBJECT_DATA);
+        for (int i = 0; i < subjects.size(); i++) {
+            String subject = subjects.get(i);
+            if (i > 0) {
+                out.write(SEPARATOR);
+            }
+            out.write(cached(subjectAverages, subject, repository.getSubjectChangeStamp(subject),
+                o -> o.decimal(repository.getAverageRatingBySubject(subject), 2)));
+        }
+        subjectAverages.keySet().retainAll(subjects);
+        out.write(ARRAY_CLOSE).write(SUBJECT_CHART);
+        out.write(cached(sections, "distribution", changeCount, this::writeDistribution));
+        out.write(DISTRIBUTION_CLOSE);
+        out.write(cached(sections, "semesters", changeCount, this::writeSemesterData));
+        out.write(SEMESTER_CHART);
+        out.write(cached(sections, "weekly", Arrays.asList(changeCount, termStart),
+            o -> writeWeeklyData(o, termStart)));
+        out.write(TAIL);
+    }
+    
+    /**
+     * Chart cards with each chart drawn as an embedded PNG, kept until its data changes
+     */
+    private void writeChartImages(ReportWriter out, List<String> subjects, long changeCount,
+                                  LocalDate termStart) throws IOException {
+        out.write(SUBJECT_IMAGE);
+        out.write(cached(sections, "subjectImage", changeCount, o -> base64(o, subjectChart(subjects))));
+        out.write(IMAGE_CLOSE).write(DISTRIBUTION_IMAGE);
+        out.write(cached(sections, "distributionImage", changeCount, o -> base64(o,
+            ChartRenderer.distributionChart(repository.getRatingDistribution(new FeedbackQuery())))));
+        out.write(IMAGE_CLOSE).write(SEMESTER_IMAGE);
+        out.write(cached(sections, "semesterImage", changeCount, o -> base64(o, semesterChart())));
+        out.write(IMAGE_CLOSE).write(WEEKLY_IMAGE);
+        out.write(cached(sections, "weeklyImage", Arrays.asList(changeCount, termStart),
+            o -> base64(o, weeklyChart(termStart))));
+        out.write(IMAGE_CLOSE);
+    }
+    
+    private static void base64(ReportWriter out, byte[] png) throws IOException {
+        out.text(Base64.getEncoder().encodeToString(png));
+    }
+    
+    private byte[] subjectChart(List<String> subjects) throws IOException {
+        double[] averages = new double[subjects.size()];
+        for (int i = 0; i < averages.length; i++) {
+            averages[i] = repository.getAverageRatingBySubject(subjects.get(i));
+        }
+        return ChartRenderer.barChart("Average Rating", subjects, averages, RatingHistogram.MAX_RATING);
+    }
+    
+    private byte[] semesterChart() throws IOException {
+        List<String> labels = new ArrayList<>();
+        double[] averages = new double[8];
+        for (int sem = 1; sem <= 8; sem++) {
+            labels.add("Sem " + sem);
+            averages[sem - 1] = repository.getAverageRating(new FeedbackQuery().semester(sem));
+        }
+        return ChartRenderer.lineChart("Average Rating", labels, averages, RatingHistogram.MAX_RATING);
+    }
+    
+    private byte[] weeklyChart(LocalDate termStart) throws IOException {
+        NavigableMap<Long, RatingHistogram> weekly = repository.getTrend(TimeBucket.WEEK, termStart, null);
+        List<String> labels = new ArrayList<>();
+        long[] counts = new long[weekly.size()];
+        double[] averages = new double[weekly.size()];
+        int i = 0;
+        for (Map.Entry<Long, RatingHistogram> week : weekly.entrySet()) {
+            labels.add(LocalDate.ofEpochDay(week.getKey()).toString());
+            counts[i] = week.getValue().getCount();
+            averages[i] = week.getValue().getMean();
+            i++;
+        }
+        return ChartRenderer.countAndAverageChart(labels, counts, averages);
+    }
+    
+    static LocalDate currentTermStart() {
+        long today = LocalDate.now().toEpochDay();
+        return LocalDate.ofEpochDay(TimeBucket.TERM.firstDay(TimeBucket.TERM.of(today, 0)));
+    }
+    
+    private static void writeStatistics(ReportWriter out, int totalFeedback, int subjects, 
+                                        int faculty) throws IOException {
+        out.write(STAT_OPEN).number(totalFeedback).write(STAT_TOTAL);
+        out.write(STAT_OPEN).number(subjects).write(STAT_SUBJECTS);
+        out.write(STAT_OPEN).number(faculty).write(STAT_FACULTY);
+    }
+    
+    private void writeFacultyRow(ReportWriter out, String fac, String facId) throws IOException {
+        RatingHistogram histogram = repository.getFacultyRatingHistogram(facId);
+        out.write(ROW_OPEN).html(fac).write(CELL)
+            .decimal(histogram.getMean(), 2).write(STAR_CELL)
+            .decimal(histogram.getMedian(), 1).write(CELL)
+            .decimal(histogram.getLowerQuartile(), 1).write(DASH)
+            .decimal(histogram.getUpperQuartile(), 1).write(CELL)
+            .number(histogram.getCount()).write(ROW_CLOSE);
+    }
+    
+    private void writeLeaderboard(ReportWriter out) throws IOException {
+        writeStandings(out, "Lowest Rated", repository.getBottomFaculty(5));
+        writeStandings(out, "Top Rated", repository.getTopFaculty(5));
+        out.write(MINIMUM_OPEN).number(repository.getLeaderboardMinRatings()).write(MINIMUM_CLOSE);
+    }
+    
+    private static void writeStandings(ReportWriter out, String title,
+                                       List<Leaderboard.Standing> standings) throws IOException {
+        out.write(STANDINGS_OPEN).html(title).write(STANDINGS_HEADER);
+        if (standings.isEmpty()) {
+            out.write(NO_STANDINGS);
+        }
+        for (Leaderboard.Standing s : standings) {
+            out.write(ROW_OPEN).html(s.getLabel()).write(CELL)
+                .decimal(s.getAverage(), 2).write(STAR_CELL)
+                .number(s.getCount()).write(ROW_CLOSE);
+        }
+        out.write(TABLE_CLOSE);
+    }
+    
+    private static void writeSubjectLabels(ReportWriter out, List<String> subjects) throws IOException {
+        for (int i = 0; i < subjects.size(); i++) {
+            if (i > 0) {
+                out.write(SEPARATOR);
+            }
+            out.jsString(subjects.get(i));
+        }
+    }
+    
+    private void writeDistribution(ReportWriter out) throws IOException {
+        RatingHistogram overall = repository.getRatingDistribution(new FeedbackQuery());
+        out.write(DISTRIBUTION_OPEN);
+        for (int rating = RatingHistogram.MAX_RATING; rating >= RatingHistogram.MIN_RATING; rating--) {
+            if (rating < RatingHistogram.MAX_RATING) {
+                out.write(SEPARATOR);
+            }
+            out.number(overall.getCount(rating));
+        }
+    }
+    
+    private void writeSemesterData(ReportWriter out) throws IOException {
+        out.write(SEMESTER_DATA);
+        for (int sem = 1; sem <= 8; sem++) {
+            if (sem > 1) {
+                out.write(SEPARATOR);
+            }
+            out.decimal(repository.getAverageRating(new FeedbackQuery().semester(sem)), 2);
+        }
+        out.write(ARRAY_CLOSE);
+    }
+    
+    /**
+     * Submissions and average rating per week of the current term
+     */
+    private void writeWeeklyData(ReportWriter out, LocalDate termStart) throws IOException {
+        NavigableMap<Long, RatingHistogram> weekly = repository.getTrend(TimeBucket.WEEK, termStart, null);
+        
+        out.write(WEEK_LABELS);
+        boolean first = true;
+        for (Long week : weekly.keySet()) {
+            if (!first) {
+                out.write(SEPARATOR);
+            }
+            out.jsString(LocalDate.ofEpochDay(week).toString());
+            first = false;
+        }
+        out.write(ARRAY_CLOSE).write(WEEK_COUNTS);
+        first = true;
+        for (RatingHistogram histogram : weekly.values()) {
+            if (!first) {
+                out.write(SEPARATOR);
+            }
+            out.number(histogram.getCount());
+            first = false;
+        }
+        out.write(ARRAY_CLOSE).write(WEEK_AVERAGES);
+        first = true;
+        for (RatingHistogram histogram : weekly.values()) {
+            if (!first) {
+                out.write(SEPARATOR);
+            }
+            out.decimal(histogram.getMean(), 2);
+            first = false;
+        }
+        out.write(ARRAY_CLOSE);
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * HyperLogLog Class - Approximate distinct count in constant memory
+ * Each value is hashed to 64 bits; the top bits choose a register and the
+ * register keeps the longest run of leading zeros seen in the rest. With 2^12
+ * registers (4 KB) the standard error is about 1.6% at any cardinality. Two
+ * sketches merge by taking the larger register, so counts can be combined
+ * across subjects, faculty, semesters or partitions. Values cannot be removed.
+ * Demonstrates OOP concepts: Encapsulation, Data Structures
+ */
+public class HyperLogLog {
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    
+    private final byte[] registers = new byte[REGISTERS];
+    
+    public void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Guard bit keeps the rank bounded when the remaining bits are all zero
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+    
+    /**
+     * Fold another sketch into this one; the result counts the union of both
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+    
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog();
+        System.arraycopy(registers, 0, copy.registers, 0, REGISTERS);
+        return copy;
+    }
+    
+    /**
+     * Estimated number of distinct values added
+     */
+    public long estimate() {
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small cardinalities: linear counting over the empty registers is more accurate
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    /**
+     * 64-bit FNV-1a over the characters, finished with a MurmurHash3 mix so
+     * similar USNs spread over all registers
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    public void writeTo(DataOutput out) throws IOException {
+        out.write(registers);
+    }
+    
+    public static HyperLogLog readFrom(DataInput in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog();
+        in.readFully(sketch.registers);
+        return sketch;
+    }
+}
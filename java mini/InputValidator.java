@@ -1,27 +1,127 @@
-import java.util.regex.Pattern;
-
 /**
  * InputValidator Class - Validates user inputs
+ * The check* methods and validateSubmission return error codes without allocating,
+ * for bulk imports where rejections are expected; the validate* methods wrap them
+ * and throw. Exceptions are built from a code only when a caller asks.
  * Demonstrates OOP concepts: Encapsulation, Methods, Exception Handling
  */
 public class InputValidator {
     
-    // USN pattern: Typically like 1AB20CS001 (1 digit + 2 letters + 2 digits + 2 letters + 3 digits)
-    private static final Pattern USN_PATTERN = Pattern.compile("^[0-9][A-Z]{2}[0-9]{2}[A-Z]{2}[0-9]{3}$");
+    // Error codes returned by the allocation-free checks
+    public static final int OK = 0;
+    public static final int USN_EMPTY = 1;
+    public static final int USN_FORMAT = 2;
+    public static final int YEAR_RANGE = 3;
+    public static final int SEMESTER_RANGE = 4;
+    public static final int SUBJECT_EMPTY = 5;
+    public static final int SUBJECT_TOO_SHORT = 6;
+    public static final int FACULTY_EMPTY = 7;
+    public static final int RATING_RANGE = 8;
+    
+    // USN layout: Typically like 1AB20CS001 (1 digit + 2 letters + 2 digits + 2 letters + 3 digits)
+    private static final String USN_LAYOUT = "9AA99AA999";
     
     /**
      * Validate USN format
      */
     public static void validateUSN(String usn) throws InvalidInputException {
-        if (usn == null || usn.trim().isEmpty()) {
-            throw new InvalidInputException("USN", usn, "USN cannot be empty");
+        int error = checkUSN(usn);
+        if (error != OK) {
+            throw exceptionFor(error, usn, 0, 0, null, null, 0);
+        }
+    }
+    
+    /**
+     * Check a USN without trimming, upper-casing or matching a regex.
+     * Surrounding whitespace is ignored and letters may be either case.
+     */
+    public static int checkUSN(String usn) {
+        if (usn == null) {
+            return USN_EMPTY;
+        }
+        int start = 0;
+        int end = usn.length();
+        while (start < end && usn.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && usn.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return USN_EMPTY;
+        }
+        if (end - start != USN_LAYOUT.length()) {
+            return USN_FORMAT;
+        }
+        for (int i = 0; i < USN_LAYOUT.length(); i++) {
+            char c = usn.charAt(start + i);
+            boolean ok = USN_LAYOUT.charAt(i) == '9'
+                ? c >= '0' && c <= '9'
+                : (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+            if (!ok) {
+                return USN_FORMAT;
+            }
         }
-        
-        usn = usn.trim().toUpperCase();
-        
-        if (!USN_PATTERN.matcher(usn).matches()) {
-            throw new InvalidInputException("USN", usn, 
-                "Invalid USN format. Expected format: 1AB20CS001 (e.g., 1CS21CS001)");
+        return OK;
+    }
+    
+    /**
+     * Check every field of a submission in one call
+     * @return OK, or the code of the first field that fails
+     */
+    public static int validateSubmission(String usn, int year, int semester, String subjectName,
+                                         String facultyId, int rating) {
+        int error = checkUSN(usn);
+        if (error == OK) {
+            error = checkYear(year);
+        }
+        if (error == OK) {
+            error = checkSemester(semester);
+        }
+        if (error == OK) {
+            error = checkSubjectName(subjectName);
+        }
+        if (error == OK) {
+            error = checkFacultyId(facultyId);
+        }
+        if (error == OK) {
+            error = checkRating(rating);
+        }
+        return error;
+    }
+    
+    /**
+     * Build the exception describing an error code, with the same field names and
+     * messages the validate* methods use
+     */
+    public static InvalidInputException exceptionFor(int error, String usn, int year, int semester,
+                                                     String subjectName, String facultyId, int rating) {
+        switch (error) {
+            case USN_EMPTY:
+                return new InvalidInputException("USN", usn, "USN cannot be empty");
+            case USN_FORMAT:
+                return new InvalidInputException("USN", usn.trim().toUpperCase(), 
+                    "Invalid USN format. Expected format: 1AB20CS001 (e.g., 1CS21CS001)");
+            case YEAR_RANGE:
+                return new InvalidInputException("Year", String.valueOf(year), 
+                    "Year must be between 1 and 4");
+            case SEMESTER_RANGE:
+                return new InvalidInputException("Semester", String.valueOf(semester), 
+                    "Semester must be between 1 and 8");
+            case SUBJECT_EMPTY:
+                return new InvalidInputException("Subject Name", subjectName, 
+                    "Subject name cannot be empty");
+            case SUBJECT_TOO_SHORT:
+                return new InvalidInputException("Subject Name", subjectName, 
+                    "Subject name must be at least 3 characters long");
+            case FACULTY_EMPTY:
+                return new InvalidInputException("Faculty ID", facultyId, 
+                    "Faculty ID cannot be empty");
+            case RATING_RANGE:
+                return new InvalidInputException("Rating", String.valueOf(rating), 
+                    "Rating must be between 1 and 5");
+            default:
+                return new InvalidInputException("Unknown validation error " + error);
         }
     }
     
@@ -29,55 +129,89 @@ public class InputValidator {
      * Validate year (typically 1-4 for undergraduate)
      */
     public static void validateYear(int year) throws InvalidInputException {
-        if (year < 1 || year > 4) {
-            throw new InvalidInputException("Year", String.valueOf(year), 
-                "Year must be between 1 and 4");
+        int error = checkYear(year);
+        if (error != OK) {
+            throw exceptionFor(error, null, year, 0, null, null, 0);
         }
     }
     
+    public static int checkYear(int year) {
+        return year < 1 || year > 4 ? YEAR_RANGE : OK;
+    }
+    
     /**
      * Validate semester (typically 1-8)
      */
     public static void validateSemester(int semester) throws InvalidInputException {
-        if (semester < 1 || semester > 8) {
-            throw new InvalidInputException("Semester", String.valueOf(semester), 
-                "Semester must be between 1 and 8");
+        int error = checkSemester(semester);
+        if (error != OK) {
+            throw exceptionFor(error, null, 0, semester, null, null, 0);
         }
     }
     
+    public static int checkSemester(int semester) {
+        return semester < 1 || semester > 8 ? SEMESTER_RANGE : OK;
+    }
+    
     /**
      * Validate rating (1-5 scale)
      */
     public static void validateRating(int rating) throws InvalidInputException {
-        if (rating < 1 || rating > 5) {
-            throw new InvalidInputException("Rating", String.valueOf(rating), 
-                "Rating must be between 1 and 5");
+        int error = checkRating(rating);
+        if (error != OK) {
+            throw exceptionFor(error, null, 0, 0, null, null, rating);
         }
     }
     
+    public static int checkRating(int rating) {
+        return rating < 1 || rating > 5 ? RATING_RANGE : OK;
+    }
+    
     /**
      * Validate subject name
      */
     public static void validateSubjectName(String subjectName) throws InvalidInputException {
-        if (subjectName == null || subjectName.trim().isEmpty()) {
-            throw new InvalidInputException("Subject Name", subjectName, 
-                "Subject name cannot be empty");
-        }
-        
-        if (subjectName.trim().length() < 3) {
-            throw new InvalidInputException("Subject Name", subjectName, 
-                "Subject name must be at least 3 characters long");
+        int error = checkSubjectName(subjectName);
+        if (error != OK) {
+            throw exceptionFor(error, null, 0, 0, subjectName, null, 0);
         }
     }
     
+    public static int checkSubjectName(String subjectName) {
+        int length = trimmedLength(subjectName);
+        return length == 0 ? SUBJECT_EMPTY : length < 3 ? SUBJECT_TOO_SHORT : OK;
+    }
+    
     /**
      * Validate faculty ID
      */
     public static void validateFacultyId(String facultyId) throws InvalidInputException {
-        if (facultyId == null || facultyId.trim().isEmpty()) {
-            throw new InvalidInputException("Faculty ID", facultyId, 
-                "Faculty ID cannot be empty");
+        int error = checkFacultyId(facultyId);
+        if (error != OK) {
+            throw exceptionFor(error, null, 0, 0, null, facultyId, 0);
+        }
+    }
+    
+    public static int checkFacultyId(String facultyId) {
+        return trimmedLength(facultyId) == 0 ? FACULTY_EMPTY : OK;
+    }
+    
+    /**
+     * Length the string would have after trim(), without creating it
+     */
+    private static int trimmedLength(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
         }
+        return end - start;
     }
     
     /**
@@ -1,4 +1,6 @@
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -9,11 +11,25 @@ import java.util.*;
 public class JSONHandler {
     
     /**
-     * Save feedback list to JSON file
+     * Save feedback list to JSON file with comments inline
      */
     public static void saveFeedbackToJSON(List<Feedback> feedbackList, String filename) 
             throws DataStorageException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+        saveFeedbackToJSON(feedbackList, filename, null);
+    }
+    
+    /**
+     * Save feedback list to JSON file. When a comment store is given, comments
+     * live in its side file and the JSON only records their offset and length.
+     */
+    public static void saveFeedbackToJSON(List<Feedback> feedbackList, String filename, 
+                                          CommentStore commentStore) throws DataStorageException {
+        long start = MetricsRegistry.startTimer();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        File target = new File(filename);
+        File temp = new File(filename + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(temp))) {
             writer.println("[");
             
             for (int i = 0; i < feedbackList.size(); i++) {
@@ -29,7 +45,13 @@ public class JSONHandler {
                 writer.println("    \"facultyId\": \"" + escapeJson(fb.getFacultyId()) + "\",");
                 writer.println("    \"facultyName\": \"" + escapeJson(fb.getFacultyName()) + "\",");
                 writer.println("    \"rating\": " + fb.getRating() + ",");
-                writer.println("    \"comments\": \"" + escapeJson(fb.getComments()) + "\",");
+                if (commentStore != null) {
+                    commentStore.attach(fb);
+                    writer.println("    \"commentOffset\": " + fb.getCommentOffset() + ",");
+                    writer.println("    \"commentLength\": " + fb.getCommentLength() + ",");
+                } else {
+                    writer.println("    \"comments\": \"" + escapeJson(fb.getComments()) + "\",");
+                }
                 writer.println("    \"timestamp\": \"" + escapeJson(fb.getTimestamp()) + "\"");
                 writer.print("  }");
                 
@@ -41,18 +63,52 @@ public class JSONHandler {
             }
             
             writer.println("]");
+            if (writer.checkError()) {
+                throw new IOException("Write error on " + temp.getPath());
+            }
             
         } catch (IOException e) {
             throw new DataStorageException("WRITE", filename, 
                 "Failed to write feedback data to JSON file", e);
+        } finally {
+            MetricsRegistry.stopTimer("json.saveFeedback", start);
+            commitPersistenceEvent(event, "SAVE", filename, feedbackList.size());
+        }
+        
+        // Moved into place so a failed save never leaves a truncated data file
+        try {
+            Files.move(temp.toPath(), target.toPath(), 
+                StandardCopyOption.REPLACE_EXISTING, 
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", filename, 
+                "Failed to replace feedback JSON file", e);
         }
     }
     
     /**
-     * Load feedback list from JSON file
+     * Load feedback list from JSON file with comments inline
      */
     public static List<Feedback> loadFeedbackFromJSON(String filename) 
             throws DataStorageException {
+        return loadFeedbackFromJSON(filename, null);
+    }
+    
+    /**
+     * Load feedback list from JSON file. Entries that reference the comment side
+     * file are linked to the store without reading any comment text.
+     */
+    public static List<Feedback> loadFeedbackFromJSON(String filename, CommentStore commentStore) 
+            throws DataStorageException {
+        return loadFeedbackFromJSON(filename, commentStore, 0);
+    }
+    
+    /**
+     * Load the feedback entries that start after the given byte offset, e.g. the
+     * entries appended to a file since a checkpoint recorded its length
+     */
+    public static List<Feedback> loadFeedbackFromJSON(String filename, CommentStore commentStore, 
+                                                      long offset) throws DataStorageException {
         List<Feedback> feedbackList = new ArrayList<>();
         File file = new File(filename);
         
@@ -60,25 +116,17 @@ public class JSONHandler {
             return feedbackList; // Return empty list if file doesn't exist
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            StringBuilder jsonContent = new StringBuilder();
-            String line;
-            
-            while ((line = reader.readLine()) != null) {
-                jsonContent.append(line).append("\n");
-            }
-            
-            // Parse JSON manually (simple approach)
-            String content = jsonContent.toString();
-            String[] feedbackObjects = content.split("\\},\\s*\\{");
-            
-            for (String feedbackStr : feedbackObjects) {
+        long start = MetricsRegistry.startTimer();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        try {
+            for (String feedbackStr : readObjects(filename, offset)) {
                 if (feedbackStr.trim().isEmpty() || !feedbackStr.contains("feedbackId")) {
                     continue;
                 }
                 
                 try {
-                    Feedback fb = parseFeedbackObject(feedbackStr);
+                    Feedback fb = parseFeedbackObject(feedbackStr, commentStore);
                     if (fb != null) {
                         feedbackList.add(fb);
                     }
@@ -90,15 +138,144 @@ public class JSONHandler {
         } catch (IOException e) {
             throw new DataStorageException("READ", filename, 
                 "Failed to read feedback data from JSON file", e);
+        } finally {
+            MetricsRegistry.stopTimer("json.loadFeedback", start);
+            commitPersistenceEvent(event, "LOAD", filename, feedbackList.size());
         }
         
         return feedbackList;
     }
     
+    /**
+     * Read a JSON array file and split it into its top-level objects
+     */
+    private static String[] readObjects(String filename) throws IOException {
+        return readObjects(filename, 0);
+    }
+    
+    private static String[] readObjects(String filename, long offset) throws IOException {
+        try (FileInputStream in = new FileInputStream(filename);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
+            in.getChannel().position(offset);
+            StringBuilder jsonContent = new StringBuilder();
+            String line;
+            
+            while ((line = reader.readLine()) != null) {
+                jsonContent.append(line).append("\n");
+            }
+            
+            // Parse JSON manually (simple approach)
+            return jsonContent.toString().split("\\},\\s*\\{");
+        }
+    }
+    
+    /**
+     * Save the partition manifest. The file is written beside the target and
+     * moved into place so readers never see a half-written manifest.
+     */
+    public static void saveManifestToJSON(Collection<FeedbackPartition> partitions, String filename) 
+            throws DataStorageException {
+        File target = new File(filename);
+        File temp = new File(filename + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(temp))) {
+            writer.println("[");
+            
+            int i = 0;
+            for (FeedbackPartition partition : partitions) {
+                StringBuilder years = new StringBuilder();
+                for (int year : partition.getYears()) {
+                    years.append(years.length() == 0 ? "" : ",").append(year);
+                }
+                writer.println("  {");
+                writer.println("    \"academicYear\": \"" + escapeJson(partition.getAcademicYear()) + "\",");
+                writer.println("    \"semester\": " + partition.getSemester() + ",");
+                writer.println("    \"file\": \"" + escapeJson(partition.getFileName()) + "\",");
+                writer.println("    \"recordCount\": " + partition.getRecordCount() + ",");
+                writer.println("    \"years\": \"" + years + "\"");
+                writer.print("  }");
+                
+                if (++i < partitions.size()) {
+                    writer.println(",");
+                } else {
+                    writer.println();
+                }
+            }
+            
+            writer.println("]");
+            if (writer.checkError()) {
+                throw new IOException("Write error on " + temp.getPath());
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", filename, 
+                "Failed to write partition manifest", e);
+        }
+        
+        try {
+            Files.move(temp.toPath(), target.toPath(), 
+                StandardCopyOption.REPLACE_EXISTING, 
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", filename, 
+                "Failed to replace partition manifest", e);
+        }
+    }
+    
+    /**
+     * Load the partition manifest, or an empty list if it does not exist
+     */
+    public static List<FeedbackPartition> loadManifestFromJSON(String filename) 
+            throws DataStorageException {
+        List<FeedbackPartition> partitions = new ArrayList<>();
+        if (!new File(filename).exists()) {
+            return partitions;
+        }
+        
+        try {
+            for (String partitionStr : readObjects(filename)) {
+                if (!partitionStr.contains("academicYear")) {
+                    continue;
+                }
+                FeedbackPartition partition = new FeedbackPartition(
+                    extractValue(partitionStr, "academicYear"),
+                    Integer.parseInt(extractValue(partitionStr, "semester")));
+                List<Integer> years = new ArrayList<>();
+                for (String year : extractValue(partitionStr, "years").split(",")) {
+                    if (!year.trim().isEmpty()) {
+                        years.add(Integer.parseInt(year.trim()));
+                    }
+                }
+                partition.restore(Integer.parseInt(extractValue(partitionStr, "recordCount")), years);
+                partitions.add(partition);
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("READ", filename, 
+                "Failed to read partition manifest", e);
+        } catch (NumberFormatException e) {
+            throw new DataStorageException("READ", filename, 
+                "Partition manifest is corrupt", e);
+        }
+        return partitions;
+    }
+    
+    /**
+     * Fill in and commit a Flight Recorder persistence event if it is enabled
+     */
+    private static void commitPersistenceEvent(PersistenceEvent event, String operation, 
+                                               String filename, int records) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.file = filename;
+            event.records = records;
+            event.bytes = new File(filename).length();
+            event.commit();
+        }
+    }
+    
     /**
      * Parse a single feedback object from JSON string
      */
-    private static Feedback parseFeedbackObject(String jsonStr) {
+    private static Feedback parseFeedbackObject(String jsonStr, CommentStore commentStore) {
         try {
             String feedbackId = extractValue(jsonStr, "feedbackId");
             String usn = extractValue(jsonStr, "usn");
@@ -110,14 +287,18 @@ public class JSONHandler {
             String facultyId = extractValue(jsonStr, "facultyId");
             String facultyName = extractValue(jsonStr, "facultyName");
             int rating = Integer.parseInt(extractValue(jsonStr, "rating"));
-            String comments = extractValue(jsonStr, "comments");
+            boolean hasReference = commentStore != null && jsonStr.contains("\"commentOffset\":");
+            String comments = hasReference ? "" : extractValue(jsonStr, "comments");
             String timestamp = extractValue(jsonStr, "timestamp");
             
-            Feedback fb = new Feedback(usn, studentName, year, semester, 
+            Feedback fb = new Feedback(feedbackId, usn, studentName, year, semester, 
                                       subjectCode, subjectName, facultyId, 
-                                      facultyName, rating, comments);
-            fb.setFeedbackId(feedbackId);
-            fb.setTimestamp(timestamp);
+                                      facultyName, rating, comments, timestamp);
+            if (hasReference) {
+                fb.setCommentReference(commentStore, 
+                    Long.parseLong(extractValue(jsonStr, "commentOffset")),
+                    Integer.parseInt(extractValue(jsonStr, "commentLength")));
+            }
             
             return fb;
         } catch (Exception e) {
@@ -130,7 +311,7 @@ public class JSONHandler {
      * Extract value from JSON string for a given key
      */
     private static String extractValue(String jsonStr, String key) {
-        String pattern = "\"" + key + "\":\\s*";
+        String pattern = "\"" + key + "\":";
         int startIndex = jsonStr.indexOf(pattern);
         
         if (startIndex == -1) {
@@ -139,11 +320,22 @@ public class JSONHandler {
         
         startIndex += pattern.length();
         
+        // Skip whitespace between the colon and the value
+        while (startIndex < jsonStr.length() && Character.isWhitespace(jsonStr.charAt(startIndex))) {
+            startIndex++;
+        }
+        if (startIndex >= jsonStr.length()) {
+            return "";
+        }
+        
         // Check if value is a string (starts with quote)
         if (jsonStr.charAt(startIndex) == '"') {
             startIndex++; // Skip opening quote
-            int endIndex = jsonStr.indexOf("\"", startIndex);
-            if (endIndex == -1) {
+            int endIndex = startIndex;
+            while (endIndex < jsonStr.length() && jsonStr.charAt(endIndex) != '"') {
+                endIndex += jsonStr.charAt(endIndex) == '\\' ? 2 : 1;  // Skip escaped characters
+            }
+            if (endIndex >= jsonStr.length()) {
                 return "";
             }
             return unescapeJson(jsonStr.substring(startIndex, endIndex));
@@ -166,7 +358,7 @@ public class JSONHandler {
     /**
      * Escape special characters for JSON
      */
-    private static String escapeJson(String str) {
+    static String escapeJson(String str) {
         if (str == null) {
             return "";
         }
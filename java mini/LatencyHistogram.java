@@ -0,0 +1,89 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram Class - Lock-free HDR-style histogram of durations in nanoseconds
+ * Values below 128 get their own bucket; larger values are grouped by power of two,
+ * each split into 64 linear sub-buckets, which keeps every recorded value within
+ * about 1.6% of its true size while using a fixed 30 KB array.
+ * Demonstrates OOP concepts: Encapsulation, Concurrency
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;      // 64 per power of two
+    private static final int EXACT_LIMIT = SUB_BUCKETS * 2;           // 0..127 recorded exactly
+    private static final int BUCKET_COUNT = EXACT_LIMIT + 57 * SUB_BUCKETS;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Record one duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+    
+    /**
+     * Value at the given percentile (0-100), in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(midpointOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    private static int bucketOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;   // >= 1
+        int top = (int) (value >>> shift);                                     // 64..127
+        return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+    
+    private static long midpointOf(int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        int offset = bucket - EXACT_LIMIT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long top = SUB_BUCKETS + offset % SUB_BUCKETS;
+        return (top << shift) + ((1L << shift) >>> 1);
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Leaderboard Class - Incrementally maintained ranking of entities by average rating
+ * Each rating updates one entry and re-positions it in a sorted set, so updates
+ * cost O(log n) and top-K / bottom-K reads cost O(K). Entities with fewer than
+ * minCount ratings are tracked but left out of the ranking.
+ * Demonstrates OOP concepts: Encapsulation, Nested Classes, Collections
+ */
+public class Leaderboard {
+    private final int minCount;
+    private final Map<String, Entry> entries;
+    private final TreeSet<Entry> ranked;
+    
+    public Leaderboard(int minCount) {
+        this.minCount = Math.max(1, minCount);
+        this.entries = new HashMap<>();
+        // Highest average first; ties broken by more ratings, then by key
+        this.ranked = new TreeSet<>((a, b) -> {
+            int cmp = Long.compare(b.sum * a.count, a.sum * b.count);
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Integer.compare(b.count, a.count);
+            return cmp != 0 ? cmp : a.key.compareTo(b.key);
+        });
+    }
+    
+    /**
+     * Record one rating for an entity
+     */
+    public void record(String key, String label, int rating) {
+        Entry entry = entries.computeIfAbsent(key, Entry::new);
+        ranked.remove(entry);
+        entry.label = label;
+        entry.sum += rating;
+        entry.count++;
+        if (entry.count >= minCount) {
+            ranked.add(entry);
+        }
+    }
+    
+    /**
+     * Withdraw a rating previously recorded for an entity
+     */
+    public void unrecord(String key, int rating) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        ranked.remove(entry);
+        entry.sum -= rating;
+        entry.count--;
+        if (entry.count <= 0) {
+            entries.remove(key);
+        } else if (entry.count >= minCount) {
+            ranked.add(entry);
+        }
+    }
+    
+    /**
+     * Highest-rated entities, best first
+     */
+    public List<Standing> top(int k) {
+        return collect(ranked.iterator(), k);
+    }
+    
+    /**
+     * Lowest-rated entities, worst first
+     */
+    public List<Standing> bottom(int k) {
+        return collect(ranked.descendingIterator(), k);
+    }
+    
+    /**
+     * Average rating for an entity, 0.0 if unknown
+     */
+    public double average(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0.0 : (double) entry.sum / entry.count;
+    }
+    
+    /**
+     * Number of ratings for an entity
+     */
+    public int count(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0 : entry.count;
+    }
+    
+    /**
+     * Sum of an entity's ratings, 0 if unknown
+     */
+    public long sum(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0 : entry.sum;
+    }
+    
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+    
+    /**
+     * Add another leaderboard's running totals to this one; entities present in
+     * both are combined, so partial totals from several shards merge exactly
+     */
+    public void mergeFrom(Leaderboard other) {
+        for (Entry theirs : other.entries.values()) {
+            Entry entry = entries.computeIfAbsent(theirs.key, Entry::new);
+            ranked.remove(entry);
+            entry.label = theirs.label;
+            entry.sum += theirs.sum;
+            entry.count += theirs.count;
+            if (entry.count >= minCount) {
+                ranked.add(entry);
+            }
+        }
+    }
+    
+    public int getMinCount() {
+        return minCount;
+    }
+    
+    /**
+     * Write the running totals, for reading back with readFrom
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(entries.size());
+        for (Entry entry : entries.values()) {
+            out.writeUTF(entry.key);
+            out.writeUTF(entry.label);
+            out.writeLong(entry.sum);
+            out.writeInt(entry.count);
+        }
+    }
+    
+    /**
+     * Read totals written by writeTo into an empty leaderboard
+     */
+    public static Leaderboard readFrom(DataInput in, int minCount) throws IOException {
+        Leaderboard board = new Leaderboard(minCount);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry(in.readUTF());
+            entry.label = in.readUTF();
+            entry.sum = in.readLong();
+            entry.count = in.readInt();
+            board.entries.put(entry.key, entry);
+            if (entry.count >= board.minCount) {
+                board.ranked.add(entry);
+            }
+        }
+        return board;
+    }
+    
+    private static List<Standing> collect(Iterator<Entry> it, int k) {
+        List<Standing> result = new ArrayList<>(Math.max(0, k));
+        while (it.hasNext() && result.size() < k) {
+            Entry e = it.next();
+            result.add(new Standing(e.key, e.label, e.count, (double) e.sum / e.count));
+        }
+        return result;
+    }
+    
+    /**
+     * Mutable running total for one entity
+     */
+    private static class Entry {
+        private final String key;
+        private String label;
+        private long sum;
+        private int count;
+        
+        Entry(String key) {
+            this.key = key;
+        }
+    }
+    
+    /**
+     * Immutable snapshot of one leaderboard position
+     */
+    public static class Standing {
+        private final String key;
+        private final String label;
+        private final int count;
+        private final double average;
+        
+        public Standing(String key, String label, int count, double average) {
+            this.key = key;
+            this.label = label;
+            this.count = count;
+            this.average = average;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public double getAverage() {
+            return average;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: %.2f (%d ratings)", label, average, count);
+        }
+    }
+}
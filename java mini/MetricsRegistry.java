@@ -0,0 +1,130 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MetricsRegistry Class - In-process counters and latency histograms for hot paths
+ * Usage:
+ *   long start = MetricsRegistry.startTimer();
+ *   try { ... } finally { MetricsRegistry.stopTimer("json.saveFeedback", start); }
+ * Demonstrates OOP concepts: Static Utility Class, Concurrency, File I/O
+ */
+public class MetricsRegistry {
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private static final long startedAt = System.nanoTime();
+    
+    private MetricsRegistry() {
+    }
+    
+    /**
+     * Start timing an operation
+     */
+    public static long startTimer() {
+        return System.nanoTime();
+    }
+    
+    /**
+     * Record the time since startTimer() under the given name
+     */
+    public static void stopTimer(String name, long startNanos) {
+        timers.computeIfAbsent(name, n -> new LatencyHistogram()).record(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Increment a counter by one
+     */
+    public static void increment(String name) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Increment a counter by a given amount
+     */
+    public static void increment(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).add(delta);
+    }
+    
+    public static long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+    
+    public static LatencyHistogram getTimer(String name) {
+        return timers.get(name);
+    }
+    
+    /**
+     * Seconds since the registry was loaded
+     */
+    public static double getUptimeSeconds() {
+        return (System.nanoTime() - startedAt) / 1e9;
+    }
+    
+    /**
+     * Print all timers and counters as a table
+     */
+    public static void displayMetrics() {
+        double uptime = getUptimeSeconds();
+        System.out.println("\n========== PERFORMANCE METRICS ==========");
+        System.out.printf("Uptime: %.1f s\n", uptime);
+        
+        if (timers.isEmpty() && counters.isEmpty()) {
+            System.out.println("No operations recorded yet.");
+            return;
+        }
+        
+        System.out.println("\n--- Latency (ms) ---");
+        System.out.printf("%-28s %8s %9s %9s %9s %9s %9s\n", 
+            "Operation", "Count", "p50", "p99", "p99.9", "Max", "Ops/s");
+        for (String name : new TreeSet<>(timers.keySet())) {
+            LatencyHistogram h = timers.get(name);
+            System.out.printf("%-28s %8d %9.3f %9.3f %9.3f %9.3f %9.2f\n", 
+                name, h.getCount(), 
+                h.getPercentile(50) / 1e6, h.getPercentile(99) / 1e6, h.getPercentile(99.9) / 1e6,
+                h.getMax() / 1e6, h.getCount() / uptime);
+        }
+        
+        if (!counters.isEmpty()) {
+            System.out.println("\n--- Counters ---");
+            for (String name : new TreeSet<>(counters.keySet())) {
+                System.out.printf("%-28s %8d\n", name, counters.get(name).sum());
+            }
+        }
+        System.out.println("=".repeat(60));
+    }
+    
+    /**
+     * Write all timers and counters to a JSON file
+     */
+    public static void exportToJSON(String filename) throws DataStorageException {
+        double uptime = getUptimeSeconds();
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename)))) {
+            writer.println("{");
+            writer.printf(Locale.ROOT, "  \"uptimeSeconds\": %.3f,\n", uptime);
+            writer.println("  \"timers\": {");
+            List<String> names = new ArrayList<>(new TreeSet<>(timers.keySet()));
+            for (int i = 0; i < names.size(); i++) {
+                LatencyHistogram h = timers.get(names.get(i));
+                writer.printf(Locale.ROOT, 
+                    "    \"%s\": { \"count\": %d, \"meanNanos\": %.0f, \"p50Nanos\": %d, \"p99Nanos\": %d, "
+                    + "\"p999Nanos\": %d, \"maxNanos\": %d, \"opsPerSecond\": %.3f }%s\n",
+                    names.get(i), h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(99),
+                    h.getPercentile(99.9), h.getMax(), h.getCount() / uptime, 
+                    i < names.size() - 1 ? "," : "");
+            }
+            writer.println("  },");
+            writer.println("  \"counters\": {");
+            names = new ArrayList<>(new TreeSet<>(counters.keySet()));
+            for (int i = 0; i < names.size(); i++) {
+                writer.printf("    \"%s\": %d%s\n", names.get(i), counters.get(names.get(i)).sum(),
+                    i < names.size() - 1 ? "," : "");
+            }
+            writer.println("  }");
+            writer.println("}");
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", filename, "Failed to write metrics file", e);
+        }
+    }
+}
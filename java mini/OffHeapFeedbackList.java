@@ -0,0 +1,253 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * OffHeapFeedbackList Class - Feedback rows kept outside the Java heap
+ * Each row is a fixed-width slot in a direct buffer: ratings and years as bytes,
+ * strings as references into a variable-length area of UTF-8 text. The
+ * collector never traces the rows, so millions of them add nothing to old-gen
+ * pauses. get() builds a Feedback view from the slot each time it is called,
+ * so only rows a caller actually reads become objects.
+ * Subject and faculty strings repeat across rows and are stored once; text of
+ * an overwritten row is not reclaimed until the list is rebuilt.
+ * Demonstrates OOP concepts: Inheritance (AbstractList), Encapsulation, Memory Layout
+ */
+public class OffHeapFeedbackList extends AbstractList<Feedback> implements RandomAccess {
+    // Slot layout: eight string references, the inline comment reference,
+    // the comment side-file location, then year / semester / rating
+    private static final int FEEDBACK_ID = 0;
+    private static final int USN = 8;
+    private static final int STUDENT_NAME = 16;
+    private static final int SUBJECT_CODE = 24;
+    private static final int SUBJECT_NAME = 32;
+    private static final int FACULTY_ID = 40;
+    private static final int FACULTY_NAME = 48;
+    private static final int TIMESTAMP = 56;
+    private static final int INLINE_COMMENT = 64;
+    private static final int COMMENT_OFFSET = 72;
+    private static final int COMMENT_LENGTH = 80;
+    private static final int YEAR = 84;
+    private static final int SEMESTER = 85;
+    private static final int RATING = 86;
+    private static final int SLOT_SIZE = 88;
+    
+    private static final int SLOTS_PER_CHUNK = 1 << 16;
+    private static final int TEXT_CHUNK_SIZE = 1 << 22;
+    private static final long NO_TEXT = -1;
+    
+    private final CommentStore commentStore;
+    private final List<ByteBuffer> slotChunks = new ArrayList<>();
+    private final List<ByteBuffer> textChunks = new ArrayList<>();
+    private int textPosition = TEXT_CHUNK_SIZE;
+    private int size;
+    
+    // Low-cardinality strings (subject and faculty) -> text reference, and back,
+    // so views share one String per subject or faculty instead of decoding it
+    private final Map<String, Long> shared = new HashMap<>();
+    private final Map<Long, String> sharedText = new HashMap<>();
+    
+    /**
+     * @param commentStore store that comment references in this list point into
+     */
+    public OffHeapFeedbackList(CommentStore commentStore) {
+        this.commentStore = commentStore;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean add(Feedback fb) {
+        if (size == slotChunks.size() * SLOTS_PER_CHUNK) {
+            slotChunks.add(ByteBuffer.allocateDirect(SLOTS_PER_CHUNK * SLOT_SIZE));
+        }
+        write(size, fb);
+        size++;
+        modCount++;
+        return true;
+    }
+    
+    @Override
+    public Feedback set(int row, Feedback fb) {
+        Feedback old = get(row);
+        write(row, fb);
+        return old;
+    }
+    
+    @Override
+    public Feedback get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        ByteBuffer slots = slotChunks.get(row / SLOTS_PER_CHUNK);
+        int base = (row % SLOTS_PER_CHUNK) * SLOT_SIZE;
+        long commentOffset = slots.getLong(base + COMMENT_OFFSET);
+        String comments = commentOffset < 0 ? readText(slots.getLong(base + INLINE_COMMENT)) : null;
+        
+        Feedback fb = new Feedback(readText(slots.getLong(base + FEEDBACK_ID)),
+            readText(slots.getLong(base + USN)), readText(slots.getLong(base + STUDENT_NAME)),
+            slots.get(base + YEAR), slots.get(base + SEMESTER),
+            readShared(slots.getLong(base + SUBJECT_CODE)), readShared(slots.getLong(base + SUBJECT_NAME)),
+            readShared(slots.getLong(base + FACULTY_ID)), readShared(slots.getLong(base + FACULTY_NAME)),
+            slots.get(base + RATING), comments, readText(slots.getLong(base + TIMESTAMP)));
+        if (commentOffset >= 0) {
+            fb.setCommentReference(commentStore, commentOffset, slots.getInt(base + COMMENT_LENGTH));
+        }
+        return fb;
+    }
+    
+    /**
+     * Key fields of a row, read from its slot without building a Feedback view
+     */
+    public String getFeedbackId(int row) {
+        return readText(reference(row, FEEDBACK_ID));
+    }
+    
+    public String getUsn(int row) {
+        return readText(reference(row, USN));
+    }
+    
+    public String getSubjectCode(int row) {
+        return readShared(reference(row, SUBJECT_CODE));
+    }
+    
+    public String getFacultyId(int row) {
+        return readShared(reference(row, FACULTY_ID));
+    }
+    
+    public String getTimestamp(int row) {
+        return readText(reference(row, TIMESTAMP));
+    }
+    
+    public int getSemester(int row) {
+        return slotChunks.get(row / SLOTS_PER_CHUNK).get((row % SLOTS_PER_CHUNK) * SLOT_SIZE + SEMESTER);
+    }
+    
+    private long reference(int row, int field) {
+        return slotChunks.get(row / SLOTS_PER_CHUNK).getLong((row % SLOTS_PER_CHUNK) * SLOT_SIZE + field);
+    }
+    
+    @Override
+    public void clear() {
+        slotChunks.clear();
+        textChunks.clear();
+        shared.clear();
+        sharedText.clear();
+        textPosition = TEXT_CHUNK_SIZE;
+        size = 0;
+        modCount++;
+    }
+    
+    /**
+     * Record that a row's comment has moved to the side file. Saving attaches
+     * comments on the views handed out by get(), so the slot is updated here.
+     */
+    public void syncCommentReference(int row, Feedback fb) {
+        if (!fb.hasCommentReference()) {
+            return;
+        }
+        ByteBuffer slots = slotChunks.get(row / SLOTS_PER_CHUNK);
+        int base = (row % SLOTS_PER_CHUNK) * SLOT_SIZE;
+        if (slots.getLong(base + COMMENT_OFFSET) < 0) {
+            slots.putLong(base + COMMENT_OFFSET, fb.getCommentOffset());
+            slots.putInt(base + COMMENT_LENGTH, fb.getCommentLength());
+            slots.putLong(base + INLINE_COMMENT, NO_TEXT);
+        }
+    }
+    
+    /**
+     * Direct memory held by the slots and the text area
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : slotChunks) {
+            bytes += chunk.capacity();
+        }
+        for (ByteBuffer chunk : textChunks) {
+            bytes += chunk.capacity();
+        }
+        return bytes;
+    }
+    
+    private void write(int row, Feedback fb) {
+        ByteBuffer slots = slotChunks.get(row / SLOTS_PER_CHUNK);
+        int base = (row % SLOTS_PER_CHUNK) * SLOT_SIZE;
+        slots.putLong(base + FEEDBACK_ID, writeText(fb.getFeedbackId()));
+        slots.putLong(base + USN, writeText(fb.getUsn()));
+        slots.putLong(base + STUDENT_NAME, writeText(fb.getStudentName()));
+        slots.putLong(base + SUBJECT_CODE, writeShared(fb.getSubjectCode()));
+        slots.putLong(base + SUBJECT_NAME, writeShared(fb.getSubjectName()));
+        slots.putLong(base + FACULTY_ID, writeShared(fb.getFacultyId()));
+        slots.putLong(base + FACULTY_NAME, writeShared(fb.getFacultyName()));
+        slots.putLong(base + TIMESTAMP, writeText(fb.getTimestamp()));
+        if (fb.hasCommentReference()) {
+            slots.putLong(base + INLINE_COMMENT, NO_TEXT);
+            slots.putLong(base + COMMENT_OFFSET, fb.getCommentOffset());
+            slots.putInt(base + COMMENT_LENGTH, fb.getCommentLength());
+        } else {
+            slots.putLong(base + INLINE_COMMENT, writeText(fb.getComments()));
+            slots.putLong(base + COMMENT_OFFSET, -1);
+            slots.putInt(base + COMMENT_LENGTH, 0);
+        }
+        slots.put(base + YEAR, (byte) fb.getYear());
+        slots.put(base + SEMESTER, (byte) fb.getSemester());
+        slots.put(base + RATING, (byte) fb.getRating());
+    }
+    
+    private long writeShared(String text) {
+        if (text == null) {
+            return NO_TEXT;
+        }
+        Long ref = shared.get(text);
+        if (ref == null) {
+            ref = writeText(text);
+            shared.put(text, ref);
+            sharedText.put(ref, text);
+        }
+        return ref;
+    }
+    
+    /**
+     * Append length-prefixed UTF-8 text; the reference is (chunk << 32) | position
+     */
+    private long writeText(String text) {
+        if (text == null) {
+            return NO_TEXT;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int needed = 4 + bytes.length;
+        if (textPosition + needed > TEXT_CHUNK_SIZE) {
+            // Text longer than a chunk gets a chunk of its own
+            textChunks.add(ByteBuffer.allocateDirect(Math.max(TEXT_CHUNK_SIZE, needed)));
+            textPosition = 0;
+        }
+        int chunk = textChunks.size() - 1;
+        ByteBuffer buffer = textChunks.get(chunk);
+        buffer.putInt(textPosition, bytes.length);
+        buffer.put(textPosition + 4, bytes);
+        long ref = ((long) chunk << 32) | textPosition;
+        textPosition += needed;
+        if (needed > TEXT_CHUNK_SIZE) {
+            textPosition = TEXT_CHUNK_SIZE;
+        }
+        return ref;
+    }
+    
+    private String readShared(long ref) {
+        return ref == NO_TEXT ? null : sharedText.get(ref);
+    }
+    
+    private String readText(long ref) {
+        if (ref == NO_TEXT) {
+            return null;
+        }
+        ByteBuffer buffer = textChunks.get((int) (ref >>> 32));
+        int position = (int) ref;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * ParticipationSketches Class - Distinct-student counts per subject, faculty and semester
+ * Keeps one HyperLogLog per entity, fed with the USN of every stored entry.
+ * Counts are estimates; a union across several entities merges their sketches.
+ * Replacing an entry does not withdraw the old USN, which only matters when a
+ * replacement changes the student, so estimates can run slightly high then.
+ * Demonstrates OOP concepts: Encapsulation, Composition, Collections
+ */
+public class ParticipationSketches {
+    private final Map<String, HyperLogLog> bySubject = new HashMap<>();
+    private final Map<String, HyperLogLog> byFaculty = new HashMap<>();
+    private final Map<Integer, HyperLogLog> bySemester = new HashMap<>();
+    private final HyperLogLog overall = new HyperLogLog();
+    
+    public void add(Feedback fb) {
+        String usn = fb.getUsn().toUpperCase();
+        bySubject.computeIfAbsent(fb.getSubjectName().toLowerCase(), k -> new HyperLogLog()).add(usn);
+        byFaculty.computeIfAbsent(fb.getFacultyId().toUpperCase(), k -> new HyperLogLog()).add(usn);
+        bySemester.computeIfAbsent(fb.getSemester(), k -> new HyperLogLog()).add(usn);
+        overall.add(usn);
+    }
+    
+    public long estimateBySubject(String subjectName) {
+        return estimate(bySubject.get(subjectName.toLowerCase()));
+    }
+    
+    public long estimateByFaculty(String facultyId) {
+        return estimate(byFaculty.get(facultyId.toUpperCase()));
+    }
+    
+    public long estimateBySemester(int semester) {
+        return estimate(bySemester.get(semester));
+    }
+    
+    public long estimateOverall() {
+        return overall.estimate();
+    }
+    
+    /**
+     * Students who rated at least one of the given subjects
+     */
+    public long estimateAcrossSubjects(Collection<String> subjectNames) {
+        HyperLogLog union = new HyperLogLog();
+        for (String subjectName : subjectNames) {
+            HyperLogLog sketch = bySubject.get(subjectName.toLowerCase());
+            if (sketch != null) {
+                union.merge(sketch);
+            }
+        }
+        return union.estimate();
+    }
+    
+    /**
+     * Students who rated a subject in this set or in another one
+     */
+    public long estimateBySubject(String subjectName, ParticipationSketches other) {
+        String key = subjectName.toLowerCase();
+        return estimate(bySubject.get(key), other.bySubject.get(key));
+    }
+    
+    /**
+     * Students who rated a faculty member in this set or in another one
+     */
+    public long estimateByFaculty(String facultyId, ParticipationSketches other) {
+        String key = facultyId.toUpperCase();
+        return estimate(byFaculty.get(key), other.byFaculty.get(key));
+    }
+    
+    /**
+     * Students who submitted feedback in a semester in this set or in another one
+     */
+    public long estimateBySemester(int semester, ParticipationSketches other) {
+        return estimate(bySemester.get(semester), other.bySemester.get(semester));
+    }
+    
+    /**
+     * Students who rated at least one of the subjects in this set or in another one
+     */
+    public long estimateAcrossSubjects(Collection<String> subjectNames, ParticipationSketches other) {
+        HyperLogLog union = new HyperLogLog();
+        for (String subjectName : subjectNames) {
+            for (ParticipationSketches sketches : Arrays.asList(this, other)) {
+                HyperLogLog sketch = sketches.bySubject.get(subjectName.toLowerCase());
+                if (sketch != null) {
+                    union.merge(sketch);
+                }
+            }
+        }
+        return union.estimate();
+    }
+    
+    /**
+     * Add another set's sketches to this one; each count becomes the union of both
+     */
+    public void mergeFrom(ParticipationSketches other) {
+        mergeMap(bySubject, other.bySubject);
+        mergeMap(byFaculty, other.byFaculty);
+        mergeMap(bySemester, other.bySemester);
+        overall.merge(other.overall);
+    }
+    
+    private static <K> void mergeMap(Map<K, HyperLogLog> into, Map<K, HyperLogLog> from) {
+        for (Map.Entry<K, HyperLogLog> entry : from.entrySet()) {
+            into.computeIfAbsent(entry.getKey(), k -> new HyperLogLog()).merge(entry.getValue());
+        }
+    }
+    
+    private static long estimate(HyperLogLog sketch) {
+        return sketch == null ? 0 : sketch.estimate();
+    }
+    
+    private static long estimate(HyperLogLog sketch, HyperLogLog other) {
+        if (sketch == null || other == null) {
+            return estimate(sketch == null ? other : sketch);
+        }
+        HyperLogLog union = sketch.copy();
+        union.merge(other);
+        return union.estimate();
+    }
+    
+    public void writeTo(DataOutput out) throws IOException {
+        writeMap(out, bySubject);
+        writeMap(out, byFaculty);
+        out.writeInt(bySemester.size());
+        for (Map.Entry<Integer, HyperLogLog> entry : bySemester.entrySet()) {
+            out.writeInt(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+        overall.writeTo(out);
+    }
+    
+    private static void writeMap(DataOutput out, Map<String, HyperLogLog> sketches) throws IOException {
+        out.writeInt(sketches.size());
+        for (Map.Entry<String, HyperLogLog> entry : sketches.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+    
+    public static ParticipationSketches readFrom(DataInput in) throws IOException {
+        ParticipationSketches sketches = new ParticipationSketches();
+        readMap(in, sketches.bySubject);
+        readMap(in, sketches.byFaculty);
+        int semesters = in.readInt();
+        for (int i = 0; i < semesters; i++) {
+            sketches.bySemester.put(in.readInt(), HyperLogLog.readFrom(in));
+        }
+        sketches.overall.merge(HyperLogLog.readFrom(in));
+        return sketches;
+    }
+    
+    private static void readMap(DataInput in, Map<String, HyperLogLog> sketches) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            sketches.put(in.readUTF(), HyperLogLog.readFrom(in));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * PartitionSummary Class - Aggregates of partitions left on disk
+ * Holds what loading a partition would add to the repository's leaderboards,
+ * rating and participation sketches and name lists, so reports over all
+ * feedback include older academic years without parsing their files. Each
+ * older partition's summary is saved beside its JSON file with the file's
+ * size and modification time, and is ignored once the file has changed.
+ * Summaries of several partitions merge into one.
+ * Demonstrates OOP concepts: Encapsulation, Composition, File I/O
+ */
+public class PartitionSummary {
+    private static final int MAGIC = 0x46425053; // "FBPS"
+    private static final int VERSION = 4;
+    
+    // Size and modification time of the summarized file; null for a merged summary
+    private final String stamp;
+    private final Set<String> partitionKeys = new TreeSet<>();
+    private final Leaderboard facultyTotals;
+    private final Leaderboard subjectTotals;
+    private final RatingSketchIndex facultySketches;
+    private final RatingSketchIndex subjectSketches;
+    private final RatingSketchIndex overallSketches;
+    private final ParticipationSketches participation;
+    private final Set<String> subjectNames = new TreeSet<>();
+    private final Set<String> facultyLabels = new TreeSet<>();
+    
+    /**
+     * Empty summary, for merging others into
+     */
+    public PartitionSummary() {
+        this(null, new Leaderboard(1), new Leaderboard(1), new RatingSketchIndex(), new RatingSketchIndex(),
+            new RatingSketchIndex(), new ParticipationSketches());
+    }
+    
+    private PartitionSummary(String stamp, Leaderboard facultyTotals, Leaderboard subjectTotals,
+                             RatingSketchIndex facultySketches, RatingSketchIndex subjectSketches,
+                             RatingSketchIndex overallSketches, ParticipationSketches participation) {
+        this.stamp = stamp;
+        this.facultyTotals = facultyTotals;
+        this.subjectTotals = subjectTotals;
+        this.facultySketches = facultySketches;
+        this.subjectSketches = subjectSketches;
+        this.overallSketches = overallSketches;
+        this.participation = participation;
+    }
+    
+    /**
+     * Summarize the rows of one partition file as read at the given stamp
+     */
+    public static PartitionSummary of(String partitionKey, String stamp, List<Feedback> rows) {
+        PartitionSummary summary = new PartitionSummary(stamp, new Leaderboard(1), new Leaderboard(1),
+            new RatingSketchIndex(), new RatingSketchIndex(), new RatingSketchIndex(), new ParticipationSketches());
+        summary.partitionKeys.add(partitionKey);
+        for (Feedback fb : rows) {
+            summary.add(fb);
+        }
+        return summary;
+    }
+    
+    // Keyed the same way as the repository's own indexes
+    private void add(Feedback fb) {
+        String facultyLabel = fb.getFacultyName() + " (" + fb.getFacultyId() + ")";
+        facultyTotals.record(fb.getFacultyId().toUpperCase(), facultyLabel, fb.getRating());
+        subjectTotals.record(fb.getSubjectName().toLowerCase(), fb.getSubjectName(), fb.getRating());
+        facultySketches.add(fb.getFacultyId().toUpperCase(), fb.getTimestamp(), fb.getRating());
+        subjectSketches.add(fb.getSubjectName().toLowerCase(), fb.getTimestamp(), fb.getRating());
+        overallSketches.add(FeedbackRepository.ALL, fb.getTimestamp(), fb.getRating());
+        participation.add(fb);
+        subjectNames.add(fb.getSubjectName());
+        facultyLabels.add(facultyLabel);
+    }
+    
+    /**
+     * Add another summary's partitions to this one
+     */
+    public void mergeFrom(PartitionSummary other) {
+        partitionKeys.addAll(other.partitionKeys);
+        facultyTotals.mergeFrom(other.facultyTotals);
+        subjectTotals.mergeFrom(other.subjectTotals);
+        facultySketches.mergeFrom(other.facultySketches);
+        subjectSketches.mergeFrom(other.subjectSketches);
+        overallSketches.mergeFrom(other.overallSketches);
+        participation.mergeFrom(other.participation);
+        subjectNames.addAll(other.subjectNames);
+        facultyLabels.addAll(other.facultyLabels);
+    }
+    
+    public String getStamp() {
+        return stamp;
+    }
+    
+    /**
+     * Keys of the partitions summarized
+     */
+    public Set<String> getPartitionKeys() {
+        return Collections.unmodifiableSet(partitionKeys);
+    }
+    
+    public boolean isEmpty() {
+        return partitionKeys.isEmpty();
+    }
+    
+    public Leaderboard getFacultyTotals() {
+        return facultyTotals;
+    }
+    
+    public Leaderboard getSubjectTotals() {
+        return subjectTotals;
+    }
+    
+    public RatingSketchIndex getFacultySketches() {
+        return facultySketches;
+    }
+    
+    public RatingSketchIndex getSubjectSketches() {
+        return subjectSketches;
+    }
+    
+    public RatingSketchIndex getOverallSketches() {
+        return overallSketches;
+    }
+    
+    public ParticipationSketches getParticipation() {
+        return participation;
+    }
+    
+    public Set<String> getSubjectNames() {
+        return Collections.unmodifiableSet(subjectNames);
+    }
+    
+    public Set<String> getFacultyLabels() {
+        return Collections.unmodifiableSet(facultyLabels);
+    }
+    
+    /**
+     * Write the summary beside the target and move it into place. Readers never
+     * hold the directory lock, so the temporary file gets a unique name.
+     */
+    public void writeTo(File file) throws DataStorageException {
+        File temp;
+        try {
+            temp = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(),
+                file.getName(), ".tmp").toFile();
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", file.getPath(), "Failed to create partition summary", e);
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(stamp);
+            writeStrings(out, partitionKeys);
+            writeStrings(out, subjectNames);
+            writeStrings(out, facultyLabels);
+            facultyTotals.writeTo(out);
+            subjectTotals.writeTo(out);
+            facultySketches.writeTo(out);
+            subjectSketches.writeTo(out);
+            overallSketches.writeTo(out);
+            participation.writeTo(out);
+        } catch (IOException e) {
+            temp.delete();
+            throw new DataStorageException("WRITE", file.getPath(), "Failed to write partition summary", e);
+        }
+        
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temp.delete();
+            throw new DataStorageException("WRITE", file.getPath(), "Failed to replace partition summary", e);
+        }
+    }
+    
+    private static void writeStrings(DataOutput out, Set<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+    }
+    
+    /**
+     * Read a summary, or return null if there is none for the file at this stamp
+     */
+    public static PartitionSummary readFrom(File file, String stamp) throws DataStorageException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(stamp)) {
+                return null;
+            }
+            Set<String> partitionKeys = readStrings(in);
+            Set<String> subjectNames = readStrings(in);
+            Set<String> facultyLabels = readStrings(in);
+            PartitionSummary summary = new PartitionSummary(stamp, Leaderboard.readFrom(in, 1),
+                Leaderboard.readFrom(in, 1), RatingSketchIndex.readFrom(in), RatingSketchIndex.readFrom(in),
+                RatingSketchIndex.readFrom(in), ParticipationSketches.readFrom(in));
+            summary.partitionKeys.addAll(partitionKeys);
+            summary.subjectNames.addAll(subjectNames);
+            summary.facultyLabels.addAll(facultyLabels);
+            return summary;
+        } catch (IOException e) {
+            throw new DataStorageException("READ", file.getPath(), "Failed to read partition summary", e);
+        }
+    }
+    
+    /**
+     * Whether the file holds a summary taken at this stamp, reading only its header
+     */
+    public static boolean isCurrent(File file, String stamp) {
+        if (!file.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION && in.readUTF().equals(stamp);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private static Set<String> readStrings(DataInput in) throws IOException {
+        Set<String> strings = new TreeSet<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,415 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * PartitionedStore Class - Feedback files split by academic year and semester
+ * Each partition is a JSON file listed in a small manifest with its record count
+ * and student years. The repository loads the current academic year eagerly and
+ * opens older partitions only when a query needs their rows, answering totals
+ * from each one's saved PartitionSummary; saving rewrites only the partitions
+ * that changed. Writers from different processes serialize on a lock
+ * file, and each loaded file's size and modification time are remembered so a
+ * reload can tell which partitions another process changed.
+ * Demonstrates OOP concepts: Encapsulation, File I/O, Exception Handling
+ */
+public class PartitionedStore {
+    private static final String MANIFEST_FILE = "feedback_manifest.json";
+    private static final String COMMENTS_FILE = "feedback_comments.dat";
+    private static final String LEGACY_FILE = "feedback_data.json";
+    private static final String LOCK_FILE = "feedback.lock";
+    private static final String CHECKPOINT_FILE = "feedback_checkpoint.dat";
+    
+    // File locks are held per process, so threads of this JVM queue on these first
+    private static final Map<String, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+    
+    // The academic year starts in June
+    private static final int ACADEMIC_YEAR_START_MONTH = 6;
+    
+    private final File directory;
+    private final CommentStore commentStore;
+    private final Map<String, FeedbackPartition> partitions;
+    
+    // Partition key -> size and modification time when this process last read or wrote it
+    private final Map<String, String> fileStamps;
+    
+    public PartitionedStore(String directory) {
+        this.directory = new File(directory);
+        this.commentStore = new CommentStore(file(COMMENTS_FILE));
+        this.partitions = new TreeMap<>();
+        this.fileStamps = new HashMap<>();
+    }
+    
+    /**
+     * Read the manifest, migrating a single-file feedback_data.json on first use
+     */
+    public synchronized void open() throws DataStorageException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new DataStorageException("CREATE", directory.getPath(),
+                "Failed to create data directory");
+        }
+        refresh();
+        
+        File legacy = new File(directory, LEGACY_FILE);
+        if (partitions.isEmpty() && legacy.exists()) {
+            WriteLock lock = lockForWrite();
+            try {
+                refresh(); // another process may have migrated it meanwhile
+                if (partitions.isEmpty() && legacy.exists()) {
+                    migrate(legacy);
+                }
+            } finally {
+                lock.close();
+            }
+        }
+    }
+    
+    /**
+     * Re-read the manifest to pick up partitions written by another process
+     */
+    public synchronized void refresh() throws DataStorageException {
+        partitions.clear();
+        for (FeedbackPartition partition : JSONHandler.loadManifestFromJSON(file(MANIFEST_FILE))) {
+            partitions.put(partition.getKey(), partition);
+        }
+    }
+    
+    /**
+     * Whether a partition file differs from the version this process last read or wrote
+     */
+    public synchronized boolean hasChanged(FeedbackPartition partition) {
+        return !stamp(partition).equals(fileStamps.get(partition.getKey()));
+    }
+    
+    private String stamp(FeedbackPartition partition) {
+        File f = new File(directory, partition.getFileName());
+        return f.length() + ":" + f.lastModified();
+    }
+    
+    /**
+     * Take the directory's write lock, shared by every process using this data directory.
+     * Hold it across read-check-write sequences and release it by closing.
+     */
+    public WriteLock lockForWrite() throws DataStorageException {
+        File lockFile = new File(directory, LOCK_FILE);
+        ReentrantLock processLock = PROCESS_LOCKS.computeIfAbsent(
+            lockFile.getAbsolutePath(), k -> new ReentrantLock());
+        processLock.lock();
+        try {
+            FileChannel channel = FileChannel.open(lockFile.toPath(), 
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                channel.lock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return new WriteLock(channel, processLock);
+        } catch (IOException e) {
+            processLock.unlock();
+            throw new DataStorageException("LOCK", lockFile.getPath(), 
+                "Failed to lock the data directory", e);
+        } catch (RuntimeException e) {
+            processLock.unlock();
+            throw e;
+        }
+    }
+    
+    /**
+     * Held lock on the data directory
+     */
+    public static class WriteLock implements AutoCloseable {
+        private final FileChannel channel;
+        private final ReentrantLock processLock;
+        
+        private WriteLock(FileChannel channel, ReentrantLock processLock) {
+            this.channel = channel;
+            this.processLock = processLock;
+        }
+        
+        @Override
+        public void close() {
+            try {
+                channel.close(); // releases the file lock
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to release data directory lock: " + e.getMessage());
+            } finally {
+                processLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Split the old single data file into partitions and keep it as a backup
+     */
+    private void migrate(File legacy) throws DataStorageException {
+        List<Feedback> all = JSONHandler.loadFeedbackFromJSON(legacy.getPath(), commentStore);
+        Map<String, List<Feedback>> grouped = new TreeMap<>();
+        for (Feedback fb : all) {
+            grouped.computeIfAbsent(partitionKey(fb), k -> new ArrayList<>()).add(fb);
+        }
+        for (Map.Entry<String, List<Feedback>> entry : grouped.entrySet()) {
+            save(entry.getKey(), entry.getValue());
+        }
+        
+        File backup = new File(directory, LEGACY_FILE + ".bak");
+        if (!legacy.renameTo(backup)) {
+            throw new DataStorageException("MIGRATE", legacy.getPath(),
+                "Partitions written but the old data file could not be renamed");
+        }
+        System.out.println("Migrated " + all.size() + " feedback entries into "
+            + grouped.size() + " partitions (old file kept as " + backup.getName() + ").");
+    }
+    
+    /**
+     * Academic year of a yyyy-MM-dd timestamp, e.g. "2025-26" for 2025-08-14 or 2026-02-03
+     */
+    public static String academicYearOf(String timestamp) {
+        int year;
+        int month;
+        try {
+            year = Integer.parseInt(timestamp.substring(0, 4));
+            month = Integer.parseInt(timestamp.substring(5, 7));
+        } catch (RuntimeException e) {
+            return currentAcademicYear();
+        }
+        return academicYear(year, month);
+    }
+    
+    /**
+     * Academic year that is running today
+     */
+    public static String currentAcademicYear() {
+        LocalDate today = LocalDate.now();
+        return academicYear(today.getYear(), today.getMonthValue());
+    }
+    
+    private static String academicYear(int year, int month) {
+        int start = month >= ACADEMIC_YEAR_START_MONTH ? year : year - 1;
+        return start + "-" + String.format("%02d", (start + 1) % 100);
+    }
+    
+    /**
+     * Partition that a feedback entry is stored in
+     */
+    public static String partitionKey(Feedback fb) {
+        return FeedbackPartition.key(academicYearOf(fb.getTimestamp()), fb.getSemester());
+    }
+    
+    /**
+     * All partitions in the manifest, ordered by key
+     */
+    public synchronized List<FeedbackPartition> getPartitions() {
+        return new ArrayList<>(partitions.values());
+    }
+    
+    /**
+     * Partitions that may hold rows matching the query; the rest are pruned
+     */
+    public synchronized List<FeedbackPartition> getPartitions(FeedbackQuery query) {
+        List<FeedbackPartition> matching = new ArrayList<>();
+        for (FeedbackPartition partition : partitions.values()) {
+            if (partition.mayMatch(query)) {
+                matching.add(partition);
+            }
+        }
+        return matching;
+    }
+    
+    /**
+     * Read every row of one partition
+     */
+    public List<Feedback> load(FeedbackPartition partition) throws DataStorageException {
+        String stamp;
+        List<Feedback> rows;
+        do {
+            stamp = stamp(partition);
+            rows = JSONHandler.loadFeedbackFromJSON(file(partition.getFileName()), commentStore);
+        } while (!stamp.equals(stamp(partition))); // rewritten while reading
+        synchronized (this) {
+            fileStamps.put(partition.getKey(), stamp);
+        }
+        if (!PartitionSummary.isCurrent(new File(directory, partition.getSummaryFileName()), stamp)) {
+            saveSummary(partition, stamp, rows);
+        }
+        return rows;
+    }
+    
+    /**
+     * Saved aggregates of a partition, or null if there are none for the file as it is now
+     */
+    public PartitionSummary loadSummary(FeedbackPartition partition) throws DataStorageException {
+        return PartitionSummary.readFrom(new File(directory, partition.getSummaryFileName()), stamp(partition));
+    }
+    
+    /**
+     * Whether a summary still describes its partition's file
+     */
+    public boolean isCurrent(FeedbackPartition partition, PartitionSummary summary) {
+        return stamp(partition).equals(summary.getStamp());
+    }
+    
+    /**
+     * Summarize a partition of an earlier academic year; the current year is always
+     * loaded, so its summary would never be read. A failure only costs a later load.
+     */
+    private void saveSummary(FeedbackPartition partition, String stamp, List<Feedback> rows) {
+        if (partition.getAcademicYear().equals(currentAcademicYear())) {
+            return;
+        }
+        try {
+            PartitionSummary.of(partition.getKey(), stamp, rows)
+                .writeTo(new File(directory, partition.getSummaryFileName()));
+        } catch (DataStorageException e) {
+            System.err.println("Warning: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Read the entries that start after the given byte offset of a partition file
+     */
+    public List<Feedback> loadAppended(FeedbackPartition partition, long offset) throws DataStorageException {
+        String stamp;
+        List<Feedback> rows;
+        do {
+            stamp = stamp(partition);
+            rows = JSONHandler.loadFeedbackFromJSON(file(partition.getFileName()), commentStore, offset);
+        } while (!stamp.equals(stamp(partition)));
+        synchronized (this) {
+            fileStamps.put(partition.getKey(), stamp);
+        }
+        return rows;
+    }
+    
+    /**
+     * Length of a partition file up to the end of its last entry, and the CRC32C
+     * of those bytes. Appending entries leaves this prefix unchanged, so a later
+     * fingerprint check tells appended files from rewritten ones.
+     * @return {prefix length, checksum}; a missing file has an empty prefix
+     */
+    public long[] fingerprint(String partitionKey) throws DataStorageException {
+        File f = new File(directory, FeedbackPartition.fileName(partitionKey));
+        if (!f.exists()) {
+            return new long[] {0, new CRC32C().getValue()};
+        }
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long prefix = lastEntryEnd(channel);
+            return new long[] {prefix, checksum(channel, prefix)};
+        } catch (IOException e) {
+            throw new DataStorageException("READ", f.getPath(), "Failed to checksum partition", e);
+        }
+    }
+    
+    /**
+     * Whether a partition file still starts with the bytes a fingerprint was taken from
+     */
+    public boolean hasPrefix(String partitionKey, long prefixLength, long crc) throws DataStorageException {
+        File f = new File(directory, FeedbackPartition.fileName(partitionKey));
+        if (!f.exists()) {
+            return prefixLength == 0;
+        }
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            return channel.size() >= prefixLength && checksum(channel, prefixLength) == crc;
+        } catch (IOException e) {
+            throw new DataStorageException("READ", f.getPath(), "Failed to checksum partition", e);
+        }
+    }
+    
+    // Position just past the closing brace of the last entry, or 0 for an empty array
+    private static long lastEntryEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int tail = (int) Math.min(size, 64);
+        ByteBuffer buffer = ByteBuffer.allocate(tail);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, size - tail + buffer.position()) <= 0) {
+                break;
+            }
+        }
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '}') {
+                return size - tail + i + 1;
+            }
+        }
+        return 0;
+    }
+    
+    private static long checksum(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        long position = 0;
+        while (position < length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), length - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            crc.update(buffer);
+            position += read;
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * Rewrite one partition file and the manifest. An empty partition is removed.
+     * Callers hold the lock from lockForWrite().
+     */
+    public synchronized void save(String key, List<Feedback> rows) throws DataStorageException {
+        FeedbackPartition partition = partitions.get(key);
+        if (rows.isEmpty()) {
+            if (partition != null) {
+                partitions.remove(key);
+                new File(directory, partition.getFileName()).delete();
+                new File(directory, partition.getSummaryFileName()).delete();
+            }
+        } else {
+            if (partition == null) {
+                Feedback sample = rows.get(0);
+                partition = new FeedbackPartition(academicYearOf(sample.getTimestamp()), sample.getSemester());
+            }
+            JSONHandler.saveFeedbackToJSON(rows, file(partition.getFileName()), commentStore);
+            partition.update(rows);
+            partitions.put(key, partition);
+            fileStamps.put(key, stamp(partition));
+            saveSummary(partition, fileStamps.get(key), rows);
+        }
+        JSONHandler.saveManifestToJSON(partitions.values(), file(MANIFEST_FILE));
+    }
+    
+    /**
+     * Rows in all partitions except the given ones, according to the manifest
+     */
+    public synchronized int countRows(Collection<String> excludedKeys) {
+        int count = 0;
+        for (FeedbackPartition partition : partitions.values()) {
+            if (!excludedKeys.contains(partition.getKey())) {
+                count += partition.getRecordCount();
+            }
+        }
+        return count;
+    }
+    
+    public CommentStore getCommentStore() {
+        return commentStore;
+    }
+    
+    public File getCheckpointFile() {
+        return new File(directory, CHECKPOINT_FILE);
+    }
+    
+    public String getDirectory() {
+        return directory.getPath();
+    }
+    
+    private String file(String name) {
+        return new File(directory, name).getPath();
+    }
+}
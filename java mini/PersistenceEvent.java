@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * PersistenceEvent Class - Flight Recorder event for one feedback file read or write
+ * Lets disk stalls be told apart from GC pauses and slow scans in a recording.
+ * Demonstrates OOP concepts: Inheritance, Annotations
+ */
+@Name("feedback.Persistence")
+@Label("Feedback Persistence")
+@Category({"Feedback System", "Persistence"})
+@Description("Reading or writing a feedback data file")
+public class PersistenceEvent extends Event {
+    @Label("Operation")
+    @Description("SAVE or LOAD")
+    public String operation;
+    
+    @Label("File")
+    public String file;
+    
+    @Label("Records")
+    public int records;
+    
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * PostingList Class - Compressed, sorted list of row numbers for one search term
+ * Rows are stored as variable-length encoded gaps (delta + varint), so a term
+ * that appears in many consecutive comments costs about one byte per row.
+ * Demonstrates OOP concepts: Encapsulation, Data Compression
+ */
+public class PostingList {
+    private byte[] data;
+    private int length;   // bytes used in data
+    private int size;     // number of rows
+    private int lastRow;  // last row appended, -1 when empty
+    
+    public PostingList() {
+        this.data = new byte[8];
+        this.length = 0;
+        this.size = 0;
+        this.lastRow = -1;
+    }
+    
+    /**
+     * Add a row. Appending in increasing order is the fast path; any other
+     * row re-encodes the list.
+     */
+    public void add(int row) {
+        if (row > lastRow) {
+            writeVarInt(row - lastRow);
+            lastRow = row;
+            size++;
+            return;
+        }
+        int[] rows = toArray();
+        int pos = Arrays.binarySearch(rows, row);
+        if (pos >= 0) {
+            return;
+        }
+        int insertAt = -pos - 1;
+        int[] updated = new int[rows.length + 1];
+        System.arraycopy(rows, 0, updated, 0, insertAt);
+        updated[insertAt] = row;
+        System.arraycopy(rows, insertAt, updated, insertAt + 1, rows.length - insertAt);
+        rebuild(updated, updated.length);
+    }
+    
+    /**
+     * Remove a row if present
+     */
+    public void remove(int row) {
+        if (row > lastRow) {
+            return;
+        }
+        int[] rows = toArray();
+        int pos = Arrays.binarySearch(rows, row);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(rows, pos + 1, rows, pos, rows.length - pos - 1);
+        rebuild(rows, rows.length - 1);
+    }
+    
+    /**
+     * Decode all rows in ascending order
+     */
+    public int[] toArray() {
+        int[] rows = new int[size];
+        int pos = 0;
+        int row = -1;
+        for (int i = 0; i < size; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            row += gap;
+            rows[i] = row;
+        }
+        return rows;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Compressed size in bytes
+     */
+    public int byteSize() {
+        return length;
+    }
+    
+    private void rebuild(int[] rows, int count) {
+        data = new byte[Math.max(8, count * 2)];
+        length = 0;
+        size = 0;
+        lastRow = -1;
+        for (int i = 0; i < count; i++) {
+            add(rows[i]);
+        }
+    }
+    
+    // Gaps are stored relative to lastRow, which starts at -1 so row 0 has gap 1
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.*;
+
+/**
+ * QueryCache Class - Bounded LRU cache of repository query results
+ * Each entry remembers the FeedbackQuery that produced it and is tagged with the
+ * subject, faculty, semester and year it filters on. A new or replaced feedback
+ * entry only looks up entries sharing one of its tags, then evicts those whose
+ * query actually matches it; unfiltered results are tagged "all" and always evicted.
+ * Demonstrates OOP concepts: Encapsulation, Generics, Collections
+ */
+public class QueryCache {
+    private static final String ALL_TAG = "all";
+    
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, Set<String>> keysByTag;
+    
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+    
+    public QueryCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);  // access order = LRU
+        this.keysByTag = new HashMap<>();
+    }
+    
+    /**
+     * Cached value for a key, or null on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            MetricsRegistry.increment("cache.misses");
+            return null;
+        }
+        hits++;
+        MetricsRegistry.increment("cache.hits");
+        return (T) entry.value;
+    }
+    
+    /**
+     * Store a value computed for the given query
+     */
+    public synchronized void put(String key, FeedbackQuery query, Object value) {
+        removeKey(key);
+        Entry entry = new Entry(query, value, tagsFor(query));
+        entries.put(key, entry);
+        for (String tag : entry.tags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        
+        while (entries.size() > maxEntries) {
+            String eldest = entries.keySet().iterator().next();
+            removeKey(eldest);
+            evictions++;
+            MetricsRegistry.increment("cache.evictions");
+        }
+    }
+    
+    /**
+     * Evict entries whose results may include the given feedback
+     */
+    public synchronized void invalidate(Feedback fb) {
+        Set<String> candidates = new HashSet<>();
+        for (String tag : tagsFor(fb)) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                candidates.addAll(keys);
+            }
+        }
+        for (String key : candidates) {
+            Entry entry = entries.get(key);
+            if (entry != null && (entry.query == null || entry.query.matches(fb))) {
+                removeKey(key);
+                invalidations++;
+                MetricsRegistry.increment("cache.invalidations");
+            }
+        }
+    }
+    
+    /**
+     * Drop everything, e.g. after a full reload
+     */
+    public synchronized void clear() {
+        entries.clear();
+        keysByTag.clear();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("Query cache: %d hits, %d misses (%.1f%% hit rate), %d invalidated, "
+            + "%d evicted, %d/%d entries", hits, misses, getHitRate() * 100, invalidations, 
+            evictions, entries.size(), maxEntries);
+    }
+    
+    private void removeKey(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String tag : entry.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByTag.remove(tag);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Tags a cached query depends on; a query with no subject, faculty, semester
+     * or year filter depends on everything
+     */
+    private static List<String> tagsFor(FeedbackQuery query) {
+        List<String> tags = new ArrayList<>();
+        if (query != null) {
+            if (query.getSubjectName() != null) {
+                tags.add("subject:" + query.getSubjectName().toLowerCase());
+            }
+            if (query.getFacultyId() != null) {
+                tags.add("faculty:" + query.getFacultyId().toUpperCase());
+            }
+            if (query.getSemester() != null) {
+                tags.add("semester:" + query.getSemester());
+            }
+            if (query.getYear() != null) {
+                tags.add("year:" + query.getYear());
+            }
+        }
+        if (tags.isEmpty()) {
+            tags.add(ALL_TAG);
+        }
+        return tags;
+    }
+    
+    private static List<String> tagsFor(Feedback fb) {
+        return Arrays.asList(
+            ALL_TAG,
+            "subject:" + fb.getSubjectName().toLowerCase(),
+            "faculty:" + fb.getFacultyId().toUpperCase(),
+            "semester:" + fb.getSemester(),
+            "year:" + fb.getYear());
+    }
+    
+    /**
+     * One cached result with the query and tags it depends on
+     */
+    private static class Entry {
+        private final FeedbackQuery query;
+        private final Object value;
+        private final List<String> tags;
+        
+        Entry(FeedbackQuery query, Object value, List<String> tags) {
+            this.query = query;
+            this.value = value;
+            this.tags = tags;
+        }
+    }
+}
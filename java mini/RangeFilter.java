@@ -0,0 +1,73 @@
+/**
+ * RangeFilter Class - Ad-hoc range filter over the numeric feedback fields
+ * Unlike FeedbackQuery, each field takes an inclusive range, so filters such
+ * as "rating 1-2 in semesters 3-5" are one filter. Unset ranges match
+ * everything. Evaluated by RatingColumns without touching Feedback objects.
+ * Example: new RangeFilter().semesters(3, 5).ratings(1, 2)
+ * Demonstrates OOP concepts: Encapsulation, Method Chaining
+ */
+public class RangeFilter {
+    private int minSemester = 1;
+    private int maxSemester = 8;
+    private int minYear = 1;
+    private int maxYear = 4;
+    private int minRating = RatingHistogram.MIN_RATING;
+    private int maxRating = RatingHistogram.MAX_RATING;
+    
+    public RangeFilter semesters(int from, int to) {
+        this.minSemester = from;
+        this.maxSemester = to;
+        return this;
+    }
+    
+    public RangeFilter years(int from, int to) {
+        this.minYear = from;
+        this.maxYear = to;
+        return this;
+    }
+    
+    public RangeFilter ratings(int from, int to) {
+        this.minRating = from;
+        this.maxRating = to;
+        return this;
+    }
+    
+    public int getMinSemester() {
+        return minSemester;
+    }
+    
+    public int getMaxSemester() {
+        return maxSemester;
+    }
+    
+    public int getMinYear() {
+        return minYear;
+    }
+    
+    public int getMaxYear() {
+        return maxYear;
+    }
+    
+    public int getMinRating() {
+        return minRating;
+    }
+    
+    public int getMaxRating() {
+        return maxRating;
+    }
+    
+    /**
+     * Check a single feedback entry against this filter
+     */
+    public boolean matches(Feedback fb) {
+        return fb.getSemester() >= minSemester && fb.getSemester() <= maxSemester
+            && fb.getYear() >= minYear && fb.getYear() <= maxYear
+            && fb.getRating() >= minRating && fb.getRating() <= maxRating;
+    }
+    
+    @Override
+    public String toString() {
+        return "RangeFilter[semester " + minSemester + "-" + maxSemester + " year " + minYear + "-" + maxYear
+            + " rating " + minRating + "-" + maxRating + "]";
+    }
+}
@@ -0,0 +1,220 @@
+import java.util.Arrays;
+
+/**
+ * RatingColumns Class - Rating, semester and year of every row as packed byte columns
+ * Each column packs eight rows into a long, row i in byte (i % 8) of word
+ * i / 8. A range filter is then tested on eight rows at once with plain long
+ * arithmetic (SWAR - SIMD within a register): for bytes below 128,
+ * ((v | 0x80) - lo) has its high bit set exactly when v >= lo, and
+ * ((hi | 0x80) - v) exactly when v <= hi, with no borrow between bytes. The
+ * AND of the high bits across columns marks the matching rows; bitCount
+ * counts them, and the same mask selects ratings for sums and histograms.
+ * Unused bytes and ratings outside 1-5 hold 0, which no filter accepts, so
+ * the last word needs no special case. A semester or year range covering
+ * every valid value skips that column, since entries are validated on input.
+ * -Dfeedback.scan=scalar switches to a row-at-a-time loop over the same
+ * columns, kept as a reference implementation.
+ * Demonstrates OOP concepts: Encapsulation, Data Layout
+ */
+public class RatingColumns {
+    static final boolean SWAR = !"scalar".equalsIgnoreCase(System.getProperty("feedback.scan"));
+    
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final int ROWS_PER_WORD = 8;
+    
+    private long[] ratings = new long[16];
+    private long[] semesters = new long[16];
+    private long[] years = new long[16];
+    private int size;
+    
+    /**
+     * Record the fields of the entry stored at a row
+     */
+    public void set(int row, Feedback fb) {
+        int word = row / ROWS_PER_WORD;
+        if (word >= ratings.length) {
+            int capacity = Math.max(word + 1, ratings.length * 2);
+            ratings = Arrays.copyOf(ratings, capacity);
+            semesters = Arrays.copyOf(semesters, capacity);
+            years = Arrays.copyOf(years, capacity);
+        }
+        int shift = (row % ROWS_PER_WORD) * 8;
+        int rating = fb.getRating();
+        ratings[word] = put(ratings[word], shift,
+            rating >= RatingHistogram.MIN_RATING && rating <= RatingHistogram.MAX_RATING ? rating : 0);
+        semesters[word] = put(semesters[word], shift, fb.getSemester());
+        years[word] = put(years[word], shift, fb.getYear());
+        size = Math.max(size, row + 1);
+    }
+    
+    private static long put(long word, int shift, int value) {
+        // Values outside 0-127 would break the borrow-free arithmetic; store 0 (never matches)
+        long b = value >= 0 && value < 128 ? value : 0;
+        return (word & ~(0xFFL << shift)) | (b << shift);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Rows matching the filter
+     */
+    public int count(RangeFilter filter) {
+        return SWAR ? countSwar(filter) : countScalar(filter);
+    }
+    
+    /**
+     * Sum of ratings over rows matching the filter
+     */
+    public long sumRatings(RangeFilter filter) {
+        return SWAR ? sumSwar(filter) : sumScalar(filter);
+    }
+    
+    /**
+     * Rating histogram of rows matching the filter
+     */
+    public RatingHistogram histogram(RangeFilter filter) {
+        return RatingHistogram.of(SWAR ? histogramSwar(filter) : histogramScalar(filter));
+    }
+    
+    // ---- SWAR kernels ----
+    
+    /**
+     * High bit of each byte set where the byte lies in [lo, hi]
+     */
+    private static long inRange(long word, long lo, long hi) {
+        return ((word | HIGH_BITS) - lo) & ((hi | HIGH_BITS) - word) & HIGH_BITS;
+    }
+    
+    private static long broadcast(int value) {
+        return Math.min(127, Math.max(0, value)) * LOW_BITS;
+    }
+    
+    int countSwar(RangeFilter filter) {
+        Bounds b = new Bounds(filter);
+        int words = wordCount();
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(b.match(i));
+        }
+        return count;
+    }
+    
+    long sumSwar(RangeFilter filter) {
+        Bounds b = new Bounds(filter);
+        int words = wordCount();
+        long sum = 0;
+        for (int i = 0; i < words; i++) {
+            // Widen each high bit to a full byte mask, keep the matching ratings,
+            // then add the eight bytes with one multiply (at most 8 * 5 = 40)
+            long selected = ratings[i] & ((b.match(i) >>> 7) * 0xFF);
+            sum += (selected * LOW_BITS) >>> 56;
+        }
+        return sum;
+    }
+    
+    int[] histogramSwar(RangeFilter filter) {
+        Bounds b = new Bounds(filter);
+        int words = wordCount();
+        int first = Math.max(RatingHistogram.MIN_RATING, filter.getMinRating());
+        int last = Math.min(RatingHistogram.MAX_RATING, filter.getMaxRating());
+        int[] counts = new int[RatingHistogram.MAX_RATING - RatingHistogram.MIN_RATING + 1];
+        for (int i = 0; i < words; i++) {
+            long match = b.match(i);
+            long word = ratings[i];
+            for (int rating = first; rating <= last; rating++) {
+                long value = rating * LOW_BITS;
+                counts[rating - RatingHistogram.MIN_RATING] += Long.bitCount(match & inRange(word, value, value));
+            }
+        }
+        return counts;
+    }
+    
+    private int wordCount() {
+        return (size + ROWS_PER_WORD - 1) / ROWS_PER_WORD;
+    }
+    
+    /**
+     * Filter bounds broadcast to every byte; columns the filter leaves open are skipped
+     */
+    private final class Bounds {
+        final long ratingLo;
+        final long ratingHi;
+        final long semesterLo;
+        final long semesterHi;
+        final long yearLo;
+        final long yearHi;
+        final boolean checkSemester;
+        final boolean checkYear;
+        
+        Bounds(RangeFilter filter) {
+            // Rating is always checked with a floor of 1 so unused bytes never match
+            ratingLo = broadcast(Math.max(RatingHistogram.MIN_RATING, filter.getMinRating()));
+            ratingHi = broadcast(filter.getMaxRating());
+            semesterLo = broadcast(filter.getMinSemester());
+            semesterHi = broadcast(filter.getMaxSemester());
+            yearLo = broadcast(filter.getMinYear());
+            yearHi = broadcast(filter.getMaxYear());
+            checkSemester = filter.getMinSemester() > 1 || filter.getMaxSemester() < 8;
+            checkYear = filter.getMinYear() > 1 || filter.getMaxYear() < 4;
+        }
+        
+        long match(int i) {
+            long match = inRange(ratings[i], ratingLo, ratingHi);
+            if (checkSemester) {
+                match &= inRange(semesters[i], semesterLo, semesterHi);
+            }
+            if (checkYear) {
+                match &= inRange(years[i], yearLo, yearHi);
+            }
+            return match;
+        }
+    }
+    
+    // ---- Scalar kernels ----
+    
+    private static int byteAt(long[] column, int row) {
+        return (int) (column[row / ROWS_PER_WORD] >>> ((row % ROWS_PER_WORD) * 8)) & 0xFF;
+    }
+    
+    private boolean matchesRow(int row, RangeFilter filter) {
+        int rating = byteAt(ratings, row);
+        int semester = byteAt(semesters, row);
+        int year = byteAt(years, row);
+        return rating >= Math.max(RatingHistogram.MIN_RATING, filter.getMinRating()) && rating <= filter.getMaxRating()
+            && semester >= filter.getMinSemester() && semester <= filter.getMaxSemester()
+            && year >= filter.getMinYear() && year <= filter.getMaxYear();
+    }
+    
+    int countScalar(RangeFilter filter) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (matchesRow(row, filter)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    long sumScalar(RangeFilter filter) {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            if (matchesRow(row, filter)) {
+                sum += byteAt(ratings, row);
+            }
+        }
+        return sum;
+    }
+    
+    int[] histogramScalar(RangeFilter filter) {
+        int[] counts = new int[RatingHistogram.MAX_RATING - RatingHistogram.MIN_RATING + 1];
+        for (int row = 0; row < size; row++) {
+            if (matchesRow(row, filter)) {
+                counts[byteAt(ratings, row) - RatingHistogram.MIN_RATING]++;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * RatingColumnsCheck Class - Brute-force check of the RatingColumns kernels
+ * Fills a RatingColumns with random rows (including ratings outside 1-5 and
+ * rows overwritten in place), then compares count, sum and histogram from the
+ * SWAR kernels and from the scalar kernels with a plain loop over the same
+ * Feedback objects, for random filters including empty and inverted ranges.
+ * Row counts run across several word boundaries so partial last words are hit.
+ *   java RatingColumnsCheck [trials] [seed]
+ * Exits with status 1 on the first mismatch.
+ * Demonstrates OOP concepts: Testing by Reference Implementation
+ */
+public class RatingColumnsCheck {
+
+    public static void main(String[] args) {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+
+        long filtersChecked = 0;
+        for (int trial = 0; trial < trials; trial++) {
+            int rows = trial < 80 ? trial : random.nextInt(600);
+            List<Feedback> stored = new ArrayList<>();
+            RatingColumns columns = new RatingColumns();
+            for (int row = 0; row < rows; row++) {
+                Feedback fb = randomFeedback(random);
+                stored.add(fb);
+                columns.set(row, fb);
+            }
+            // Overwrite a few rows so set() must clear the old byte
+            for (int i = 0; rows > 0 && i < 3; i++) {
+                int row = random.nextInt(rows);
+                Feedback fb = randomFeedback(random);
+                stored.set(row, fb);
+                columns.set(row, fb);
+            }
+
+            for (int f = 0; f < 10; f++) {
+                RangeFilter filter = randomFilter(random);
+                String failure = compare(columns, stored, filter);
+                if (failure != null) {
+                    System.err.println("MISMATCH (seed " + seed + ", trial " + trial + ", " + rows + " rows, "
+                        + filter + "): " + failure);
+                    System.exit(1);
+                }
+                filtersChecked++;
+            }
+        }
+        System.out.println("RatingColumns: " + trials + " tables, " + filtersChecked
+            + " filters checked, all kernels agree (seed " + seed + ")");
+    }
+
+    /**
+     * Describe the first disagreement between the kernels and the reference, or null
+     */
+    private static String compare(RatingColumns columns, List<Feedback> stored, RangeFilter filter) {
+        int expectedCount = 0;
+        long expectedSum = 0;
+        int[] expectedHistogram = new int[RatingHistogram.MAX_RATING - RatingHistogram.MIN_RATING + 1];
+        for (Feedback fb : stored) {
+            // Ratings outside 1-5 are never counted, whatever the filter says
+            boolean valid = fb.getRating() >= RatingHistogram.MIN_RATING && fb.getRating() <= RatingHistogram.MAX_RATING;
+            if (valid && filter.matches(fb)) {
+                expectedCount++;
+                expectedSum += fb.getRating();
+                expectedHistogram[fb.getRating() - RatingHistogram.MIN_RATING]++;
+            }
+        }
+
+        if (columns.size() != stored.size()) {
+            return "size " + columns.size() + " != " + stored.size();
+        }
+        if (columns.countSwar(filter) != expectedCount || columns.countScalar(filter) != expectedCount) {
+            return "count swar=" + columns.countSwar(filter) + " scalar=" + columns.countScalar(filter)
+                + " expected=" + expectedCount;
+        }
+        if (columns.sumSwar(filter) != expectedSum || columns.sumScalar(filter) != expectedSum) {
+            return "sum swar=" + columns.sumSwar(filter) + " scalar=" + columns.sumScalar(filter)
+                + " expected=" + expectedSum;
+        }
+        if (!Arrays.equals(columns.histogramSwar(filter), expectedHistogram)
+                || !Arrays.equals(columns.histogramScalar(filter), expectedHistogram)) {
+            return "histogram swar=" + Arrays.toString(columns.histogramSwar(filter))
+                + " scalar=" + Arrays.toString(columns.histogramScalar(filter))
+                + " expected=" + Arrays.toString(expectedHistogram);
+        }
+        return null;
+    }
+
+    private static Feedback randomFeedback(Random random) {
+        // Semester and year are validated on input, so stay in range; ratings may not be
+        int rating = random.nextInt(10) == 0 ? random.nextInt(260) - 130 : random.nextInt(5) + 1;
+        int semester = random.nextInt(8) + 1;
+        int year = random.nextInt(4) + 1;
+        return new Feedback("FB0", "1XX00XX000", "Student", year, semester,
+                            "CS101", "Subject", "F001", "Faculty", rating, null, "2024-01-01 00:00:00");
+    }
+
+    private static RangeFilter randomFilter(Random random) {
+        RangeFilter filter = new RangeFilter();
+        if (random.nextBoolean()) {
+            filter.ratings(random.nextInt(8) - 1, random.nextInt(8) - 1);
+        }
+        if (random.nextBoolean()) {
+            filter.semesters(random.nextInt(10), random.nextInt(10));
+        }
+        if (random.nextBoolean()) {
+            filter.years(random.nextInt(6), random.nextInt(6));
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * RatingHistogram Class - Immutable count of ratings on the 1-5 scale
+ * The counts live in a primitive int[5], so reading a distribution never
+ * boxes. Ratings take only five values, so the counts are an exact summary:
+ * mean, variance, percentages, median and quartiles all come from them
+ * without the raw rows. Histograms never change once built; merge returns a
+ * new one, which lets caches and reports share them freely.
+ * Demonstrates OOP concepts: Immutability, Encapsulation, Value Objects
+ */
+public final class RatingHistogram {
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+    
+    public static final RatingHistogram EMPTY = new RatingHistogram(new int[MAX_RATING - MIN_RATING + 1]);
+    
+    private final int[] counts;
+    private final int total;
+    private final long sum;
+    private final long sumOfSquares;
+    
+    // Takes ownership of the array; callers hand over a fresh one
+    private RatingHistogram(int[] counts) {
+        this.counts = counts;
+        int total = 0;
+        long sum = 0;
+        long sumOfSquares = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int rating = i + MIN_RATING;
+            total += counts[i];
+            sum += (long) counts[i] * rating;
+            sumOfSquares += (long) counts[i] * rating * rating;
+        }
+        this.total = total;
+        this.sum = sum;
+        this.sumOfSquares = sumOfSquares;
+    }
+    
+    /**
+     * Histogram from counts for ratings 1-5, in that order
+     */
+    public static RatingHistogram of(int... counts) {
+        if (counts.length != MAX_RATING - MIN_RATING + 1) {
+            throw new IllegalArgumentException("Expected " + (MAX_RATING - MIN_RATING + 1)
+                + " counts, got " + counts.length);
+        }
+        return new RatingHistogram(counts.clone());
+    }
+    
+    /**
+     * Histogram of the ratings in a set of feedback; values outside 1-5 are ignored
+     */
+    public static RatingHistogram ofFeedback(Iterable<Feedback> feedback) {
+        int[] counts = new int[MAX_RATING - MIN_RATING + 1];
+        for (Feedback fb : feedback) {
+            int rating = fb.getRating();
+            if (rating >= MIN_RATING && rating <= MAX_RATING) {
+                counts[rating - MIN_RATING]++;
+            }
+        }
+        return new RatingHistogram(counts);
+    }
+    
+    /**
+     * Ratings of both histograms together
+     */
+    public RatingHistogram merge(RatingHistogram other) {
+        if (other.total == 0) {
+            return this;
+        }
+        if (total == 0) {
+            return other;
+        }
+        int[] merged = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            merged[i] = counts[i] + other.counts[i];
+        }
+        return new RatingHistogram(merged);
+    }
+    
+    public int getCount() {
+        return total;
+    }
+    
+    public boolean isEmpty() {
+        return total == 0;
+    }
+    
+    public int getCount(int rating) {
+        return rating >= MIN_RATING && rating <= MAX_RATING ? counts[rating - MIN_RATING] : 0;
+    }
+    
+    public long getSum() {
+        return sum;
+    }
+    
+    /**
+     * Only the ratings within an inclusive range
+     */
+    public RatingHistogram between(int minRating, int maxRating) {
+        int[] kept = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            int rating = i + MIN_RATING;
+            if (rating >= minRating && rating <= maxRating) {
+                kept[i] = counts[i];
+            }
+        }
+        return new RatingHistogram(kept);
+    }
+    
+    /**
+     * Share of all ratings given this rating, 0-100; 0.0 if the histogram is empty
+     */
+    public double getPercentage(int rating) {
+        return total == 0 ? 0.0 : getCount(rating) * 100.0 / total;
+    }
+    
+    public double getMean() {
+        return total == 0 ? 0.0 : (double) sum / total;
+    }
+    
+    /**
+     * Population variance of the ratings; 0.0 if the histogram is empty
+     */
+    public double getVariance() {
+        if (total == 0) {
+            return 0.0;
+        }
+        double mean = getMean();
+        return Math.max(0.0, (double) sumOfSquares / total - mean * mean);
+    }
+    
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+    
+    /**
+     * Quantile with linear interpolation between neighbouring ratings, so the
+     * median of {3, 4} is 3.5; 0.0 if the histogram is empty
+     */
+    public double quantile(double q) {
+        if (total == 0) {
+            return 0.0;
+        }
+        q = Math.min(1.0, Math.max(0.0, q));
+        double position = (total - 1) * q;
+        int lower = (int) Math.floor(position);
+        int lowerValue = valueAt(lower);
+        if (lower + 1 >= total) {
+            return lowerValue;
+        }
+        return lowerValue + (position - lower) * (valueAt(lower + 1) - lowerValue);
+    }
+    
+    public double getMedian() {
+        return quantile(0.5);
+    }
+    
+    public double getLowerQuartile() {
+        return quantile(0.25);
+    }
+    
+    public double getUpperQuartile() {
+        return quantile(0.75);
+    }
+    
+    /**
+     * Rating at a 0-based position in sorted order
+     */
+    private int valueAt(int index) {
+        int seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (index < seen) {
+                return i + MIN_RATING;
+            }
+        }
+        return MAX_RATING;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RatingHistogram && Arrays.equals(counts, ((RatingHistogram) o).counts);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("median %.1f, quartiles %.1f-%.1f (%d ratings)",
+            getMedian(), getLowerQuartile(), getUpperQuartile(), total);
+    }
+}
@@ -0,0 +1,76 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * RatingSketch Class - Mutable rating counts kept up to date by the indexes
+ * Ratings take only five values, so a count per value is an exact summary. A
+ * sketch merges by adding counts and supports removal when an entry is
+ * replaced; readers get an immutable RatingHistogram snapshot of it.
+ * Demonstrates OOP concepts: Encapsulation, Data Structures
+ */
+public class RatingSketch {
+    private static final int MIN_RATING = RatingHistogram.MIN_RATING;
+    private static final int MAX_RATING = RatingHistogram.MAX_RATING;
+    
+    private final int[] counts = new int[MAX_RATING - MIN_RATING + 1];
+    private int total;
+    
+    public void add(int rating) {
+        if (rating >= MIN_RATING && rating <= MAX_RATING) {
+            counts[rating - MIN_RATING]++;
+            total++;
+        }
+    }
+    
+    public void remove(int rating) {
+        if (rating >= MIN_RATING && rating <= MAX_RATING && counts[rating - MIN_RATING] > 0) {
+            counts[rating - MIN_RATING]--;
+            total--;
+        }
+    }
+    
+    /**
+     * Add another sketch's ratings into this one
+     */
+    public void merge(RatingSketch other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+    
+    public int getCount() {
+        return total;
+    }
+    
+    public boolean isEmpty() {
+        return total == 0;
+    }
+    
+    public int getCount(int rating) {
+        return rating >= MIN_RATING && rating <= MAX_RATING ? counts[rating - MIN_RATING] : 0;
+    }
+    
+    /**
+     * Immutable snapshot of the current counts
+     */
+    public RatingHistogram toHistogram() {
+        return RatingHistogram.of(counts);
+    }
+    
+    public void writeTo(DataOutput out) throws IOException {
+        for (int count : counts) {
+            out.writeInt(count);
+        }
+    }
+    
+    public static RatingSketch readFrom(DataInput in) throws IOException {
+        RatingSketch sketch = new RatingSketch();
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readInt();
+            sketch.total += sketch.counts[i];
+        }
+        return sketch;
+    }
+}
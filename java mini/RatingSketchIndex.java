@@ -0,0 +1,220 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * RatingSketchIndex Class - Rating sketches per entity, overall and rolled up by time
+ * Each rating updates the entity's overall sketch and one sketch at every
+ * granularity (hour, day, week, term), so a sketch carries the count, sum and
+ * histogram of its bucket. A date-range query merges the largest buckets that
+ * fit inside the range - whole terms, then whole weeks, then single days -
+ * instead of filtering raw rows; a trend reads one level directly.
+ * Demonstrates OOP concepts: Encapsulation, Nested Classes, Collections
+ */
+public class RatingSketchIndex {
+    private final Map<String, Entry> entries = new HashMap<>();
+    
+    private static class Entry {
+        final RatingSketch total = new RatingSketch();
+        final Map<TimeBucket, TreeMap<Long, RatingSketch>> levels = new EnumMap<>(TimeBucket.class);
+        
+        Entry() {
+            for (TimeBucket bucket : TimeBucket.values()) {
+                levels.put(bucket, new TreeMap<>());
+            }
+        }
+    }
+    
+    /**
+     * Record one rating for an entity, bucketed by the entry's timestamp
+     */
+    public void add(String key, String timestamp, int rating) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        entry.total.add(rating);
+        long day = dayOf(timestamp);
+        if (day == Long.MIN_VALUE) {
+            return;
+        }
+        int hour = hourOf(timestamp);
+        for (TimeBucket bucket : TimeBucket.values()) {
+            entry.levels.get(bucket).computeIfAbsent(bucket.of(day, hour), b -> new RatingSketch()).add(rating);
+        }
+    }
+    
+    /**
+     * Withdraw a rating previously recorded with add
+     */
+    public void remove(String key, String timestamp, int rating) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        entry.total.remove(rating);
+        long day = dayOf(timestamp);
+        if (day != Long.MIN_VALUE) {
+            int hour = hourOf(timestamp);
+            for (TimeBucket bucket : TimeBucket.values()) {
+                TreeMap<Long, RatingSketch> level = entry.levels.get(bucket);
+                long id = bucket.of(day, hour);
+                RatingSketch sketch = level.get(id);
+                if (sketch != null) {
+                    sketch.remove(rating);
+                    if (sketch.isEmpty()) {
+                        level.remove(id);
+                    }
+                }
+            }
+        }
+        if (entry.total.isEmpty()) {
+            entries.remove(key);
+        }
+    }
+    
+    /**
+     * All ratings for an entity; empty if unknown
+     */
+    public RatingHistogram get(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? RatingHistogram.EMPTY : entry.total.toHistogram();
+    }
+    
+    /**
+     * Ratings submitted between two dates, both inclusive; a null bound is open
+     */
+    public RatingHistogram get(String key, LocalDate from, LocalDate to) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return RatingHistogram.EMPTY;
+        }
+        TreeMap<Long, RatingSketch> days = entry.levels.get(TimeBucket.DAY);
+        if (days.isEmpty()) {
+            return RatingHistogram.EMPTY;
+        }
+        RatingSketch result = new RatingSketch();
+        // Clamp open bounds to the data so the walk below stays short
+        long day = Math.max(from == null ? Long.MIN_VALUE : from.toEpochDay(), days.firstKey());
+        long lastDay = Math.min(to == null ? Long.MAX_VALUE : to.toEpochDay(), days.lastKey());
+        
+        while (day <= lastDay) {
+            TreeMap<Long, RatingSketch> level = days;
+            long id = day;
+            long next = day + 1;
+            for (TimeBucket bucket : new TimeBucket[] {TimeBucket.TERM, TimeBucket.WEEK}) {
+                long candidate = bucket.of(day, 0);
+                if (bucket.firstDay(candidate) == day && bucket.lastDay(candidate) <= lastDay) {
+                    level = entry.levels.get(bucket);
+                    id = candidate;
+                    next = bucket.lastDay(candidate) + 1;
+                    break;
+                }
+            }
+            RatingSketch sketch = level.get(id);
+            if (sketch != null) {
+                result.merge(sketch);
+            }
+            day = next;
+        }
+        return result.toHistogram();
+    }
+    
+    /**
+     * Per-bucket histograms at one granularity, in time order, for buckets that
+     * overlap the date range (a null bound is open); empty buckets are left out
+     */
+    public NavigableMap<Long, RatingHistogram> trend(String key, TimeBucket bucket, LocalDate from, LocalDate to) {
+        TreeMap<Long, RatingHistogram> result = new TreeMap<>();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return result;
+        }
+        long first = from == null ? Long.MIN_VALUE : bucket.of(from.toEpochDay(), 0);
+        long last = to == null ? Long.MAX_VALUE : bucket.of(to.toEpochDay(), 23);
+        for (Map.Entry<Long, RatingSketch> e : entry.levels.get(bucket).subMap(first, true, last, true).entrySet()) {
+            result.put(e.getKey(), e.getValue().toHistogram());
+        }
+        return result;
+    }
+    
+    /**
+     * Add another index's sketches to this one, bucket by bucket
+     */
+    public void mergeFrom(RatingSketchIndex other) {
+        for (Map.Entry<String, Entry> e : other.entries.entrySet()) {
+            Entry entry = entries.computeIfAbsent(e.getKey(), k -> new Entry());
+            entry.total.merge(e.getValue().total);
+            for (TimeBucket bucket : TimeBucket.values()) {
+                TreeMap<Long, RatingSketch> level = entry.levels.get(bucket);
+                for (Map.Entry<Long, RatingSketch> sketch : e.getValue().levels.get(bucket).entrySet()) {
+                    level.computeIfAbsent(sketch.getKey(), b -> new RatingSketch()).merge(sketch.getValue());
+                }
+            }
+        }
+    }
+    
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+    
+    /**
+     * Epoch day of a yyyy-MM-dd HH:mm:ss timestamp, or Long.MIN_VALUE if it cannot be read
+     */
+    static long dayOf(String timestamp) {
+        try {
+            int year = Integer.parseInt(timestamp, 0, 4, 10);
+            int month = Integer.parseInt(timestamp, 5, 7, 10);
+            int day = Integer.parseInt(timestamp, 8, 10, 10);
+            return LocalDate.of(year, month, day).toEpochDay();
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+    
+    /**
+     * Hour of a yyyy-MM-dd HH:mm:ss timestamp, 0 if it has no time part
+     */
+    static int hourOf(String timestamp) {
+        try {
+            int hour = Integer.parseInt(timestamp, 11, 13, 10);
+            return hour >= 0 && hour < 24 ? hour : 0;
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+    
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            out.writeUTF(e.getKey());
+            e.getValue().total.writeTo(out);
+            for (TimeBucket bucket : TimeBucket.values()) {
+                TreeMap<Long, RatingSketch> level = e.getValue().levels.get(bucket);
+                out.writeInt(level.size());
+                for (Map.Entry<Long, RatingSketch> sketch : level.entrySet()) {
+                    out.writeLong(sketch.getKey());
+                    sketch.getValue().writeTo(out);
+                }
+            }
+        }
+    }
+    
+    public static RatingSketchIndex readFrom(DataInput in) throws IOException {
+        RatingSketchIndex index = new RatingSketchIndex();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            Entry entry = new Entry();
+            entry.total.merge(RatingSketch.readFrom(in));
+            for (TimeBucket bucket : TimeBucket.values()) {
+                TreeMap<Long, RatingSketch> level = entry.levels.get(bucket);
+                int buckets = in.readInt();
+                for (int b = 0; b < buckets; b++) {
+                    level.put(in.readLong(), RatingSketch.readFrom(in));
+                }
+            }
+            index.entries.put(key, entry);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,270 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReplicationFollower Class - Read replica fed by a primary's replication log
+ * Connects to a ReplicationServer, applies the entries it streams to a local
+ * FeedbackRepository (rebuilding the same rows and indexes) and reconnects
+ * after a disconnect, resuming at the next sequence number it has not applied.
+ * The replica is held in memory: a restarted follower resyncs from the primary.
+ * Lag is reported as entries behind the primary's log and as the time since
+ * the follower was last known to be in step; both are 0 while connected and
+ * caught up.
+ * Run a replica process with:
+ *   java ReplicationFollower host:port [data directory] [--serve]
+ * (--serve or -Dfeedback.http.port=PORT serves the dashboard from the replica;
+ * the primary's secret comes from -Dfeedback.replication.secret or
+ * FEEDBACK_REPLICATION_SECRET.)
+ * Demonstrates OOP concepts: Encapsulation, Multithreading, Networking
+ */
+public class ReplicationFollower {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long MAX_RETRY_MILLIS = 10000;
+    // A primary silent for this long (several missed heartbeats) is treated as gone
+    private static final int READ_TIMEOUT_MILLIS = (int) (ReplicationServer.HEARTBEAT_MILLIS * 5);
+    
+    private final FeedbackRepository repository;
+    private final String host;
+    private final int port;
+    private final byte[] secret;
+    
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile boolean handshakeRejected;
+    private volatile long epoch;
+    private volatile long applied;
+    private volatile long primaryLength;
+    private volatile long inStepAt = System.currentTimeMillis();
+    private volatile long resyncs;
+    private Thread thread;
+    private Socket socket;
+    
+    /**
+     * @param secret shared secret the primary was started with
+     */
+    public ReplicationFollower(FeedbackRepository repository, String host, int port, byte[] secret) {
+        this.repository = repository;
+        this.host = host;
+        this.port = port;
+        this.secret = secret.clone();
+    }
+    
+    /**
+     * Start following in a background thread
+     */
+    public synchronized void start() {
+        running = true;
+        thread = new Thread(this::followLoop, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        closeSocket();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+    
+    /**
+     * Drop the current connection without stopping; the follower reconnects
+     */
+    public void disconnect() {
+        closeSocket();
+    }
+    
+    private synchronized void closeSocket() {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: " + e.getMessage());
+        }
+    }
+    
+    private void followLoop() {
+        long retryMillis = 500;
+        while (running) {
+            try {
+                follow();
+                retryMillis = 500;
+            } catch (IOException | IllegalStateException e) {
+                if (connected) {
+                    System.out.println("Lost primary " + host + ":" + port + " at entry " + applied
+                        + " (" + (e instanceof EOFException ? "connection closed" : e.getMessage()) + "); reconnecting.");
+                    retryMillis = 500;
+                } else if (handshakeRejected) {
+                    System.err.println("Warning: " + host + ":" + port + " rejected the replication secret.");
+                }
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+        }
+    }
+    
+    /**
+     * One session: handshake, then apply messages until the connection ends
+     */
+    private void follow() throws IOException {
+        Socket s = new Socket();
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            socket = s;
+        }
+        try (s) {
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            s.setSoTimeout(READ_TIMEOUT_MILLIS);
+            s.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            out.writeInt(ReplicationServer.MAGIC);
+            out.flush();
+            handshakeRejected = false;
+            try {
+                ClusterSecurity.prove(in, out, secret);
+            } catch (IOException e) {
+                handshakeRejected = !(e instanceof EOFException);
+                throw e;
+            }
+            out.writeLong(epoch);
+            out.writeLong(applied);
+            out.flush();
+            connected = true;
+            System.out.println("Following " + host + ":" + port + " from entry " + applied + ".");
+            
+            int[] row = new int[1];
+            while (running) {
+                byte type = in.readByte();
+                switch (type) {
+                    case ReplicationServer.RESET:
+                        epoch = in.readLong();
+                        repository.clearReplica();
+                        applied = 0;
+                        resyncs++;
+                        System.out.println("Full resync from " + host + ":" + port + ".");
+                        break;
+                    case ReplicationServer.ENTRIES:
+                        primaryLength = in.readLong();
+                        in.readLong();
+                        long start = in.readLong();
+                        int count = in.readInt();
+                        if (start != applied) {
+                            throw new IllegalStateException("expected entry " + applied + " but got " + start);
+                        }
+                        if (count < 0 || count > ReplicationServer.BATCH_SIZE) {
+                            throw new IOException("Replication batch of " + count + " entries");
+                        }
+                        int[] rows = new int[count];
+                        List<Feedback> entries = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            entries.add(ReplicationLog.readEntry(in, row));
+                            rows[i] = row[0];
+                        }
+                        repository.applyReplicated(rows, entries);
+                        applied += count;
+                        MetricsRegistry.increment("replication.entriesApplied", count);
+                        break;
+                    case ReplicationServer.HEARTBEAT:
+                        primaryLength = in.readLong();
+                        in.readLong();
+                        break;
+                    default:
+                        throw new IOException("Unknown replication message " + type);
+                }
+                if (applied >= primaryLength) {
+                    inStepAt = System.currentTimeMillis();
+                }
+            }
+        }
+    }
+    
+    public boolean isConnected() {
+        return connected;
+    }
+    
+    /**
+     * Sequence number of the next entry to apply
+     */
+    public long getAppliedEntries() {
+        return applied;
+    }
+    
+    /**
+     * Entries the primary had logged when it last reported in, minus those applied
+     */
+    public long getEntriesBehind() {
+        return Math.max(0, primaryLength - applied);
+    }
+    
+    /**
+     * 0 while connected and caught up, otherwise the time since the follower was
+     * last in step with the primary
+     */
+    public long getLagMillis() {
+        if (connected && applied >= primaryLength) {
+            return 0;
+        }
+        return System.currentTimeMillis() - inStepAt;
+    }
+    
+    public long getResyncCount() {
+        return resyncs;
+    }
+    
+    public String getStatus() {
+        return (connected ? "Following " : "Disconnected from ") + host + ":" + port + " - entry " + applied
+            + " of " + primaryLength + ", " + getEntriesBehind() + " behind, lag " + getLagMillis() + " ms";
+    }
+    
+    /**
+     * Run a replica process: follow a primary and print the lag every few seconds
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || !args[0].contains(":")) {
+            System.out.println("Usage: java ReplicationFollower host:port [data directory] [--serve]");
+            return;
+        }
+        byte[] secret = ClusterSecurity.secret(ReplicationServer.SECRET_PROPERTY);
+        if (secret == null) {
+            System.out.println("Set -D" + ReplicationServer.SECRET_PROPERTY
+                + " (or FEEDBACK_REPLICATION_SECRET) to the primary's replication secret.");
+            return;
+        }
+        String address = args[0];
+        String dataDirectory = args.length > 1 && !args[1].startsWith("--") ? args[1] : "replica";
+        FeedbackRepository repository = new FeedbackRepository(dataDirectory);
+        repository.clearReplica();
+        ReplicationFollower follower = new ReplicationFollower(repository,
+            address.substring(0, address.lastIndexOf(':')), Integer.parseInt(address.substring(address.lastIndexOf(':') + 1)), secret);
+        follower.start();
+        DashboardServer.startIfRequested(args, repository);
+        
+        String last = "";
+        while (true) {
+            Thread.sleep(5000);
+            String status = follower.getStatus();
+            if (!status.equals(last) || follower.getLagMillis() > 0) {
+                System.out.println(status);
+                last = status;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ReplicationLog Class - Ordered log of row writes for followers to replay
+ * Every write to the repository sets one row: the next row for a new entry,
+ * an existing row for a replaced one. The log keeps only the row numbers in
+ * write order; the entry itself is read from the row when it is shipped, so
+ * the log costs four bytes per write. Replaying "set row r" entries in log
+ * order rebuilds the same rows on a follower, and a follower that reconnects
+ * resumes at its next sequence number.
+ * When the rows are replaced wholesale (initial load, checkpoint restore) the
+ * log starts a new epoch whose first entries are simply rows 0..n-1; a
+ * follower holding a different epoch starts over from sequence 0.
+ * Also holds the wire format for shipped entries.
+ * Demonstrates OOP concepts: Encapsulation, Thread Coordination (wait/notify)
+ */
+public class ReplicationLog {
+    // Longest comment accepted from a peer; allocated only once its length is read
+    static final int MAX_COMMENT_BYTES = 1 << 20;
+    
+    /**
+     * Consecutive log entries with the rows they set, read under the repository lock
+     */
+    public static final class Segment {
+        public final long epoch;
+        public final long start;
+        public final long logLength;
+        public final int[] rows;
+        public final Feedback[] entries;
+        
+        Segment(long epoch, long start, long logLength, int[] rows, Feedback[] entries) {
+            this.epoch = epoch;
+            this.start = start;
+            this.logLength = logLength;
+            this.rows = rows;
+            this.entries = entries;
+        }
+    }
+    
+    private long epoch;
+    // Sequence numbers below base stand for rows 0..base-1
+    private long base;
+    private int[] rows = new int[64];
+    private int size;
+    
+    public ReplicationLog() {
+        reset(0);
+    }
+    
+    /**
+     * Start a new epoch whose log begins with the given number of rows in order
+     */
+    public synchronized void reset(int rowCount) {
+        epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        base = rowCount;
+        rows = new int[64];
+        size = 0;
+        notifyAll();
+    }
+    
+    /**
+     * Note a write to a row and wake senders waiting for entries
+     */
+    public synchronized void record(int row) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        rows[size++] = row;
+        notifyAll();
+    }
+    
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+    
+    /**
+     * Sequence number the next write will get
+     */
+    public synchronized long length() {
+        return base + size;
+    }
+    
+    /**
+     * Row written by the entry at a sequence number
+     */
+    public synchronized int rowAt(long sequence) {
+        return sequence < base ? (int) sequence : rows[(int) (sequence - base)];
+    }
+    
+    /**
+     * Up to max entries from a sequence number, with the current content of the
+     * rows they set; empty if the log has no entries at or after it.
+     * Caller holds the repository's read lock so the rows do not move.
+     */
+    public synchronized Segment read(long from, int max, List<Feedback> feedbackRows) {
+        long end = Math.min(length(), from + max);
+        int count = (int) Math.max(0, end - from);
+        int[] segmentRows = new int[count];
+        Feedback[] entries = new Feedback[count];
+        for (int i = 0; i < count; i++) {
+            segmentRows[i] = rowAt(from + i);
+            entries[i] = feedbackRows.get(segmentRows[i]);
+        }
+        return new Segment(epoch, from, length(), segmentRows, entries);
+    }
+    
+    /**
+     * Wait until the log grows past a sequence number or starts a new epoch
+     * @return false on timeout
+     */
+    public synchronized boolean await(long epoch, long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (this.epoch == epoch && length() <= sequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+    
+    // ---- Wire format ----
+    
+    /**
+     * Write one entry: the row it sets and the full feedback, comment text included
+     */
+    public static void writeEntry(DataOutput out, int row, Feedback fb) throws IOException {
+        out.writeInt(row);
+        out.writeUTF(fb.getFeedbackId());
+        out.writeUTF(orEmpty(fb.getUsn()));
+        out.writeUTF(orEmpty(fb.getStudentName()));
+        out.writeByte(fb.getYear());
+        out.writeByte(fb.getSemester());
+        out.writeUTF(orEmpty(fb.getSubjectCode()));
+        out.writeUTF(orEmpty(fb.getSubjectName()));
+        out.writeUTF(orEmpty(fb.getFacultyId()));
+        out.writeUTF(orEmpty(fb.getFacultyName()));
+        out.writeByte(fb.getRating());
+        out.writeUTF(orEmpty(fb.getTimestamp()));
+        // writeUTF is limited to 64 KB, which long comments can exceed
+        byte[] comments = orEmpty(fb.getComments()).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(comments.length);
+        out.write(comments);
+    }
+    
+    /**
+     * Read one entry written by writeEntry; the row comes back through rowOut[0]
+     */
+    public static Feedback readEntry(DataInput in, int[] rowOut) throws IOException {
+        rowOut[0] = in.readInt();
+        String feedbackId = in.readUTF();
+        String usn = in.readUTF();
+        String studentName = in.readUTF();
+        int year = in.readByte();
+        int semester = in.readByte();
+        String subjectCode = in.readUTF();
+        String subjectName = in.readUTF();
+        String facultyId = in.readUTF();
+        String facultyName = in.readUTF();
+        int rating = in.readByte();
+        String timestamp = in.readUTF();
+        int commentLength = in.readInt();
+        if (commentLength < 0 || commentLength > MAX_COMMENT_BYTES) {
+            throw new IOException("Entry comment of " + commentLength + " bytes");
+        }
+        byte[] comments = new byte[commentLength];
+        in.readFully(comments);
+        return new Feedback(feedbackId, usn, studentName, year, semester, subjectCode, subjectName,
+            facultyId, facultyName, rating, new String(comments, StandardCharsets.UTF_8), timestamp);
+    }
+    
+    private static String orEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+/**
+ * ReplicationServer Class - Primary side of leader-follower replication
+ * Followers connect over TCP and name the log epoch and sequence number they
+ * hold; the primary streams the replication log from there, in batches, and
+ * sends a heartbeat with its log length while idle so followers can tell how
+ * far behind they are. A follower from another epoch, or ahead of the log,
+ * is told to reset and receives the whole log from sequence 0.
+ * Start with --replicate (port 9090) or -Dfeedback.replication.port=PORT.
+ * The server listens on loopback only unless -Dfeedback.replication.bind=ADDRESS
+ * names another interface, and a follower must prove it holds the shared
+ * secret (-Dfeedback.replication.secret, or FEEDBACK_REPLICATION_SECRET)
+ * before it is sent anything. Followers receive every row, so never expose
+ * the port beyond the hosts that run replicas.
+ *
+ * Protocol (DataOutput encoding):
+ *   follower: MAGIC
+ *   primary:  challenge (ClusterSecurity)
+ *   follower: response, epoch, next sequence
+ *   primary:  RESET epoch
+ *             ENTRIES logLength sentAtMillis start count, then count entries
+ *             HEARTBEAT logLength sentAtMillis
+ * Demonstrates OOP concepts: Encapsulation, Multithreading, Networking
+ */
+public class ReplicationServer {
+    static final int MAGIC = 0x46425250; // "FBRP"
+    static final byte RESET = 1;
+    static final byte ENTRIES = 2;
+    static final byte HEARTBEAT = 3;
+    static final long HEARTBEAT_MILLIS = 1000;
+    static final String BIND_PROPERTY = "feedback.replication.bind";
+    static final String SECRET_PROPERTY = "feedback.replication.secret";
+    static final int BATCH_SIZE = 1024;
+    
+    private static final int DEFAULT_PORT = 9090;
+    
+    private final FeedbackRepository repository;
+    private final byte[] secret;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+    
+    /**
+     * @param secret shared secret followers must prove they hold
+     */
+    public ReplicationServer(FeedbackRepository repository, byte[] secret) {
+        if (secret == null || secret.length == 0) {
+            throw new IllegalArgumentException("Replication needs a shared secret");
+        }
+        this.repository = repository;
+        this.secret = secret.clone();
+    }
+    
+    /**
+     * Start accepting followers if requested by --replicate or -Dfeedback.replication.port=PORT
+     * @return the running server, or null if not requested or it could not start
+     */
+    public static ReplicationServer startIfRequested(String[] args, FeedbackRepository repository) {
+        int port = Integer.getInteger("feedback.replication.port", -1);
+        for (String arg : args) {
+            if (arg.equals("--replicate") && port < 0) {
+                port = DEFAULT_PORT;
+            }
+        }
+        if (port < 0) {
+            return null;
+        }
+        byte[] secret = ClusterSecurity.secret(SECRET_PROPERTY);
+        if (secret == null) {
+            System.err.println("Warning: Replication not started: set -D" + SECRET_PROPERTY
+                + " (or FEEDBACK_REPLICATION_SECRET) to the secret followers will use.");
+            return null;
+        }
+        ReplicationServer server = new ReplicationServer(repository, secret);
+        try {
+            server.start(ClusterSecurity.bindAddress(BIND_PROPERTY), port);
+            System.out.println("Replicating to followers on " + server.serverSocket.getInetAddress().getHostAddress()
+                + ":" + server.getPort() + ".");
+            return server;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not start replication on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Listen on a loopback port (0 picks a free one)
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+    
+    /**
+     * Listen on a port of the given interface
+     */
+    public synchronized void start(InetAddress address, int port) throws IOException {
+        // Followers receive the loaded rows, so leave no academic year on disk
+        repository.loadAllPartitions();
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(address, port));
+        running = true;
+        Thread acceptor = new Thread(this::acceptFollowers, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: " + e.getMessage());
+        }
+    }
+    
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    private void acceptFollowers() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread sender = new Thread(() -> serve(socket), "replication-" + socket.getRemoteSocketAddress());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Warning: Replication accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stream the log to one follower until it disconnects
+     */
+    private void serve(Socket socket) {
+        String follower = String.valueOf(socket.getRemoteSocketAddress());
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 1 << 16))) {
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(ClusterSecurity.HANDSHAKE_TIMEOUT_MILLIS);
+            if (in.readInt() != MAGIC) {
+                System.err.println("Warning: Ignoring replication connection from " + follower + " (bad handshake).");
+                return;
+            }
+            if (!ClusterSecurity.verify(in, out, secret)) {
+                System.err.println("Warning: Rejected replication connection from " + follower + " (wrong secret).");
+                MetricsRegistry.increment("replication.followersRejected");
+                return;
+            }
+            long epoch = in.readLong();
+            long next = in.readLong();
+            s.setSoTimeout(0);
+            
+            ReplicationLog.Segment current = repository.readReplicationLog(next, 0);
+            if (current.epoch != epoch || next > current.logLength) {
+                epoch = current.epoch;
+                next = 0;
+                out.writeByte(RESET);
+                out.writeLong(epoch);
+            }
+            System.out.println("Follower " + follower + " connected at entry " + next + " of " + current.logLength + ".");
+            MetricsRegistry.increment("replication.followersConnected");
+            
+            while (running) {
+                ReplicationLog.Segment segment = repository.readReplicationLog(next, BATCH_SIZE);
+                if (segment.epoch != epoch) {
+                    // Rows were replaced wholesale; the follower starts over
+                    epoch = segment.epoch;
+                    next = 0;
+                    out.writeByte(RESET);
+                    out.writeLong(epoch);
+                    continue;
+                }
+                if (segment.rows.length == 0) {
+                    out.writeByte(HEARTBEAT);
+                    out.writeLong(segment.logLength);
+                    out.writeLong(System.currentTimeMillis());
+                    out.flush();
+                    repository.awaitReplicationLog(epoch, next, HEARTBEAT_MILLIS);
+                    continue;
+                }
+                out.writeByte(ENTRIES);
+                out.writeLong(segment.logLength);
+                out.writeLong(System.currentTimeMillis());
+                out.writeLong(segment.start);
+                out.writeInt(segment.rows.length);
+                for (int i = 0; i < segment.rows.length; i++) {
+                    ReplicationLog.writeEntry(out, segment.rows[i], segment.entries[i]);
+                }
+                out.flush();
+                next += segment.rows.length;
+                MetricsRegistry.increment("replication.entriesShipped", segment.rows.length);
+            }
+        } catch (SocketException e) {
+            System.out.println("Follower " + follower + " disconnected.");
+        } catch (IOException e) {
+            System.err.println("Warning: Replication to " + follower + " stopped: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
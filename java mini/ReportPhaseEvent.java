@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ReportPhaseEvent Class - Flight Recorder event for one phase of chart or report generation
+ * Demonstrates OOP concepts: Inheritance, Annotations
+ */
+@Name("feedback.ReportPhase")
+@Label("Report Phase")
+@Category({"Feedback System", "Reports"})
+@Description("One phase of a GraphGenerator chart or HTML report")
+public class ReportPhaseEvent extends Event {
+    @Label("Report")
+    public String report;
+    
+    @Label("Phase")
+    public String phase;
+    
+    @Label("Items")
+    @Description("Subjects, faculty or rows handled in this phase")
+    public int items;
+}
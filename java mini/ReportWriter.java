@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ReportWriter Class - Buffered UTF-8 output for generated reports
+ * Fixed markup is written as bytes encoded once up front; only data (names,
+ * counts, averages) is encoded while writing, and numbers are written as
+ * digits without going through String.format. Everything collects in one
+ * large buffer that is handed to the channel when full, so a report costs a
+ * few large writes instead of one per line.
+ * Demonstrates OOP concepts: Encapsulation, Resource Management (AutoCloseable)
+ */
+public class ReportWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 18;
+    
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    
+    public ReportWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+    
+    /**
+     * Writer with a small heap buffer, for rendering fragments into memory
+     */
+    public ReportWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+    
+    /**
+     * Encode fixed markup once, for writing with write(byte[])
+     */
+    public static byte[] encode(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Pre-encoded markup
+     */
+    public ReportWriter write(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+    
+    /**
+     * Data written as is; use html() for text shown on the page
+     */
+    public ReportWriter text(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        return this;
+    }
+    
+    /**
+     * Text with the HTML special characters escaped
+     */
+    public ReportWriter html(String text) throws IOException {
+        return escaped(text, false);
+    }
+    
+    /**
+     * Text as a single-quoted JavaScript string literal
+     */
+    public ReportWriter jsString(String text) throws IOException {
+        ascii('\'');
+        escaped(text, true);
+        ascii('\'');
+        return this;
+    }
+    
+    // Writes unescaped runs in one piece and only breaks them at special characters
+    private ReportWriter escaped(String text, boolean script) throws IOException {
+        int plain = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement = script ? scriptEscape(text.charAt(i)) : entityFor(text.charAt(i));
+            if (replacement != null) {
+                text(text.subSequence(plain, i));
+                text(replacement);
+                plain = i + 1;
+            }
+        }
+        return text(plain == 0 ? text : text.subSequence(plain, text.length()));
+    }
+    
+    private static String entityFor(char c) {
+        switch (c) {
+            case '&': return "&amp;";
+            case '<': return "&lt;";
+            case '>': return "&gt;";
+            case '"': return "&quot;";
+            case '\'': return "&#39;";
+            default: return null;
+        }
+    }
+    
+    private static String scriptEscape(char c) {
+        switch (c) {
+            case '\'': return "\\'";
+            case '\\': return "\\\\";
+            case '\n': return "\\n";
+            case '\r': return "\\r";
+            // Line and paragraph separators end a string literal in older JavaScript engines
+            case '\u2028': return "\\u2028";
+            case '\u2029': return "\\u2029";
+            // Keeps "</script>" inside data from closing the script block
+            case '<': return "\\x3c";
+            default: return null;
+        }
+    }
+    
+    public ReportWriter number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return text(Long.toString(value));
+        }
+        if (buffer.remaining() < 20) {
+            drain();
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        // Digits were produced lowest first
+        for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+            byte digit = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, digit);
+        }
+        return this;
+    }
+    
+    /**
+     * Number rounded half up to the given number of decimal places, like "%.2f"
+     */
+    public ReportWriter decimal(double value, int places) throws IOException {
+        long scale = 1;
+        for (int i = 0; i < places; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            ascii('-');
+        }
+        number(scaled / scale);
+        if (places > 0) {
+            ascii('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                ascii((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return this;
+    }
+    
+    private void ascii(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) c);
+    }
+    
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    public void flush() throws IOException {
+        if (buffer.position() > 0) {
+            drain();
+        }
+    }
+    
+    /**
+     * Flush and close the channel
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
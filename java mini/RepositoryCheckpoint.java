@@ -0,0 +1,253 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * RepositoryCheckpoint Class - Saved copy of the repository's loaded rows and derived state
+ * Holds the rows (with repeated strings stored once in a dictionary), the bitmap
+ * index, the leaderboards, the rating and participation sketches and the partition
+ * row sets, plus a fingerprint of each partition file. On start the repository adopts this state instead of parsing
+ * JSON and rebuilding indexes, provided every file still begins with the
+ * fingerprinted bytes; entries appended after the checkpoint are replayed.
+ * Demonstrates OOP concepts: Encapsulation, File I/O, Exception Handling
+ */
+public class RepositoryCheckpoint {
+    private static final int MAGIC = 0x46424350; // "FBCP"
+    private static final int VERSION = 4;
+    
+    private final List<Feedback> rows;
+    private final BitmapIndex bitmapIndex;
+    private final Leaderboard facultyLeaderboard;
+    private final Leaderboard subjectLeaderboard;
+    private final RatingSketchIndex facultySketches;
+    private final RatingSketchIndex subjectSketches;
+    private final RatingSketchIndex overallSketches;
+    private final ParticipationSketches participation;
+    private final Map<String, RowBitmap> rowsByPartition;
+    
+    // Partition key -> {prefix length, CRC32C} of the file when the checkpoint was taken
+    private final Map<String, long[]> fingerprints;
+    
+    public RepositoryCheckpoint(List<Feedback> rows, BitmapIndex bitmapIndex,
+                                Leaderboard facultyLeaderboard, Leaderboard subjectLeaderboard,
+                                RatingSketchIndex facultySketches, RatingSketchIndex subjectSketches,
+                                RatingSketchIndex overallSketches, ParticipationSketches participation,
+                                Map<String, RowBitmap> rowsByPartition, Map<String, long[]> fingerprints) {
+        this.rows = rows;
+        this.bitmapIndex = bitmapIndex;
+        this.facultyLeaderboard = facultyLeaderboard;
+        this.subjectLeaderboard = subjectLeaderboard;
+        this.facultySketches = facultySketches;
+        this.subjectSketches = subjectSketches;
+        this.overallSketches = overallSketches;
+        this.participation = participation;
+        this.rowsByPartition = rowsByPartition;
+        this.fingerprints = fingerprints;
+    }
+    
+    public List<Feedback> getRows() {
+        return rows;
+    }
+    
+    public BitmapIndex getBitmapIndex() {
+        return bitmapIndex;
+    }
+    
+    public Leaderboard getFacultyLeaderboard() {
+        return facultyLeaderboard;
+    }
+    
+    public Leaderboard getSubjectLeaderboard() {
+        return subjectLeaderboard;
+    }
+    
+    public RatingSketchIndex getFacultySketches() {
+        return facultySketches;
+    }
+    
+    public RatingSketchIndex getSubjectSketches() {
+        return subjectSketches;
+    }
+    
+    public RatingSketchIndex getOverallSketches() {
+        return overallSketches;
+    }
+    
+    public ParticipationSketches getParticipation() {
+        return participation;
+    }
+    
+    public Map<String, RowBitmap> getRowsByPartition() {
+        return rowsByPartition;
+    }
+    
+    public Map<String, long[]> getFingerprints() {
+        return fingerprints;
+    }
+    
+    /**
+     * Write the checkpoint beside the target and move it into place
+     */
+    public void writeTo(File file) throws DataStorageException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            
+            out.writeInt(fingerprints.size());
+            for (Map.Entry<String, long[]> entry : fingerprints.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue()[0]);
+                out.writeLong(entry.getValue()[1]);
+            }
+            
+            writeRows(out);
+            bitmapIndex.writeTo(out);
+            facultyLeaderboard.writeTo(out);
+            subjectLeaderboard.writeTo(out);
+            facultySketches.writeTo(out);
+            subjectSketches.writeTo(out);
+            overallSketches.writeTo(out);
+            participation.writeTo(out);
+            
+            out.writeInt(rowsByPartition.size());
+            for (Map.Entry<String, RowBitmap> entry : rowsByPartition.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", file.getPath(), "Failed to write checkpoint", e);
+        }
+        
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new DataStorageException("WRITE", file.getPath(), "Failed to replace checkpoint", e);
+        }
+    }
+    
+    /**
+     * Names, codes and timestamps repeat across rows, so each distinct string is
+     * written once and rows refer to it by number
+     */
+    private void writeRows(DataOutputStream out) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[][] refs = new int[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            Feedback fb = rows.get(i);
+            String[] fields = {fb.getUsn(), fb.getStudentName(), fb.getSubjectCode(), fb.getSubjectName(),
+                fb.getFacultyId(), fb.getFacultyName(), fb.getTimestamp()};
+            refs[i] = new int[fields.length];
+            for (int f = 0; f < fields.length; f++) {
+                Integer ref = dictionary.get(fields[f]);
+                if (ref == null) {
+                    ref = strings.size();
+                    dictionary.put(fields[f], ref);
+                    strings.add(fields[f]);
+                }
+                refs[i][f] = ref;
+            }
+        }
+        
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+        
+        out.writeInt(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Feedback fb = rows.get(i);
+            out.writeUTF(fb.getFeedbackId());
+            for (int ref : refs[i]) {
+                out.writeInt(ref);
+            }
+            out.writeByte(fb.getYear());
+            out.writeByte(fb.getSemester());
+            out.writeByte(fb.getRating());
+            out.writeLong(fb.getCommentOffset());
+            out.writeInt(fb.getCommentLength());
+            if (!fb.hasCommentReference()) {
+                out.writeUTF(fb.getComments());
+            }
+        }
+    }
+    
+    /**
+     * Read a checkpoint, or return null if there is none
+     */
+    public static RepositoryCheckpoint readFrom(File file, CommentStore commentStore, int leaderboardMinRatings)
+            throws DataStorageException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new DataStorageException("READ", file.getPath(), "Unrecognised checkpoint format");
+            }
+            
+            Map<String, long[]> fingerprints = new LinkedHashMap<>();
+            int partitionCount = in.readInt();
+            for (int i = 0; i < partitionCount; i++) {
+                fingerprints.put(in.readUTF(), new long[] {in.readLong(), in.readLong()});
+            }
+            
+            List<Feedback> rows = readRows(in, commentStore);
+            BitmapIndex bitmapIndex = BitmapIndex.readFrom(in);
+            Leaderboard faculty = Leaderboard.readFrom(in, leaderboardMinRatings);
+            Leaderboard subjects = Leaderboard.readFrom(in, leaderboardMinRatings);
+            RatingSketchIndex facultySketches = RatingSketchIndex.readFrom(in);
+            RatingSketchIndex subjectSketches = RatingSketchIndex.readFrom(in);
+            RatingSketchIndex overallSketches = RatingSketchIndex.readFrom(in);
+            ParticipationSketches participation = ParticipationSketches.readFrom(in);
+            
+            Map<String, RowBitmap> rowsByPartition = new HashMap<>();
+            int bitmapCount = in.readInt();
+            for (int i = 0; i < bitmapCount; i++) {
+                rowsByPartition.put(in.readUTF(), RowBitmap.readFrom(in));
+            }
+            return new RepositoryCheckpoint(rows, bitmapIndex, faculty, subjects, facultySketches, subjectSketches,
+                overallSketches, participation, rowsByPartition, fingerprints);
+        } catch (IOException e) {
+            throw new DataStorageException("READ", file.getPath(), "Failed to read checkpoint", e);
+        }
+    }
+    
+    private static List<Feedback> readRows(DataInputStream in, CommentStore commentStore) throws IOException {
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        
+        int count = in.readInt();
+        List<Feedback> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String feedbackId = in.readUTF();
+            String usn = strings[in.readInt()];
+            String studentName = strings[in.readInt()];
+            String subjectCode = strings[in.readInt()];
+            String subjectName = strings[in.readInt()];
+            String facultyId = strings[in.readInt()];
+            String facultyName = strings[in.readInt()];
+            String timestamp = strings[in.readInt()];
+            int year = in.readByte();
+            int semester = in.readByte();
+            int rating = in.readByte();
+            long commentOffset = in.readLong();
+            int commentLength = in.readInt();
+            String comments = commentOffset < 0 ? in.readUTF() : "";
+            
+            Feedback fb = new Feedback(feedbackId, usn, studentName, year, semester, subjectCode,
+                subjectName, facultyId, facultyName, rating, comments, timestamp);
+            if (commentOffset >= 0) {
+                fb.setCommentReference(commentStore, commentOffset, commentLength);
+            }
+            rows.add(fb);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,270 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * RepositoryCheckpointCheck Class - Brute-force check of checkpoint restore and replay
+ * Each trial fills a scratch data directory with random feedback over several
+ * academic years, takes a checkpoint, then keeps writing: new entries (which
+ * leave the saved prefix of a partition file in place) and replacements of
+ * stored ones (which usually rewrite it). The partition bytes saved at
+ * checkpoint time give the expected answers:
+ * - each fingerprint's prefix ends at the last '}' and its CRC32C matches those bytes
+ * - hasPrefix is true exactly when the file still starts with the same bytes
+ * - the restore replays the entries after every prefix, or falls back when any differs
+ * The reopened repository must then hold the same rows, histograms, rankings
+ * and distinct counts as one parsed from a copy of the files without the checkpoint.
+ *   java RepositoryCheckpointCheck [trials] [seed]
+ * Exits with status 1 on the first mismatch.
+ * Demonstrates OOP concepts: Testing by Reference Implementation, File I/O
+ */
+public class RepositoryCheckpointCheck {
+    private static final PrintStream CONSOLE = System.out;
+    private static final List<File> SCRATCH = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+
+        int restored = 0;
+        int fellBack = 0;
+        long replayed = 0;
+        for (int trial = 0; trial < trials; trial++) {
+            File directory = Files.createTempDirectory("checkpoint-check").toFile();
+            File reference = Files.createTempDirectory("checkpoint-check-ref").toFile();
+            SCRATCH.add(directory);
+            SCRATCH.add(reference);
+            try {
+                Outcome outcome = runTrial(random, directory, reference, seed, trial);
+                if (outcome.restored) {
+                    restored++;
+                    replayed += outcome.replayed;
+                } else {
+                    fellBack++;
+                }
+            } finally {
+                System.setOut(CONSOLE);
+                deleteScratch();
+            }
+        }
+        System.out.println("RepositoryCheckpoint: " + trials + " trials, " + restored + " restored ("
+            + replayed + " entries replayed), " + fellBack + " fell back to the data files (seed " + seed + ")");
+    }
+
+    private static class Outcome {
+        boolean restored;
+        int replayed;
+    }
+
+    private static Outcome runTrial(Random random, File directory, File reference, long seed, int trial)
+            throws Exception {
+        String path = directory.getPath();
+        List<String> usns = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            usns.add(String.format("1RV%02dCS%03d", 20 + random.nextInt(5), i));
+        }
+
+        // Repository messages would drown the report; keep them for the restore line
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(log, true, "UTF-8"));
+
+        FeedbackRepository repository = new FeedbackRepository(path);
+        repository.addFeedbackBatch(randomEntries(random, usns, 100 + random.nextInt(300)), DuplicatePolicy.REPLACE);
+        if (random.nextBoolean()) {
+            repository.loadAllPartitions();
+        }
+        repository.checkpoint();
+
+        PartitionedStore store = new PartitionedStore(path);
+        RepositoryCheckpoint checkpoint = RepositoryCheckpoint.readFrom(
+            store.getCheckpointFile(), store.getCommentStore(), repository.getLeaderboardMinRatings());
+        Map<String, byte[]> saved = new HashMap<>();
+        for (String key : checkpoint.getFingerprints().keySet()) {
+            saved.put(key, readFile(directory, key));
+        }
+
+        // Later writes: new students only append, known ones may replace stored entries
+        List<String> newUsns = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            newUsns.add(String.format("1RV25IS%03d", i));
+        }
+        int rounds = random.nextInt(4);
+        for (int round = 0; round < rounds; round++) {
+            List<Feedback> entries = randomEntries(random, random.nextBoolean() ? newUsns : usns, 1 + random.nextInt(20));
+            repository.addFeedbackBatch(entries, random.nextInt(3) == 0 ? DuplicatePolicy.REPLACE : DuplicatePolicy.KEEP_LATEST);
+        }
+
+        boolean allPrefixesKept = true;
+        int expectedReplay = 0;
+        for (Map.Entry<String, long[]> entry : checkpoint.getFingerprints().entrySet()) {
+            String key = entry.getKey();
+            byte[] before = saved.get(key);
+            byte[] after = readFile(directory, key);
+            long prefix = entry.getValue()[0];
+
+            long expectedPrefix = lastBrace(before) + 1;
+            CRC32C crc = new CRC32C();
+            crc.update(before, 0, (int) expectedPrefix);
+            if (prefix != expectedPrefix || entry.getValue()[1] != crc.getValue()) {
+                fail(seed, trial, key + ": fingerprint {" + prefix + ", " + entry.getValue()[1] + "} expected {"
+                    + expectedPrefix + ", " + crc.getValue() + "}");
+            }
+
+            boolean kept = after.length >= prefix
+                && Arrays.equals(Arrays.copyOf(before, (int) prefix), Arrays.copyOf(after, (int) prefix));
+            if (store.hasPrefix(key, prefix, entry.getValue()[1]) != kept) {
+                fail(seed, trial, key + ": hasPrefix " + !kept + " but the first " + prefix + " bytes "
+                    + (kept ? "are unchanged" : "changed"));
+            }
+            allPrefixesKept &= kept;
+            if (kept) {
+                expectedReplay += countEntries(new String(after, (int) prefix, after.length - (int) prefix, "UTF-8"));
+            }
+        }
+
+        // Reference: the same files parsed from scratch
+        for (File file : directory.listFiles()) {
+            if (!file.getName().equals(store.getCheckpointFile().getName())) {
+                Files.copy(file.toPath(), new File(reference, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        log.reset();
+        FeedbackRepository reopened = new FeedbackRepository(path);
+        String restoreLine = log.toString("UTF-8");
+        FeedbackRepository parsed = new FeedbackRepository(reference.getPath());
+        System.setOut(CONSOLE);
+
+        Outcome outcome = new Outcome();
+        outcome.restored = restoreLine.contains("from checkpoint");
+        if (outcome.restored != allPrefixesKept) {
+            fail(seed, trial, (outcome.restored ? "restored" : "fell back") + " although "
+                + (allPrefixesKept ? "every prefix was kept" : "a prefix changed") + ": " + restoreLine.trim());
+        }
+        if (outcome.restored) {
+            outcome.replayed = restoreLine.contains("replayed ")
+                ? Integer.parseInt(restoreLine.replaceAll("(?s).*replayed (\\d+) newer.*", "$1")) : 0;
+            if (outcome.replayed != expectedReplay) {
+                fail(seed, trial, "replayed " + outcome.replayed + " entries, expected " + expectedReplay);
+            }
+        }
+
+        System.setOut(new PrintStream(new ByteArrayOutputStream(), true, "UTF-8"));
+        reopened.loadAllPartitions();
+        parsed.loadAllPartitions();
+        System.setOut(CONSOLE);
+        compare(seed, trial, reopened, parsed, random);
+        return outcome;
+    }
+
+    private static void compare(long seed, int trial, FeedbackRepository reopened, FeedbackRepository parsed,
+                                Random random) {
+        if (!describe(reopened.getAllFeedback()).equals(describe(parsed.getAllFeedback()))) {
+            fail(seed, trial, "rows differ from the parsed files");
+        }
+        check(seed, trial, "rating distribution",
+            reopened.getRatingDistribution(new FeedbackQuery()), parsed.getRatingDistribution(new FeedbackQuery()));
+        check(seed, trial, "top faculty", reopened.getTopFaculty(10).toString(), parsed.getTopFaculty(10).toString());
+        check(seed, trial, "bottom subjects",
+            reopened.getBottomSubjects(10).toString(), parsed.getBottomSubjects(10).toString());
+        for (int i = 0; i < 5; i++) {
+            RangeFilter filter = new RangeFilter().semesters(1 + random.nextInt(4), 4 + random.nextInt(5))
+                .ratings(1 + random.nextInt(3), 3 + random.nextInt(3));
+            check(seed, trial, "count " + filter, reopened.countFeedback(filter), parsed.countFeedback(filter));
+            check(seed, trial, "histogram " + filter,
+                reopened.getRatingDistribution(filter), parsed.getRatingDistribution(filter));
+        }
+        for (String subject : parsed.getUniqueSubjects()) {
+            check(seed, trial, "distinct students of " + subject,
+                reopened.estimateDistinctStudentsBySubject(subject), parsed.estimateDistinctStudentsBySubject(subject));
+        }
+        for (String faculty : parsed.getUniqueFaculty()) {
+            check(seed, trial, "histogram of " + faculty,
+                reopened.getFacultyRatingHistogram(faculty), parsed.getFacultyRatingHistogram(faculty));
+        }
+    }
+
+    private static List<Feedback> randomEntries(Random random, List<String> usns, int count) {
+        List<Feedback> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int subject = random.nextInt(6);
+            int faculty = subject % 3;
+            String timestamp = String.format("%d-%02d-%02d %02d:%02d:%02d", 2023 + random.nextInt(4),
+                1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            String comments = random.nextInt(3) == 0 ? "comment " + random.nextInt(1000) : "";
+            entries.add(new Feedback("FB" + random.nextLong() + "-CHK", usns.get(random.nextInt(usns.size())), "Student",
+                1 + random.nextInt(4), 1 + random.nextInt(8), "CS10" + subject, "Subject " + subject,
+                "F00" + faculty, "Faculty " + faculty, 1 + random.nextInt(5), comments, timestamp));
+        }
+        return entries;
+    }
+
+    private static List<String> describe(List<Feedback> rows) {
+        List<String> lines = new ArrayList<>();
+        for (Feedback fb : rows) {
+            lines.add(fb.getFeedbackId() + "|" + fb.getUsn() + "|" + fb.getYear() + "|" + fb.getSemester() + "|"
+                + fb.getSubjectCode() + "|" + fb.getFacultyId() + "|" + fb.getRating() + "|" + fb.getComments()
+                + "|" + fb.getTimestamp());
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    private static byte[] readFile(File directory, String partitionKey) throws IOException {
+        File file = new File(directory, FeedbackPartition.fileName(partitionKey));
+        return file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+    }
+
+    private static int lastBrace(byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == '}') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int countEntries(String text) {
+        int count = 0;
+        for (int i = text.indexOf("\"feedbackId\""); i >= 0; i = text.indexOf("\"feedbackId\"", i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void check(long seed, int trial, String what, Object restored, Object parsed) {
+        if (!restored.equals(parsed)) {
+            fail(seed, trial, what + ": " + restored + " after restore, " + parsed + " parsed");
+        }
+    }
+
+    private static void fail(long seed, int trial, String message) {
+        System.setOut(CONSOLE);
+        System.err.println("MISMATCH (seed " + seed + ", trial " + trial + "): " + message);
+        deleteScratch();
+        System.exit(1);
+    }
+
+    private static void deleteScratch() {
+        for (File directory : SCRATCH) {
+            deleteRecursively(directory);
+        }
+        SCRATCH.clear();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
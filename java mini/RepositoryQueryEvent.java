@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * RepositoryQueryEvent Class - Flight Recorder event for one FeedbackRepository query
+ * Demonstrates OOP concepts: Inheritance, Annotations
+ */
+@Name("feedback.RepositoryQuery")
+@Label("Repository Query")
+@Category({"Feedback System", "Repository"})
+@Description("A lookup, count or aggregate over stored feedback")
+public class RepositoryQueryEvent extends Event {
+    @Label("Method")
+    public String method;
+    
+    @Label("Predicate")
+    @Description("Filter applied, e.g. FeedbackQuery[semester=5 rating<=2]")
+    public String predicate;
+    
+    @Label("Result Size")
+    @Description("Rows returned or counted")
+    public int resultSize;
+    
+    @Label("Rows Scanned")
+    @Description("Rows examined by a column scan; 0 for queries answered from the indexes")
+    public int rowsScanned;
+}
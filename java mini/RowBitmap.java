@@ -0,0 +1,400 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * RowBitmap Class - Compressed bitmap of repository row numbers (roaring-style)
+ * Rows are split by their high 16 bits into chunks of 65536. A sparse chunk keeps
+ * a sorted array of its low 16 bits; a dense chunk (over 4096 rows) switches to a
+ * plain 65536-bit set. AND/OR work chunk by chunk and counts use popcount.
+ * Demonstrates OOP concepts: Encapsulation, Nested Classes, Bit Manipulation
+ */
+public class RowBitmap {
+    private int[] keys;
+    private Container[] containers;
+    private int size;
+    
+    public RowBitmap() {
+        this.keys = new int[4];
+        this.containers = new Container[4];
+        this.size = 0;
+    }
+    
+    /**
+     * Bitmap holding every row from 0 (inclusive) to rowCount (exclusive)
+     */
+    public static RowBitmap range(int rowCount) {
+        RowBitmap bitmap = new RowBitmap();
+        for (int row = 0; row < rowCount; row++) {
+            bitmap.add(row);
+        }
+        return bitmap;
+    }
+    
+    public void add(int row) {
+        int high = row >>> 16;
+        int pos = find(high);
+        if (pos < 0) {
+            pos = -pos - 1;
+            insertContainer(pos, high, new Container());
+        }
+        containers[pos].add((char) row);
+    }
+    
+    public void remove(int row) {
+        int pos = find(row >>> 16);
+        if (pos < 0) {
+            return;
+        }
+        containers[pos].remove((char) row);
+        if (containers[pos].cardinality == 0) {
+            System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+            System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+            size--;
+        }
+    }
+    
+    public boolean contains(int row) {
+        int pos = find(row >>> 16);
+        return pos >= 0 && containers[pos].contains((char) row);
+    }
+    
+    /**
+     * Number of rows set
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality;
+        }
+        return total;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Rows present in both bitmaps
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality > 0) {
+                    result.insertContainer(result.size, keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Count of rows present in both bitmaps, without building the intersection
+     */
+    public int andCardinality(RowBitmap other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Rows present in either bitmap
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.insertContainer(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.insertContainer(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insertContainer(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Visit every row in ascending order
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+    
+    /**
+     * All rows in ascending order
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality()];
+        int[] count = {0};
+        forEach(row -> rows[count[0]++] = row);
+        return rows;
+    }
+    
+    /**
+     * Write the chunks as they are in memory, for reading back with readFrom
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeChar(keys[i]);
+            containers[i].writeTo(out);
+        }
+    }
+    
+    /**
+     * Read a bitmap written by writeTo without re-inserting its rows
+     */
+    public static RowBitmap readFrom(DataInput in) throws IOException {
+        RowBitmap bitmap = new RowBitmap();
+        int count = in.readInt();
+        bitmap.keys = new int[Math.max(4, count)];
+        bitmap.containers = new Container[Math.max(4, count)];
+        for (int i = 0; i < count; i++) {
+            bitmap.keys[i] = in.readChar();
+            bitmap.containers[i] = Container.readFrom(in);
+        }
+        bitmap.size = count;
+        return bitmap;
+    }
+    
+    private int find(int high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+    
+    private void insertContainer(int pos, int high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+        keys[pos] = high;
+        containers[pos] = container;
+        size++;
+    }
+    
+    /**
+     * One 65536-row chunk, stored as a sorted array or as a bit set
+     */
+    private static class Container {
+        private static final int ARRAY_MAX = 4096;
+        
+        private char[] values = new char[4];  // used while bits == null
+        private long[] bits;                  // 1024 words once dense
+        private int cardinality;
+        
+        void add(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) == 0) {
+                    bits[low >>> 6] |= mask;
+                    cardinality++;
+                }
+                return;
+            }
+            int pos = Arrays.binarySearch(values, 0, cardinality, low);
+            if (pos >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBits();
+                add(low);
+                return;
+            }
+            pos = -pos - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = low;
+            cardinality++;
+        }
+        
+        void remove(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) != 0) {
+                    bits[low >>> 6] &= ~mask;
+                    cardinality--;
+                }
+                return;
+            }
+            int pos = Arrays.binarySearch(values, 0, cardinality, low);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+                cardinality--;
+            }
+        }
+        
+        boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+        
+        Container and(Container other) {
+            Container result = new Container();
+            if (bits != null && other.bits != null) {
+                long[] words = new long[1024];
+                int card = 0;
+                for (int i = 0; i < 1024; i++) {
+                    words[i] = bits[i] & other.bits[i];
+                    card += Long.bitCount(words[i]);
+                }
+                result.bits = words;
+                result.cardinality = card;
+                if (card <= ARRAY_MAX) {
+                    result.toArray();
+                }
+                return result;
+            }
+            Container sparse = bits == null ? this : other;
+            Container dense = bits == null ? other : this;
+            result.values = new char[Math.max(1, sparse.cardinality)];
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (dense.contains(sparse.values[i])) {
+                    result.values[result.cardinality++] = sparse.values[i];
+                }
+            }
+            return result;
+        }
+        
+        int andCardinality(Container other) {
+            if (bits != null && other.bits != null) {
+                int card = 0;
+                for (int i = 0; i < 1024; i++) {
+                    card += Long.bitCount(bits[i] & other.bits[i]);
+                }
+                return card;
+            }
+            Container sparse = bits == null ? this : other;
+            Container dense = bits == null ? other : this;
+            int card = 0;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (dense.contains(sparse.values[i])) {
+                    card++;
+                }
+            }
+            return card;
+        }
+        
+        Container or(Container other) {
+            // Copy the denser side and add the other side into it
+            Container base = (other.bits != null && bits == null) ? other : this;
+            Container added = base == this ? other : this;
+            Container result = base.copy();
+            added.forEach(0, row -> result.add((char) row));
+            return result;
+        }
+        
+        Container copy() {
+            Container c = new Container();
+            c.cardinality = cardinality;
+            if (bits != null) {
+                c.bits = bits.clone();
+            } else {
+                c.values = Arrays.copyOf(values, Math.max(1, cardinality));
+            }
+            return c;
+        }
+        
+        void forEach(int base, IntConsumer action) {
+            if (bits == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(base | values[i]);
+                }
+                return;
+            }
+            for (int i = 0; i < 1024; i++) {
+                long word = bits[i];
+                while (word != 0) {
+                    action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+        
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(cardinality);
+            out.writeBoolean(bits != null);
+            if (bits != null) {
+                for (long word : bits) {
+                    out.writeLong(word);
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    out.writeChar(values[i]);
+                }
+            }
+        }
+        
+        static Container readFrom(DataInput in) throws IOException {
+            Container container = new Container();
+            container.cardinality = in.readInt();
+            if (in.readBoolean()) {
+                container.values = null;
+                container.bits = new long[1024];
+                for (int i = 0; i < container.bits.length; i++) {
+                    container.bits[i] = in.readLong();
+                }
+            } else {
+                container.values = new char[Math.max(4, container.cardinality)];
+                for (int i = 0; i < container.cardinality; i++) {
+                    container.values[i] = in.readChar();
+                }
+            }
+            return container;
+        }
+        
+        private void toBits() {
+            long[] words = new long[1024];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bits = words;
+            values = null;
+        }
+        
+        private void toArray() {
+            char[] array = new char[Math.max(1, cardinality)];
+            int[] n = {0};
+            forEach(0, row -> array[n[0]++] = (char) row);
+            values = array;
+            bits = null;
+        }
+    }
+}
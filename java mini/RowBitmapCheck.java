@@ -0,0 +1,141 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * RowBitmapCheck Class - Brute-force check of RowBitmap against java.util.BitSet
+ * Builds pairs of bitmaps with random adds and removes, mixing sparse chunks
+ * with dense ones that cross the 4096-row switch to a bit set and back, and
+ * compares contains, cardinality, toArray, and, or, andCardinality and a
+ * writeTo/readFrom round trip with the same operations on BitSets. Results
+ * are then changed to make sure they share no chunk with their inputs.
+ *   java RowBitmapCheck [trials] [seed]
+ * Exits with status 1 on the first mismatch.
+ * Demonstrates OOP concepts: Testing by Reference Implementation
+ */
+public class RowBitmapCheck {
+    private static final int CHUNK = 1 << 16;
+
+    public static void main(String[] args) throws IOException {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+
+        for (int trial = 0; trial < trials; trial++) {
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            RowBitmap a = randomBitmap(random, expectedA);
+            RowBitmap b = randomBitmap(random, expectedB);
+
+            check(seed, trial, "a", a, expectedA);
+            check(seed, trial, "b", b, expectedB);
+
+            BitSet expectedAnd = (BitSet) expectedA.clone();
+            expectedAnd.and(expectedB);
+            BitSet expectedOr = (BitSet) expectedA.clone();
+            expectedOr.or(expectedB);
+
+            RowBitmap and = a.and(b);
+            RowBitmap or = a.or(b);
+            check(seed, trial, "a AND b", and, expectedAnd);
+            check(seed, trial, "a OR b", or, expectedOr);
+            if (a.andCardinality(b) != expectedAnd.cardinality() || b.andCardinality(a) != expectedAnd.cardinality()) {
+                fail(seed, trial, "andCardinality " + a.andCardinality(b) + "/" + b.andCardinality(a)
+                    + " expected " + expectedAnd.cardinality());
+            }
+
+            RowBitmap copy = roundTrip(a);
+            check(seed, trial, "readFrom(writeTo(a))", copy, expectedA);
+
+            // Results and read-back copies must stay independent of their inputs
+            mutate(random, and, expectedAnd);
+            mutate(random, or, expectedOr);
+            BitSet expectedCopy = (BitSet) expectedA.clone();
+            mutate(random, copy, expectedCopy);
+            check(seed, trial, "changed AND result", and, expectedAnd);
+            check(seed, trial, "changed OR result", or, expectedOr);
+            check(seed, trial, "changed copy", copy, expectedCopy);
+            check(seed, trial, "a after changing results", a, expectedA);
+            check(seed, trial, "b after changing results", b, expectedB);
+        }
+        System.out.println("RowBitmap: " + trials + " bitmap pairs checked against BitSet (seed " + seed + ")");
+    }
+
+    private static RowBitmap randomBitmap(Random random, BitSet expected) {
+        RowBitmap bitmap = new RowBitmap();
+        int chunks = 1 + random.nextInt(4);
+        for (int c = 0; c < chunks; c++) {
+            // Mostly low chunks so both sides share keys, now and then a far one
+            int base = (random.nextInt(8) == 0 ? 100 + random.nextInt(100) : random.nextInt(4)) * CHUNK;
+            boolean dense = random.nextBoolean();
+            int adds = dense ? 3000 + random.nextInt(4000) : random.nextInt(200);
+            int span = dense ? 8000 : CHUNK;
+            for (int i = 0; i < adds; i++) {
+                int row = base + random.nextInt(span);
+                bitmap.add(row);
+                expected.set(row);
+            }
+            // Removals can take a dense chunk back under the switch or empty it
+            int removes = random.nextInt(4) == 0 ? adds : random.nextInt(adds / 4 + 1);
+            for (int i = 0; i < removes; i++) {
+                int row = base + random.nextInt(span);
+                bitmap.remove(row);
+                expected.clear(row);
+            }
+        }
+        return bitmap;
+    }
+
+    private static void mutate(Random random, RowBitmap bitmap, BitSet expected) {
+        for (int i = 0; i < 50; i++) {
+            int row = random.nextInt(4 * CHUNK);
+            if (random.nextBoolean()) {
+                bitmap.add(row);
+                expected.set(row);
+            } else {
+                bitmap.remove(row);
+                expected.clear(row);
+            }
+        }
+    }
+
+    private static RowBitmap roundTrip(RowBitmap bitmap) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.writeTo(new DataOutputStream(bytes));
+        return RowBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static void check(long seed, int trial, String name, RowBitmap bitmap, BitSet expected) {
+        int[] rows = expected.stream().toArray();
+        if (bitmap.cardinality() != rows.length) {
+            fail(seed, trial, name + ": cardinality " + bitmap.cardinality() + " expected " + rows.length);
+        }
+        if (bitmap.isEmpty() != (rows.length == 0)) {
+            fail(seed, trial, name + ": isEmpty " + bitmap.isEmpty() + " with " + rows.length + " rows");
+        }
+        if (!Arrays.equals(bitmap.toArray(), rows)) {
+            fail(seed, trial, name + ": rows differ");
+        }
+        int last = rows.length == 0 ? 0 : rows[rows.length - 1];
+        for (int row = 0; row <= last + 1; row += 97) {
+            if (bitmap.contains(row) != expected.get(row)) {
+                fail(seed, trial, name + ": contains(" + row + ") " + bitmap.contains(row));
+            }
+        }
+        for (int row : rows) {
+            if (!bitmap.contains(row)) {
+                fail(seed, trial, name + ": contains(" + row + ") false");
+            }
+        }
+    }
+
+    private static void fail(long seed, int trial, String message) {
+        System.err.println("MISMATCH (seed " + seed + ", trial " + trial + "): " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,161 @@
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * RowKeyTable Class - String key to row number map holding no key objects
+ * An open-addressing table (linear probing) of int pairs: the key's hash and
+ * the row number plus one, 0 marking a free slot. The keys themselves live in
+ * the rows, so a slot whose hash matches is confirmed by reading the key back
+ * from its row. Backed by a direct buffer, the table adds nothing for the
+ * collector to trace however many rows it indexes; a heap buffer is one
+ * primitive array. Removal shifts later entries of the probe run back rather
+ * than leaving tombstones.
+ * Demonstrates OOP concepts: Encapsulation, Hashing, Memory Layout
+ */
+public class RowKeyTable {
+    private static final int ENTRY_SIZE = 8;
+    private static final int MIN_CAPACITY = 16;
+    
+    private final IntFunction<String> keyOfRow;
+    private final boolean direct;
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+    
+    /**
+     * @param keyOfRow reads the key a row currently holds
+     * @param direct true to keep the table in direct memory
+     * @param expectedSize number of keys to size the table for
+     */
+    public RowKeyTable(IntFunction<String> keyOfRow, boolean direct, int expectedSize) {
+        this.keyOfRow = keyOfRow;
+        this.direct = direct;
+        allocate(capacityFor(expectedSize));
+    }
+    
+    /**
+     * Row holding the key, or -1
+     */
+    public int get(String key) {
+        int hash = hash(key);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int row = rowAt(slot);
+            if (row < 0) {
+                return -1;
+            }
+            if (hashAt(slot) == hash && key.equals(keyOfRow.apply(row))) {
+                return row;
+            }
+        }
+    }
+    
+    /**
+     * Map the key to a row, replacing the row it was mapped to. The row must
+     * already hold the key, since later lookups read it back from there.
+     */
+    public void put(String key, int row) {
+        if ((size + 1) * 2 > mask + 1) {
+            resize((mask + 1) * 2);
+        }
+        int hash = hash(key);
+        int slot = hash & mask;
+        for (; rowAt(slot) >= 0; slot = (slot + 1) & mask) {
+            int existing = rowAt(slot);
+            if (hashAt(slot) == hash && (existing == row || key.equals(keyOfRow.apply(existing)))) {
+                table.putInt(slot * ENTRY_SIZE + 4, row + 1);
+                return;
+            }
+        }
+        table.putInt(slot * ENTRY_SIZE, hash);
+        table.putInt(slot * ENTRY_SIZE + 4, row + 1);
+        size++;
+    }
+    
+    /**
+     * Remove the key if it maps to this row. Works after the row has been
+     * overwritten, since only the hash and row number are compared.
+     * @return true if an entry was removed
+     */
+    public boolean remove(String key, int row) {
+        int hash = hash(key);
+        for (int slot = hash & mask; rowAt(slot) >= 0; slot = (slot + 1) & mask) {
+            if (hashAt(slot) == hash && rowAt(slot) == row) {
+                removeAt(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Bytes held by the table
+     */
+    public long getBytes() {
+        return table.capacity();
+    }
+    
+    // Close the gap: move back each later entry of the run that may not sit past it
+    private void removeAt(int gap) {
+        size--;
+        for (int slot = (gap + 1) & mask; rowAt(slot) >= 0; slot = (slot + 1) & mask) {
+            int home = hashAt(slot) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table.putInt(gap * ENTRY_SIZE, hashAt(slot));
+                table.putInt(gap * ENTRY_SIZE + 4, rowAt(slot) + 1);
+                gap = slot;
+            }
+        }
+        table.putInt(gap * ENTRY_SIZE + 4, 0);
+    }
+    
+    private void resize(int capacity) {
+        ByteBuffer old = table;
+        int oldCapacity = mask + 1;
+        allocate(capacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int rowPlusOne = old.getInt(slot * ENTRY_SIZE + 4);
+            if (rowPlusOne != 0) {
+                int hash = old.getInt(slot * ENTRY_SIZE);
+                int target = hash & mask;
+                while (rowAt(target) >= 0) {
+                    target = (target + 1) & mask;
+                }
+                table.putInt(target * ENTRY_SIZE, hash);
+                table.putInt(target * ENTRY_SIZE + 4, rowPlusOne);
+                size++;
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        table = direct ? ByteBuffer.allocateDirect(capacity * ENTRY_SIZE) : ByteBuffer.allocate(capacity * ENTRY_SIZE);
+        mask = capacity - 1;
+        size = 0;
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    private int hashAt(int slot) {
+        return table.getInt(slot * ENTRY_SIZE);
+    }
+    
+    private int rowAt(int slot) {
+        return table.getInt(slot * ENTRY_SIZE + 4) - 1;
+    }
+    
+    // String hashes cluster in the low bits; spread them before masking
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
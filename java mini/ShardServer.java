@@ -0,0 +1,502 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+/**
+ * ShardServer Class - Serves one feedback shard to a coordinator in another process
+ * Answers the ShardedFeedbackRepository.Shard calls for its own repository over
+ * TCP, one request at a time per connection, and returns partial results only:
+ * histograms, leaderboard totals or the top-K standings, never all the rows
+ * unless feedback itself is asked for. The nested Client is the coordinator's
+ * side of the connection.
+ * Run a shard process with:
+ *   java ShardServer port [data directory]
+ * The server listens on loopback only unless -Dfeedback.shard.bind=ADDRESS names
+ * another interface. Coordinators must prove they hold the shared secret
+ * (-Dfeedback.shard.secret, or FEEDBACK_SHARD_SECRET) before any request, since
+ * a coordinator can read every row and replace entries. Submitted entries are
+ * validated like form input, and batch sizes and counts sent by the peer are
+ * bounded before anything is allocated for them.
+ *
+ * Protocol (DataOutput encoding): the client sends MAGIC, answers the server's
+ * challenge (ClusterSecurity), then sends requests of an operation byte and its
+ * arguments; each reply starts with OK or ERROR (followed by a message).
+ * Entries use the ReplicationLog wire format.
+ * Demonstrates OOP concepts: Encapsulation, Inner Classes, Networking
+ */
+public class ShardServer {
+    static final int MAGIC = 0x46425348; // "FBSH"
+    private static final byte SUBMIT = 1;
+    private static final byte DISTRIBUTION = 2;
+    private static final byte FEEDBACK = 3;
+    private static final byte TOTALS = 4;
+    private static final byte STANDINGS = 5;
+    private static final byte ROUTING_KEYS = 6;
+    private static final byte OK = 0;
+    private static final byte ERROR = 1;
+    static final String BIND_PROPERTY = "feedback.shard.bind";
+    static final String SECRET_PROPERTY = "feedback.shard.secret";
+    // Largest batch one SUBMIT may carry; the coordinator's import sends 5000
+    static final int MAX_BATCH = 10000;
+    private static final int MAX_STANDINGS = 10000;
+    // Lists read from the peer grow as entries arrive instead of trusting its count
+    private static final int MAX_PRESIZE = 1024;
+    
+    private final ShardedFeedbackRepository.LocalShard shard;
+    private final byte[] secret;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+    
+    /**
+     * @param secret shared secret coordinators must prove they hold
+     */
+    public ShardServer(FeedbackRepository repository, String name, byte[] secret) {
+        if (secret == null || secret.length == 0) {
+            throw new IllegalArgumentException("A shard server needs a shared secret");
+        }
+        this.shard = new ShardedFeedbackRepository.LocalShard(name, repository);
+        this.secret = secret.clone();
+    }
+    
+    /**
+     * Listen on a loopback port (0 picks a free one)
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+    
+    /**
+     * Listen on a port of the given interface
+     */
+    public synchronized void start(InetAddress address, int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(address, port));
+        running = true;
+        Thread acceptor = new Thread(this::acceptCoordinators, "shard-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: " + e.getMessage());
+        }
+    }
+    
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    private void acceptCoordinators() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread worker = new Thread(() -> serve(socket), "shard-" + socket.getRemoteSocketAddress());
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Warning: Shard accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Answer one coordinator's requests until it disconnects
+     */
+    private void serve(Socket socket) {
+        String coordinator = String.valueOf(socket.getRemoteSocketAddress());
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 1 << 16))) {
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(ClusterSecurity.HANDSHAKE_TIMEOUT_MILLIS);
+            if (in.readInt() != MAGIC) {
+                System.err.println("Warning: Ignoring shard connection from " + coordinator + " (bad handshake).");
+                return;
+            }
+            if (!ClusterSecurity.verify(in, out, secret)) {
+                System.err.println("Warning: Rejected shard connection from " + coordinator + " (wrong secret).");
+                MetricsRegistry.increment("shard.connectionsRejected");
+                return;
+            }
+            s.setSoTimeout(0);
+            while (running) {
+                byte operation;
+                try {
+                    operation = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                long start = MetricsRegistry.startTimer();
+                answer(operation, in, out);
+                out.flush();
+                MetricsRegistry.stopTimer("shard.request", start);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Shard connection from " + coordinator + " stopped: " + e.getMessage());
+        }
+    }
+    
+    private void answer(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (operation) {
+            case SUBMIT: {
+                DuplicatePolicy policy = valueOf(DuplicatePolicy.values(), in.readByte());
+                List<Feedback> batch = readEntries(in, MAX_BATCH);
+                List<SubmissionResult> results = validate(batch);
+                if (results == null) {
+                    try {
+                        results = shard.submit(batch, policy);
+                    } catch (DataStorageException e) {
+                        writeError(out, e.getMessage());
+                        return;
+                    }
+                }
+                out.writeByte(OK);
+                out.writeInt(results.size());
+                for (SubmissionResult result : results) {
+                    out.writeByte(result.getStatus().ordinal());
+                    out.writeInt(result.getErrorCode());
+                    // INVALID messages are rebuilt from the error code
+                    out.writeUTF(result.getStatus() == SubmissionResult.Status.INVALID ? "" : result.getMessage());
+                }
+                break;
+            }
+            case DISTRIBUTION: {
+                RatingHistogram histogram = shard.distribution(FeedbackQuery.readFrom(in));
+                out.writeByte(OK);
+                for (int rating = RatingHistogram.MIN_RATING; rating <= RatingHistogram.MAX_RATING; rating++) {
+                    out.writeInt(histogram.getCount(rating));
+                }
+                break;
+            }
+            case FEEDBACK: {
+                List<Feedback> feedback = shard.feedback(FeedbackQuery.readFrom(in));
+                out.writeByte(OK);
+                writeEntries(out, feedback);
+                break;
+            }
+            case TOTALS: {
+                Leaderboard totals = shard.totals(in.readBoolean());
+                out.writeByte(OK);
+                out.writeInt(totals.getMinCount());
+                totals.writeTo(out);
+                break;
+            }
+            case STANDINGS: {
+                boolean faculty = in.readBoolean();
+                boolean top = in.readBoolean();
+                int k = in.readInt();
+                if (k < 0 || k > MAX_STANDINGS) {
+                    writeError(out, "Standings limited to " + MAX_STANDINGS + " entries, not " + k);
+                    return;
+                }
+                List<Leaderboard.Standing> standings = shard.standings(faculty, top, k);
+                out.writeByte(OK);
+                out.writeInt(standings.size());
+                for (Leaderboard.Standing standing : standings) {
+                    out.writeUTF(standing.getKey());
+                    out.writeUTF(standing.getLabel());
+                    out.writeInt(standing.getCount());
+                    out.writeDouble(standing.getAverage());
+                }
+                break;
+            }
+            case ROUTING_KEYS: {
+                Set<String> keys = shard.routingKeys(valueOf(ShardedFeedbackRepository.ShardKey.values(), in.readByte()));
+                out.writeByte(OK);
+                out.writeInt(keys.size());
+                for (String key : keys) {
+                    out.writeUTF(key);
+                }
+                break;
+            }
+            default:
+                writeError(out, "Unknown shard operation " + operation);
+                throw new IOException("Unknown shard operation " + operation);
+        }
+    }
+    
+    /**
+     * Check every entry of a batch the way form submissions are checked. As with
+     * FeedbackService, one invalid entry stops the whole batch.
+     * @return null if all are valid, otherwise INVALID or NOT_SAVED per entry
+     */
+    private static List<SubmissionResult> validate(List<Feedback> batch) {
+        int[] errors = new int[batch.size()];
+        boolean anyInvalid = false;
+        for (int i = 0; i < batch.size(); i++) {
+            Feedback fb = batch.get(i);
+            errors[i] = InputValidator.validateSubmission(fb.getUsn(), fb.getYear(), fb.getSemester(),
+                fb.getSubjectName(), fb.getFacultyId(), fb.getRating());
+            anyInvalid |= errors[i] != InputValidator.OK;
+        }
+        if (!anyInvalid) {
+            return null;
+        }
+        List<SubmissionResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Feedback fb = batch.get(i);
+            results.add(errors[i] != InputValidator.OK
+                ? SubmissionResult.invalid(fb, errors[i]) : SubmissionResult.notSaved(fb));
+        }
+        MetricsRegistry.increment("shard.invalidBatches");
+        return results;
+    }
+    
+    /**
+     * Enum constant sent by ordinal; an unknown one ends the connection
+     */
+    private static <E> E valueOf(E[] values, int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("Unknown " + values.getClass().getComponentType().getSimpleName() + " " + ordinal);
+        }
+        return values[ordinal];
+    }
+    
+    private static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeByte(ERROR);
+        out.writeUTF(message == null ? "" : message);
+    }
+    
+    private static void writeEntries(DataOutputStream out, List<Feedback> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (Feedback fb : entries) {
+            ReplicationLog.writeEntry(out, 0, fb);
+        }
+    }
+    
+    private static List<Feedback> readEntries(DataInputStream in, int maxCount) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > maxCount) {
+            throw new IOException("Batch of " + count + " entries (at most " + maxCount + ")");
+        }
+        List<Feedback> entries = new ArrayList<>(Math.min(count, MAX_PRESIZE));
+        int[] row = new int[1];
+        for (int i = 0; i < count; i++) {
+            entries.add(ReplicationLog.readEntry(in, row));
+        }
+        return entries;
+    }
+    
+    /**
+     * Coordinator side: a shard in a ShardServer process. Calls on one client
+     * are sent one at a time; calls to different shards run in parallel. After
+     * a failed call the next one reconnects.
+     */
+    public static class Client implements ShardedFeedbackRepository.Shard {
+        private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+        private static final int READ_TIMEOUT_MILLIS = 60000;
+        
+        private final String host;
+        private final int port;
+        private final byte[] secret;
+        private Socket socket;
+        private DataInputStream in;
+        private DataOutputStream out;
+        
+        /**
+         * @param secret shared secret the shard server was started with
+         */
+        public Client(String host, int port, byte[] secret) throws IOException {
+            this.host = host;
+            this.port = port;
+            this.secret = secret.clone();
+            connect();
+        }
+        
+        private void connect() throws IOException {
+            Socket s = new Socket();
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            s.setSoTimeout(READ_TIMEOUT_MILLIS);
+            s.setTcpNoDelay(true);
+            socket = s;
+            in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+            out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 1 << 16));
+            try {
+                out.writeInt(MAGIC);
+                out.flush();
+                ClusterSecurity.prove(in, out, secret);
+            } catch (IOException e) {
+                close();
+                throw new IOException(getName() + ": handshake failed (" + e.getMessage() + ")", e);
+            }
+        }
+        
+        @Override
+        public String getName() {
+            return host + ":" + port;
+        }
+        
+        /**
+         * Send the request written so far and read the reply status
+         * @throws IOException if the connection failed or the shard reported an error
+         */
+        private DataInputStream exchange() throws IOException {
+            String error = null;
+            try {
+                out.flush();
+                if (in.readByte() == ERROR) {
+                    error = in.readUTF();
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            if (error != null) {
+                // Reported by the shard; the connection is still usable
+                throw new IOException(getName() + ": " + error);
+            }
+            return in;
+        }
+        
+        /**
+         * Start a request, reconnecting first if the last one failed
+         */
+        private DataOutputStream request(byte operation) throws IOException {
+            if (socket == null) {
+                connect();
+            }
+            out.writeByte(operation);
+            return out;
+        }
+        
+        @Override
+        public synchronized List<SubmissionResult> submit(List<Feedback> batch, DuplicatePolicy policy)
+                throws DataStorageException, IOException {
+            if (batch.size() > MAX_BATCH) {
+                throw new DataStorageException("WRITE", getName(),
+                    "Batch of " + batch.size() + " entries exceeds the shard limit of " + MAX_BATCH);
+            }
+            request(SUBMIT).writeByte(policy.ordinal());
+            writeEntries(out, batch);
+            DataInputStream reply;
+            try {
+                reply = exchange();
+            } catch (IOException e) {
+                throw new DataStorageException("WRITE", getName(), e.getMessage(), e);
+            }
+            int count = reply.readInt();
+            if (count != batch.size()) {
+                close();
+                throw new IOException(getName() + ": " + count + " results for " + batch.size() + " entries");
+            }
+            List<SubmissionResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                SubmissionResult.Status status = SubmissionResult.Status.values()[reply.readByte()];
+                int errorCode = reply.readInt();
+                String message = reply.readUTF();
+                results.add(SubmissionResult.restore(batch.get(i), status, errorCode, message.isEmpty() ? null : message));
+            }
+            return results;
+        }
+        
+        @Override
+        public synchronized RatingHistogram distribution(FeedbackQuery query) throws IOException {
+            query.writeTo(request(DISTRIBUTION));
+            DataInputStream reply = exchange();
+            int[] counts = new int[RatingHistogram.MAX_RATING - RatingHistogram.MIN_RATING + 1];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = reply.readInt();
+            }
+            return RatingHistogram.of(counts);
+        }
+        
+        @Override
+        public synchronized List<Feedback> feedback(FeedbackQuery query) throws IOException {
+            query.writeTo(request(FEEDBACK));
+            return readEntries(exchange(), Integer.MAX_VALUE);
+        }
+        
+        @Override
+        public synchronized Leaderboard totals(boolean faculty) throws IOException {
+            request(TOTALS).writeBoolean(faculty);
+            DataInputStream reply = exchange();
+            int minCount = reply.readInt();
+            return Leaderboard.readFrom(reply, minCount);
+        }
+        
+        @Override
+        public synchronized List<Leaderboard.Standing> standings(boolean faculty, boolean top, int k)
+                throws IOException {
+            DataOutputStream request = request(STANDINGS);
+            request.writeBoolean(faculty);
+            request.writeBoolean(top);
+            request.writeInt(k);
+            DataInputStream reply = exchange();
+            int count = reply.readInt();
+            List<Leaderboard.Standing> standings = new ArrayList<>(Math.min(Math.max(0, count), k));
+            for (int i = 0; i < count; i++) {
+                standings.add(new Leaderboard.Standing(reply.readUTF(), reply.readUTF(), reply.readInt(),
+                    reply.readDouble()));
+            }
+            return standings;
+        }
+        
+        @Override
+        public synchronized Set<String> routingKeys(ShardedFeedbackRepository.ShardKey by) throws IOException {
+            request(ROUTING_KEYS).writeByte(by.ordinal());
+            DataInputStream reply = exchange();
+            int count = reply.readInt();
+            Set<String> keys = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                keys.add(reply.readUTF());
+            }
+            return keys;
+        }
+        
+        @Override
+        public synchronized void close() {
+            try {
+                if (socket != null) {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Warning: " + e.getMessage());
+            } finally {
+                socket = null;
+            }
+        }
+    }
+    
+    /**
+     * Run a shard process serving one data directory
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ShardServer port [data directory]");
+            return;
+        }
+        byte[] secret = ClusterSecurity.secret(SECRET_PROPERTY);
+        if (secret == null) {
+            System.out.println("Set -D" + SECRET_PROPERTY + " (or FEEDBACK_SHARD_SECRET) to the secret coordinators will use.");
+            return;
+        }
+        String dataDirectory = args.length > 1 ? args[1] : ".";
+        FeedbackRepository repository = new FeedbackRepository(dataDirectory);
+        ShardServer server = new ShardServer(repository, dataDirectory, secret);
+        server.start(ClusterSecurity.bindAddress(BIND_PROPERTY), Integer.parseInt(args[0]));
+        System.out.println("Shard " + dataDirectory + " (" + repository.getFeedbackCount() + " entries) serving on "
+            + server.serverSocket.getInetAddress().getHostAddress() + ":" + server.getPort() + ".");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            server.shard.close();
+        }));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,579 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ShardedFeedbackRepository Class - Coordinator over feedback split across shards
+ * Each shard is a complete FeedbackRepository, in this process (its own data
+ * directory) or in another one behind a ShardServer. Feedback is routed by
+ * department (from the subject code) or by faculty ID, so every entry for one
+ * department or faculty member, and every repeat of an entry, lands on the
+ * same shard and duplicate checks stay local to it.
+ * Reads fan out to the shards in parallel and merge partial aggregates: rating
+ * histograms add up, leaderboard totals (sum and count per entity) merge
+ * exactly, and when faculty are the shard key each shard's top-K faculty are
+ * already final, so only K standings per shard are fetched and merged.
+ * Routing keys are placed on a consistent-hash ring; a key already stored on
+ * a shard stays pinned there. Adding a shard therefore never moves rows or
+ * pauses queries: it takes new departments or faculty whose hash falls in
+ * its part of the ring, while existing ones keep their shard.
+ * Demonstrates OOP concepts: Interfaces, Inner Classes, Multithreading, Aggregation
+ */
+public class ShardedFeedbackRepository {
+    
+    /**
+     * What feedback is partitioned by
+     */
+    public enum ShardKey {
+        DEPARTMENT,  // department of the subject, from SubjectManager or the subject code
+        FACULTY      // faculty ID
+    }
+    
+    /**
+     * One partition of the data, answering with partial results for the coordinator
+     */
+    public interface Shard {
+        String getName();
+        
+        List<SubmissionResult> submit(List<Feedback> batch, DuplicatePolicy policy)
+            throws DataStorageException, IOException;
+        
+        RatingHistogram distribution(FeedbackQuery query) throws IOException;
+        
+        List<Feedback> feedback(FeedbackQuery query) throws IOException;
+        
+        /**
+         * Running totals of the faculty (or subject) leaderboard
+         */
+        Leaderboard totals(boolean faculty) throws IOException;
+        
+        /**
+         * Top (or bottom) k faculty or subjects on this shard
+         */
+        List<Leaderboard.Standing> standings(boolean faculty, boolean top, int k) throws IOException;
+        
+        /**
+         * Routing keys of the feedback stored on this shard
+         */
+        Set<String> routingKeys(ShardKey by) throws IOException;
+        
+        void close();
+    }
+    
+    /**
+     * Shard held in this process
+     */
+    public static class LocalShard implements Shard {
+        private final String name;
+        private final FeedbackRepository repository;
+        
+        public LocalShard(String name, FeedbackRepository repository) {
+            this.name = name;
+            this.repository = repository;
+        }
+        
+        public FeedbackRepository getRepository() {
+            return repository;
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public List<SubmissionResult> submit(List<Feedback> batch, DuplicatePolicy policy)
+                throws DataStorageException {
+            return repository.addFeedbackBatch(batch, policy);
+        }
+        
+        @Override
+        public RatingHistogram distribution(FeedbackQuery query) {
+            return repository.getRatingDistribution(query);
+        }
+        
+        @Override
+        public List<Feedback> feedback(FeedbackQuery query) {
+            return repository.getFeedback(query);
+        }
+        
+        @Override
+        public Leaderboard totals(boolean faculty) {
+            return faculty ? repository.getFacultyTotals() : repository.getSubjectTotals();
+        }
+        
+        @Override
+        public List<Leaderboard.Standing> standings(boolean faculty, boolean top, int k) {
+            if (faculty) {
+                return top ? repository.getTopFaculty(k) : repository.getBottomFaculty(k);
+            }
+            return top ? repository.getTopSubjects(k) : repository.getBottomSubjects(k);
+        }
+        
+        @Override
+        public Set<String> routingKeys(ShardKey by) {
+            Set<String> keys = new HashSet<>();
+            for (Feedback fb : repository.getAllFeedback()) {
+                keys.add(routingKey(fb, by));
+            }
+            return keys;
+        }
+        
+        @Override
+        public void close() {
+            try {
+                repository.checkpoint();
+            } catch (DataStorageException e) {
+                System.err.println("Warning: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * A call made on one shard during a fan-out
+     */
+    private interface ShardCall<T> {
+        T call(Shard shard) throws Exception;
+    }
+    
+    // Points per shard on the ring; more points spread keys more evenly
+    private static final int RING_POINTS = 64;
+    private static final Map<String, String> DEPARTMENTS_BY_CODE = new HashMap<>();
+    
+    static {
+        for (Subject subject : new SubjectManager().getAllSubjects()) {
+            DEPARTMENTS_BY_CODE.put(subject.getSubjectCode().toUpperCase(), subject.getDepartment());
+        }
+    }
+    
+    private final ShardKey shardKey;
+    // Replaced, never modified, so a fan-out works on a consistent set of shards
+    private volatile List<Shard> shards = Collections.emptyList();
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final Map<String, Integer> pinned = new HashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "shard-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public ShardedFeedbackRepository(ShardKey shardKey) {
+        this.shardKey = shardKey;
+    }
+    
+    /**
+     * Open shards stored in sub-directories shard-0 .. shard-(count-1) of a directory
+     */
+    public static ShardedFeedbackRepository openLocal(String directory, int count, ShardKey shardKey)
+            throws DataStorageException {
+        ShardedFeedbackRepository sharded = new ShardedFeedbackRepository(shardKey);
+        for (int i = 0; i < count; i++) {
+            sharded.addLocalShard(directory + File.separator + "shard-" + i);
+        }
+        return sharded;
+    }
+    
+    /**
+     * Open (creating if needed) a shard in a data directory of this process
+     */
+    public Shard addLocalShard(String dataDirectory) throws DataStorageException {
+        File dir = new File(dataDirectory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new DataStorageException("WRITE", dataDirectory, "Could not create shard directory");
+        }
+        LocalShard shard = new LocalShard(dataDirectory, new FeedbackRepository(dataDirectory));
+        register(shard, shard.routingKeys(shardKey));
+        return shard;
+    }
+    
+    /**
+     * Connect to a shard served by a ShardServer process, authenticating with
+     * the secret from -Dfeedback.shard.secret or FEEDBACK_SHARD_SECRET
+     */
+    public Shard addRemoteShard(String host, int port) throws IOException {
+        byte[] secret = ClusterSecurity.secret(ShardServer.SECRET_PROPERTY);
+        if (secret == null) {
+            throw new IOException("Set -D" + ShardServer.SECRET_PROPERTY
+                + " (or FEEDBACK_SHARD_SECRET) to connect to shard " + host + ":" + port);
+        }
+        Shard shard = new ShardServer.Client(host, port, secret);
+        addShard(shard);
+        return shard;
+    }
+    
+    /**
+     * Add a shard while the others keep serving. Keys it already stores are
+     * pinned to it; new keys whose hash falls in its part of the ring go to it.
+     */
+    public void addShard(Shard shard) throws IOException {
+        register(shard, shard.routingKeys(shardKey));
+    }
+    
+    /**
+     * Pin a shard's keys and place it on the ring. The keys are listed before
+     * the routing lock is taken, since a large shard takes a while to list.
+     */
+    private void register(Shard shard, Set<String> keys) {
+        synchronized (ring) {
+            int index = shards.size();
+            for (String key : keys) {
+                Integer owner = pinned.putIfAbsent(key, index);
+                if (owner != null) {
+                    System.err.println("Warning: " + key + " is stored on both " + shards.get(owner).getName()
+                        + " and " + shard.getName() + "; new entries go to " + shards.get(owner).getName() + ".");
+                }
+            }
+            for (int point = 0; point < RING_POINTS; point++) {
+                ring.put(HyperLogLog.hash(shard.getName() + "#" + point), index);
+            }
+            List<Shard> updated = new ArrayList<>(shards);
+            updated.add(shard);
+            shards = Collections.unmodifiableList(updated);
+        }
+        MetricsRegistry.increment("shards.added");
+    }
+    
+    public List<Shard> getShards() {
+        return shards;
+    }
+    
+    public ShardKey getShardKey() {
+        return shardKey;
+    }
+    
+    /**
+     * Routing key of an entry: its department or its faculty ID
+     */
+    public static String routingKey(Feedback fb, ShardKey by) {
+        if (by == ShardKey.FACULTY) {
+            return fb.getFacultyId().toUpperCase();
+        }
+        return department(fb.getSubjectCode());
+    }
+    
+    /**
+     * Department of a subject code: the predefined subject's department, else
+     * the letters of the code ("21EC42" is EC), else "Other"
+     */
+    static String department(String subjectCode) {
+        String code = subjectCode == null ? "" : subjectCode.toUpperCase();
+        String known = DEPARTMENTS_BY_CODE.get(code);
+        if (known != null) {
+            return known;
+        }
+        int start = 0;
+        while (start < code.length() && Character.isDigit(code.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < code.length() && Character.isLetter(code.charAt(end))) {
+            end++;
+        }
+        return end > start ? code.substring(start, end) : "Other";
+    }
+    
+    /**
+     * Shard an entry is written to, pinning its key on first use
+     */
+    private int shardFor(Feedback fb) {
+        String key = routingKey(fb, shardKey);
+        synchronized (ring) {
+            if (ring.isEmpty()) {
+                throw new IllegalStateException("No shards have been added");
+            }
+            Integer owner = pinned.get(key);
+            if (owner == null) {
+                Map.Entry<Long, Integer> point = ring.ceilingEntry(HyperLogLog.hash(key));
+                owner = (point != null ? point : ring.firstEntry()).getValue();
+                pinned.put(key, owner);
+            }
+            return owner;
+        }
+    }
+    
+    /**
+     * Shards that can hold matches: with faculty as the shard key a query for
+     * one faculty member goes to that member's shard only
+     */
+    private List<Shard> shardsFor(FeedbackQuery query) {
+        if (shardKey == ShardKey.FACULTY && query != null && query.getFacultyId() != null) {
+            synchronized (ring) {
+                Integer owner = pinned.get(query.getFacultyId().toUpperCase());
+                return owner == null ? Collections.emptyList() : Collections.singletonList(shards.get(owner));
+            }
+        }
+        return shards;
+    }
+    
+    /**
+     * Run a call on every target shard in parallel and collect the results in shard order
+     * @throws IllegalStateException naming the first shard that failed
+     */
+    private <T> List<T> fanOut(List<Shard> targets, ShardCall<T> call) {
+        long start = MetricsRegistry.startTimer();
+        List<T> results = new ArrayList<>(targets.size());
+        try {
+            if (targets.size() == 1) {
+                // Nothing to overlap; skip the hand-off to another thread
+                results.add(call.call(targets.get(0)));
+                return results;
+            }
+            List<Future<T>> futures = new ArrayList<>(targets.size());
+            for (Shard shard : targets) {
+                futures.add(executor.submit(() -> call.call(shard)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Shard " + targets.get(i).getName() + " failed: "
+                        + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Shard " + targets.get(0).getName() + " failed: " + e.getMessage(), e);
+        } finally {
+            MetricsRegistry.stopTimer("shards.fanOut", start);
+        }
+    }
+    
+    // ---- Writes ----
+    
+    /**
+     * Add new feedback on its shard, resolving repeats with the given policy
+     * @return true if the shard changed, false if the entry was ignored
+     */
+    public boolean addFeedback(Feedback feedback, DuplicatePolicy policy)
+            throws DataStorageException, DuplicateFeedbackException {
+        SubmissionResult result = addFeedbackBatch(Collections.singletonList(feedback), policy).get(0);
+        switch (result.getStatus()) {
+            case DUPLICATE:
+                throw (DuplicateFeedbackException) result.toException();
+            case IGNORED:
+                System.out.println(result.getMessage());
+                return false;
+            default:
+                return true;
+        }
+    }
+    
+    /**
+     * Add several entries, each on its shard; the shards store their parts in
+     * parallel. A batch is all-or-nothing per shard: under REJECT a repeat
+     * rejects that shard's part of the batch, not the parts sent to other shards.
+     * @return one result per entry, in submission order
+     */
+    public List<SubmissionResult> addFeedbackBatch(List<Feedback> batch, DuplicatePolicy policy)
+            throws DataStorageException {
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            positionsByShard.computeIfAbsent(shardFor(batch.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        // Taken after routing, so it includes every shard an entry was routed to
+        List<Shard> current = shards;
+        Map<Shard, List<Feedback>> parts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : positionsByShard.entrySet()) {
+            List<Feedback> part = new ArrayList<>(entry.getValue().size());
+            for (int position : entry.getValue()) {
+                part.add(batch.get(position));
+            }
+            parts.put(current.get(entry.getKey()), part);
+        }
+        
+        List<List<SubmissionResult>> partResults;
+        try {
+            partResults = fanOut(new ArrayList<>(parts.keySet()), shard -> shard.submit(parts.get(shard), policy));
+        } catch (IllegalStateException e) {
+            throw new DataStorageException("WRITE", "shards", e.getMessage(), e.getCause());
+        }
+        SubmissionResult[] results = new SubmissionResult[batch.size()];
+        int part = 0;
+        for (List<Integer> positions : positionsByShard.values()) {
+            List<SubmissionResult> shardResults = partResults.get(part++);
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = shardResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+    
+    // ---- Reads ----
+    
+    /**
+     * Rating distribution over every shard, merged from the shards' histograms
+     */
+    public RatingHistogram getRatingDistribution(FeedbackQuery query) {
+        RatingHistogram merged = RatingHistogram.EMPTY;
+        for (RatingHistogram partial : fanOut(shardsFor(query), shard -> shard.distribution(query))) {
+            merged = merged.merge(partial);
+        }
+        return merged;
+    }
+    
+    public int countFeedback(FeedbackQuery query) {
+        return getRatingDistribution(query).getCount();
+    }
+    
+    public double getAverageRating(FeedbackQuery query) {
+        return getRatingDistribution(query).getMean();
+    }
+    
+    public int getFeedbackCount() {
+        return countFeedback(new FeedbackQuery());
+    }
+    
+    /**
+     * Entry counts per shard, in shard order
+     */
+    public List<Integer> getShardCounts() {
+        List<Integer> counts = new ArrayList<>();
+        for (RatingHistogram histogram : fanOut(shards, shard -> shard.distribution(new FeedbackQuery()))) {
+            counts.add(histogram.getCount());
+        }
+        return counts;
+    }
+    
+    /**
+     * Matching feedback from every shard, shard by shard
+     */
+    public List<Feedback> getFeedback(FeedbackQuery query) {
+        List<Feedback> results = new ArrayList<>();
+        for (List<Feedback> partial : fanOut(shardsFor(query), shard -> shard.feedback(query))) {
+            results.addAll(partial);
+        }
+        return results;
+    }
+    
+    public List<Leaderboard.Standing> getTopFaculty(int k) {
+        return ranking(true, true, k);
+    }
+    
+    public List<Leaderboard.Standing> getBottomFaculty(int k) {
+        return ranking(true, false, k);
+    }
+    
+    public List<Leaderboard.Standing> getTopSubjects(int k) {
+        return ranking(false, true, k);
+    }
+    
+    public List<Leaderboard.Standing> getBottomSubjects(int k) {
+        return ranking(false, false, k);
+    }
+    
+    /**
+     * Top or bottom k across shards. Faculty are whole on one shard when they
+     * are the shard key, so each shard's own top k can simply be merged;
+     * otherwise an entity may be split across shards and its totals are
+     * added up first.
+     */
+    private List<Leaderboard.Standing> ranking(boolean faculty, boolean top, int k) {
+        if (faculty && shardKey == ShardKey.FACULTY) {
+            List<Leaderboard.Standing> candidates = new ArrayList<>();
+            for (List<Leaderboard.Standing> partial : fanOut(shards, shard -> shard.standings(true, top, k))) {
+                candidates.addAll(partial);
+            }
+            Comparator<Leaderboard.Standing> bestFirst = Comparator
+                .comparingDouble(Leaderboard.Standing::getAverage).reversed()
+                .thenComparing(Comparator.comparingInt(Leaderboard.Standing::getCount).reversed())
+                .thenComparing(Leaderboard.Standing::getKey);
+            candidates.sort(top ? bestFirst : bestFirst.reversed());
+            return new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+        }
+        Leaderboard merged = null;
+        for (Leaderboard partial : fanOut(shards, shard -> shard.totals(faculty))) {
+            if (merged == null) {
+                merged = new Leaderboard(partial.getMinCount());
+            }
+            merged.mergeFrom(partial);
+        }
+        if (merged == null) {
+            return new ArrayList<>();
+        }
+        return top ? merged.top(k) : merged.bottom(k);
+    }
+    
+    /**
+     * Save each local shard's checkpoint and disconnect from remote shards
+     */
+    public void close() {
+        executor.shutdown();
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+    
+    /**
+     * Print totals and rankings gathered from a set of shards, optionally
+     * splitting an existing data directory across them first:
+     *   java ShardedFeedbackRepository [--by=department|faculty] [--import=DIR] shard...
+     * where each shard is a data directory or the host:port of a ShardServer
+     */
+    public static void main(String[] args) throws Exception {
+        ShardKey by = ShardKey.DEPARTMENT;
+        String importDirectory = null;
+        List<String> locations = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--by=")) {
+                by = arg.substring(5).equalsIgnoreCase("faculty") ? ShardKey.FACULTY : ShardKey.DEPARTMENT;
+            } else if (arg.startsWith("--import=")) {
+                importDirectory = arg.substring(9);
+            } else {
+                locations.add(arg);
+            }
+        }
+        if (locations.isEmpty()) {
+            System.out.println("Usage: java ShardedFeedbackRepository [--by=department|faculty] [--import=DIR] shard...");
+            System.out.println("  where each shard is a data directory or host:port of a ShardServer");
+            return;
+        }
+        
+        ShardedFeedbackRepository sharded = new ShardedFeedbackRepository(by);
+        for (String location : locations) {
+            int colon = location.lastIndexOf(':');
+            if (colon > 0 && location.substring(colon + 1).matches("\\d+")) {
+                sharded.addRemoteShard(location.substring(0, colon), Integer.parseInt(location.substring(colon + 1)));
+            } else {
+                sharded.addLocalShard(location);
+            }
+        }
+        
+        if (importDirectory != null) {
+            List<Feedback> all = new FeedbackRepository(importDirectory).getAllFeedback();
+            long start = System.nanoTime();
+            // Large batches: every batch rewrites the partition files it touches on each shard
+            for (int i = 0; i < all.size(); i += 5000) {
+                sharded.addFeedbackBatch(all.subList(i, Math.min(all.size(), i + 5000)), DuplicatePolicy.REPLACE);
+            }
+            System.out.printf("Imported %d entries in %.0f ms.%n", all.size(), (System.nanoTime() - start) / 1e6);
+        }
+        
+        long start = System.nanoTime();
+        List<Integer> counts = sharded.getShardCounts();
+        RatingHistogram overall = sharded.getRatingDistribution(new FeedbackQuery());
+        List<Leaderboard.Standing> topFaculty = sharded.getTopFaculty(5);
+        List<Leaderboard.Standing> bottomFaculty = sharded.getBottomFaculty(5);
+        List<Leaderboard.Standing> topSubjects = sharded.getTopSubjects(5);
+        double elapsed = (System.nanoTime() - start) / 1e6;
+        
+        System.out.println("\n=== SHARDED FEEDBACK (by " + by.name().toLowerCase() + ") ===");
+        for (int i = 0; i < counts.size(); i++) {
+            System.out.println("  " + sharded.getShards().get(i).getName() + ": " + counts.get(i) + " entries");
+        }
+        System.out.printf("Total: %d entries, average rating %.2f%n", overall.getCount(), overall.getMean());
+        System.out.println("Top faculty: " + topFaculty);
+        System.out.println("Bottom faculty: " + bottomFaculty);
+        System.out.println("Top subjects: " + topSubjects);
+        System.out.printf("Gathered in %.1f ms.%n", elapsed);
+        sharded.close();
+    }
+}
@@ -44,7 +44,8 @@ public class Student implements User {
         System.out.println("\n===== STUDENT MENU =====");
         System.out.println("1. Submit Feedback");
         System.out.println("2. View My Submissions");
-        System.out.println("3. Logout");
+        System.out.println("3. Submit Feedback for All Subjects");
+        System.out.println("4. Logout");
         System.out.println("========================");
     }
 
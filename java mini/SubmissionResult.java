@@ -0,0 +1,106 @@
+/**
+ * SubmissionResult Class - Outcome of one entry in a batch submission
+ * Failed validations keep only their error code; the exception and its message
+ * are built when a caller asks for them.
+ * Demonstrates OOP concepts: Encapsulation, Enums, Data Modeling
+ */
+public class SubmissionResult {
+    
+    public enum Status {
+        SAVED,      // stored (new or replacing an earlier entry)
+        IGNORED,    // a newer entry for the same subject is kept instead
+        DUPLICATE,  // rejected as a repeat of an existing entry
+        INVALID,    // failed validation
+        NOT_SAVED   // valid, but the batch was rejected because of another entry
+    }
+    
+    private final Feedback feedback;
+    private final Status status;
+    private final int errorCode;
+    private final String message;
+    
+    private SubmissionResult(Feedback feedback, Status status, int errorCode, String message) {
+        this.feedback = feedback;
+        this.status = status;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+    
+    public static SubmissionResult saved(Feedback feedback) {
+        return new SubmissionResult(feedback, Status.SAVED, InputValidator.OK, null);
+    }
+    
+    public static SubmissionResult ignored(Feedback feedback, String message) {
+        return new SubmissionResult(feedback, Status.IGNORED, InputValidator.OK, message);
+    }
+    
+    public static SubmissionResult duplicate(Feedback feedback, String message) {
+        return new SubmissionResult(feedback, Status.DUPLICATE, InputValidator.OK, message);
+    }
+    
+    public static SubmissionResult invalid(Feedback feedback, int errorCode) {
+        return new SubmissionResult(feedback, Status.INVALID, errorCode, null);
+    }
+    
+    public static SubmissionResult notSaved(Feedback feedback) {
+        return new SubmissionResult(feedback, Status.NOT_SAVED, InputValidator.OK,
+            "Not saved because another entry in the batch was rejected");
+    }
+    
+    /**
+     * Rebuild a result from its parts, as received from a shard server
+     */
+    static SubmissionResult restore(Feedback feedback, Status status, int errorCode, String message) {
+        return new SubmissionResult(feedback, status, errorCode, message);
+    }
+    
+    public Feedback getFeedback() {
+        return feedback;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public boolean isSaved() {
+        return status == Status.SAVED;
+    }
+    
+    /**
+     * InputValidator error code for INVALID results, otherwise InputValidator.OK
+     */
+    public int getErrorCode() {
+        return errorCode;
+    }
+    
+    public String getMessage() {
+        if (status == Status.INVALID) {
+            return toException().getMessage();
+        }
+        return message == null ? "" : message;
+    }
+    
+    /**
+     * Exception describing a rejected entry, or null if it was not rejected
+     */
+    public InvalidInputException toException() {
+        switch (status) {
+            case INVALID:
+                return InputValidator.exceptionFor(errorCode, feedback.getUsn(), feedback.getYear(),
+                    feedback.getSemester(), feedback.getSubjectName(), feedback.getFacultyId(),
+                    feedback.getRating());
+            case DUPLICATE:
+                return new DuplicateFeedbackException(FeedbackRepository.duplicateKey(feedback.getUsn(),
+                    feedback.getSubjectCode(), feedback.getFacultyId(), feedback.getSemester()), message);
+            default:
+                return null;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        String text = feedback.getSubjectName() + ": " + status;
+        String detail = getMessage();
+        return detail.isEmpty() ? text : text + " - " + detail;
+    }
+}
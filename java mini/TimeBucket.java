@@ -0,0 +1,110 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * TimeBucket Enum - Granularities for time-bucketed rollups
+ * Each bucket is identified by a long: hours and days count from the epoch,
+ * weeks by the epoch day of their Monday, and terms by half academic years
+ * (June-November is the odd term, December-May the even term).
+ * Demonstrates OOP concepts: Enums, Encapsulation
+ */
+public enum TimeBucket {
+    HOUR, DAY, WEEK, TERM;
+    
+    // Terms start in June and December
+    private static final int TERM_START_MONTH = 6;
+    
+    /**
+     * Bucket holding the given day and hour of day
+     */
+    public long of(long epochDay, int hour) {
+        switch (this) {
+            case HOUR:
+                return epochDay * 24 + hour;
+            case DAY:
+                return epochDay;
+            case WEEK:
+                return mondayOf(epochDay);
+            case TERM:
+            default:
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                return Math.floorDiv(date.getYear() * 12L + date.getMonthValue() - TERM_START_MONTH, 6);
+        }
+    }
+    
+    /**
+     * First day covered by a bucket
+     */
+    public long firstDay(long bucket) {
+        switch (this) {
+            case HOUR:
+                return Math.floorDiv(bucket, 24);
+            case DAY:
+            case WEEK:
+                return bucket;
+            case TERM:
+            default:
+                return termStart(bucket).toEpochDay();
+        }
+    }
+    
+    /**
+     * Last day covered by a bucket
+     */
+    public long lastDay(long bucket) {
+        switch (this) {
+            case HOUR:
+                return Math.floorDiv(bucket, 24);
+            case DAY:
+                return bucket;
+            case WEEK:
+                return bucket + 6;
+            case TERM:
+            default:
+                return termStart(bucket).plusMonths(6).toEpochDay() - 1;
+        }
+    }
+    
+    /**
+     * Readable name of a bucket, e.g. "2026-10-19 14:00", "week of 2026-10-19", "2026-27 odd term"
+     */
+    public String label(long bucket) {
+        switch (this) {
+            case HOUR:
+                return LocalDate.ofEpochDay(firstDay(bucket)) + String.format(" %02d:00", Math.floorMod(bucket, 24));
+            case DAY:
+                return LocalDate.ofEpochDay(bucket).toString();
+            case WEEK:
+                return "week of " + LocalDate.ofEpochDay(bucket);
+            case TERM:
+            default:
+                LocalDate start = termStart(bucket);
+                String academicYear = PartitionedStore.academicYearOf(start.toString());
+                return academicYear + (start.getMonthValue() == TERM_START_MONTH ? " odd term" : " even term");
+        }
+    }
+    
+    private static long mondayOf(long epochDay) {
+        int dayOfWeek = LocalDate.ofEpochDay(epochDay).getDayOfWeek().getValue();
+        return epochDay - (dayOfWeek - DayOfWeek.MONDAY.getValue());
+    }
+    
+    private static LocalDate termStart(long term) {
+        long months = term * 6 + TERM_START_MONTH - 1;
+        return LocalDate.of((int) Math.floorDiv(months, 12), Math.floorMod(months, 12) + 1, 1);
+    }
+    
+    /**
+     * Parse "hour", "day", "week" or "term"; anything else gives DAY
+     */
+    public static TimeBucket fromString(String value) {
+        if (value != null) {
+            for (TimeBucket bucket : values()) {
+                if (bucket.name().equalsIgnoreCase(value.trim())) {
+                    return bucket;
+                }
+            }
+        }
+        return DAY;
+    }
+}